@@ -49,6 +49,7 @@ public class SecurityConfig {
             "/api/images/{subDirectory}/{fileName:.+}", // Path for ImageController
             "/api/images/{subDirectory}/thumbnails/{fileName:.+}", // Path for ImageController thumbnails
             "/api/users/avatar/{fileName:.+}", // Path for avatar images
+            "/api/calendar/feeds/*", // Token-authenticated calendar feeds
             "/ws/**" // WebSocket endpoints
     };
 
@@ -82,8 +83,10 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:5173")); // Added localhost:5173
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "If-Match", "If-Range",
+                "Upload-Offset", "Upload-Checksum"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Content-Range", "Accept-Ranges", "Upload-Offset"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
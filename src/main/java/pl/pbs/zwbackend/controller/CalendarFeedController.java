@@ -0,0 +1,57 @@
+package pl.pbs.zwbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pl.pbs.zwbackend.dto.CalendarFeedResponse;
+import pl.pbs.zwbackend.model.CalendarFeed;
+import pl.pbs.zwbackend.service.CalendarFeedService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+
+    @GetMapping("/feed")
+    public ResponseEntity<CalendarFeedResponse> getFeed(@AuthenticationPrincipal UserDetails currentUser) {
+        CalendarFeedResponse feed = calendarFeedService.getFeed(currentUser.getUsername());
+        return ResponseEntity.ok(feed);
+    }
+
+    @PostMapping("/feed")
+    public ResponseEntity<CalendarFeedResponse> rotateToken(@AuthenticationPrincipal UserDetails currentUser) {
+        CalendarFeedResponse feed = calendarFeedService.rotateToken(currentUser.getUsername());
+        return ResponseEntity.ok(feed);
+    }
+
+    @DeleteMapping("/feed")
+    public ResponseEntity<Map<String, String>> deleteFeed(@AuthenticationPrincipal UserDetails currentUser) {
+        calendarFeedService.deleteFeed(currentUser.getUsername());
+        return ResponseEntity.ok(Map.of("message", "Calendar feed successfully deleted"));
+    }
+
+    // Public; the token in the path authenticates calendar clients, which cannot send a JWT
+    @GetMapping("/feeds/{token}.ics")
+    public ResponseEntity<byte[]> getCalendar(@PathVariable String token, WebRequest webRequest) {
+        CalendarFeed feed = calendarFeedService.findByToken(token);
+        String eTag = calendarFeedService.eTag(feed);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(eTag)
+                .body(calendarFeedService.render(feed));
+    }
+}
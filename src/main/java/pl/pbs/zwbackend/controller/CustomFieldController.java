@@ -0,0 +1,49 @@
+package pl.pbs.zwbackend.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.CustomFieldDefinitionRequest;
+import pl.pbs.zwbackend.dto.CustomFieldDefinitionResponse;
+import pl.pbs.zwbackend.service.CustomFieldService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/projects/{projectId}/custom-fields")
+@RequiredArgsConstructor
+public class CustomFieldController {
+
+    private final CustomFieldService customFieldService;
+
+    @PostMapping
+    public ResponseEntity<CustomFieldDefinitionResponse> createField(
+            @PathVariable Long projectId,
+            @Valid @RequestBody CustomFieldDefinitionRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        CustomFieldDefinitionResponse field = customFieldService.createField(projectId, request, currentUser.getUsername());
+        return new ResponseEntity<>(field, HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CustomFieldDefinitionResponse>> getFields(
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<CustomFieldDefinitionResponse> fields = customFieldService.getFields(projectId, currentUser.getUsername());
+        return ResponseEntity.ok(fields);
+    }
+
+    @DeleteMapping("/{fieldId}")
+    public ResponseEntity<Map<String, String>> deleteField(
+            @PathVariable Long projectId,
+            @PathVariable Long fieldId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        customFieldService.deleteField(projectId, fieldId, currentUser.getUsername());
+        return ResponseEntity.ok(Map.of("message", "Custom field successfully deleted"));
+    }
+}
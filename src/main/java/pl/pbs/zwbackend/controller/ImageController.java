@@ -1,17 +1,21 @@
 package pl.pbs.zwbackend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import pl.pbs.zwbackend.dto.ImagePreflightRequest;
+import pl.pbs.zwbackend.dto.ImagePreflightResponse;
 import pl.pbs.zwbackend.dto.ImageResponse;
 import pl.pbs.zwbackend.service.ImageService;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -32,11 +36,22 @@ public class ImageController {
         return new ResponseEntity<>(imageResponse, HttpStatus.CREATED);
     }
 
+    // 201 with the image when its content is already stored, 200 with uploadRequired otherwise
+    @PostMapping("/preflight")
+    public ResponseEntity<ImagePreflightResponse> preflight(
+            @Valid @RequestBody ImagePreflightRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        ImagePreflightResponse response = imageService.preflight(request, currentUser.getUsername());
+        return new ResponseEntity<>(response, response.isUploadRequired() ? HttpStatus.OK : HttpStatus.CREATED);
+    }
+
     @GetMapping("/{subDirectory}/{storedFileName:.+}")
-    public ResponseEntity<Resource> serveImage(
+    public void serveImage(
             @PathVariable String subDirectory,
-            @PathVariable String storedFileName) {
-        return imageService.serveImage(subDirectory, storedFileName);
+            @PathVariable String storedFileName,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        imageService.serveImage(subDirectory, storedFileName).write(request, response);
     }
 
     @GetMapping("/details/{id}")
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
 import pl.pbs.zwbackend.dto.ProjectCommentRequest;
 import pl.pbs.zwbackend.dto.ProjectCommentResponse;
 import pl.pbs.zwbackend.service.ProjectCommentService;
@@ -31,10 +32,13 @@ public class ProjectCommentController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ProjectCommentResponse>> getProjectComments(
+    public ResponseEntity<CursorPageResponse<ProjectCommentResponse>> getProjectComments(
             @PathVariable Long projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal UserDetails currentUser) {
-        List<ProjectCommentResponse> comments = projectCommentService.getProjectComments(projectId, currentUser.getUsername());
+        CursorPageResponse<ProjectCommentResponse> comments =
+                projectCommentService.getProjectComments(projectId, cursor, size, currentUser.getUsername());
         return ResponseEntity.ok(comments);
     }
 
@@ -47,6 +51,15 @@ public class ProjectCommentController {
         return ResponseEntity.ok(comment);
     }
 
+    @GetMapping("/{commentId}/thread")
+    public ResponseEntity<List<ProjectCommentResponse>> getThread(
+            @PathVariable Long projectId,
+            @PathVariable Long commentId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<ProjectCommentResponse> thread = projectCommentService.getThread(projectId, commentId, currentUser.getUsername());
+        return ResponseEntity.ok(thread);
+    }
+
     @PutMapping("/{commentId}")
     public ResponseEntity<ProjectCommentResponse> updateComment(
             @PathVariable Long projectId,
@@ -0,0 +1,31 @@
+package pl.pbs.zwbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.service.TaskTagService;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/projects/{projectId}/facets")
+@RequiredArgsConstructor
+public class ProjectFacetController {
+
+    private final TaskTagService taskTagService;
+
+    @GetMapping
+    public ResponseEntity<TaskFacetResponse> getFacets(
+            @PathVariable Long projectId,
+            @RequestParam(name = "status", required = false) Set<TaskStatus> statuses,
+            @RequestParam(name = "assigneeId", required = false) Set<Long> assigneeIds,
+            @RequestParam(name = "tag", required = false) Set<String> tags,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskFacetResponse facets = taskTagService.getFacets(projectId, statuses, assigneeIds, tags, currentUser.getUsername());
+        return ResponseEntity.ok(facets);
+    }
+}
@@ -1,16 +1,25 @@
 package pl.pbs.zwbackend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightRequest;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightResponse;
 import pl.pbs.zwbackend.dto.ProjectFileResponse;
+import pl.pbs.zwbackend.dto.UploadSessionRequest;
+import pl.pbs.zwbackend.dto.UploadSessionResponse;
 import pl.pbs.zwbackend.service.ProjectFileService;
+import pl.pbs.zwbackend.service.ProjectFileUploadService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -19,7 +28,11 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ProjectFileController {
 
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+
     private final ProjectFileService projectFileService;
+    private final ProjectFileUploadService projectFileUploadService;
 
     @PostMapping("/upload")
     public ResponseEntity<ProjectFileResponse> uploadFile(
@@ -31,6 +44,85 @@ public class ProjectFileController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // The body is the file itself and is streamed to storage as it arrives, bypassing multipart spooling
+    @PostMapping(value = "/stream", consumes = {"!" + MediaType.MULTIPART_FORM_DATA_VALUE, "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE})
+    public ResponseEntity<ProjectFileResponse> uploadFileStream(
+            @PathVariable Long projectId,
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "description", required = false) String description,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest request) throws IOException {
+        ProjectFileResponse response = projectFileService.uploadFile(request.getInputStream(), request.getContentLengthLong(),
+                fileName, request.getContentType(), projectId, currentUser.getUsername(), description);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // Creates the file when its content is already stored, otherwise opens an upload session for it
+    @PostMapping("/preflight")
+    public ResponseEntity<ProjectFilePreflightResponse> preflight(
+            @PathVariable Long projectId,
+            @Valid @RequestBody ProjectFilePreflightRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        ProjectFilePreflightResponse response = projectFileUploadService.preflight(projectId, request, currentUser.getUsername());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadSessionResponse> createUploadSession(
+            @PathVariable Long projectId,
+            @Valid @RequestBody UploadSessionRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        UploadSessionResponse response = projectFileUploadService.createSession(projectId, request, currentUser.getUsername());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .body(response);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getUploadSession(
+            @PathVariable Long projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        UploadSessionResponse response = projectFileUploadService.getSession(projectId, uploadId, currentUser.getUsername());
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .body(response);
+    }
+
+    // The raw body is read as it arrives, so chunks are never buffered by the multipart resolver
+    @PatchMapping(value = "/uploads/{uploadId}", consumes = {"application/offset+octet-stream", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable Long projectId,
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest request) throws IOException {
+        UploadSessionResponse response = projectFileUploadService.appendChunk(
+                projectId, uploadId, offset, checksum, request.getInputStream(), currentUser.getUsername());
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .body(response);
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<ProjectFileResponse> completeUpload(
+            @PathVariable Long projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        ProjectFileResponse response = projectFileUploadService.completeSession(projectId, uploadId, currentUser.getUsername());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Map<String, String>> cancelUpload(
+            @PathVariable Long projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        projectFileUploadService.cancelSession(projectId, uploadId, currentUser.getUsername());
+        return ResponseEntity.ok(Map.of("message", "Upload cancelled"));
+    }
+
     @GetMapping
     public ResponseEntity<List<ProjectFileResponse>> getProjectFiles(
             @PathVariable Long projectId,
@@ -49,11 +141,13 @@ public class ProjectFileController {
     }
 
     @GetMapping("/{fileId}/download")
-    public ResponseEntity<Resource> downloadFile(
+    public void downloadFile(
             @PathVariable Long projectId,
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails currentUser) {
-        return projectFileService.downloadFile(fileId, currentUser.getUsername());
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        projectFileService.downloadFile(fileId, currentUser.getUsername()).write(request, response);
     }
 
     @DeleteMapping("/{fileId}")
@@ -0,0 +1,25 @@
+package pl.pbs.zwbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.ProjectScheduleResponse;
+import pl.pbs.zwbackend.service.TaskDependencyService;
+
+@RestController
+@RequestMapping("/api/projects/{projectId}/schedule")
+@RequiredArgsConstructor
+public class ProjectScheduleController {
+
+    private final TaskDependencyService taskDependencyService;
+
+    @GetMapping
+    public ResponseEntity<ProjectScheduleResponse> getProjectSchedule(
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        ProjectScheduleResponse schedule = taskDependencyService.getProjectSchedule(projectId, currentUser.getUsername());
+        return ResponseEntity.ok(schedule);
+    }
+}
@@ -0,0 +1,62 @@
+package pl.pbs.zwbackend.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.TaskCommentRequest;
+import pl.pbs.zwbackend.dto.TaskCommentResponse;
+import pl.pbs.zwbackend.service.TaskCommentService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tasks/{taskId}/comments")
+@RequiredArgsConstructor
+public class TaskCommentController {
+
+    private final TaskCommentService taskCommentService;
+
+    @PostMapping
+    public ResponseEntity<TaskCommentResponse> addComment(
+            @PathVariable Long taskId,
+            @Valid @RequestBody TaskCommentRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskCommentResponse response = taskCommentService.addComment(taskId, request, currentUser.getUsername());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<CursorPageResponse<TaskCommentResponse>> getComments(
+            @PathVariable Long taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        CursorPageResponse<TaskCommentResponse> comments =
+                taskCommentService.getComments(taskId, cursor, size, currentUser.getUsername());
+        return ResponseEntity.ok(comments);
+    }
+
+    @PutMapping("/{commentId}")
+    public ResponseEntity<TaskCommentResponse> updateComment(
+            @PathVariable Long taskId,
+            @PathVariable Long commentId,
+            @Valid @RequestBody TaskCommentRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskCommentResponse response = taskCommentService.updateComment(taskId, commentId, request, currentUser.getUsername());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{commentId}")
+    public ResponseEntity<Map<String, String>> deleteComment(
+            @PathVariable Long taskId,
+            @PathVariable Long commentId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        taskCommentService.deleteComment(taskId, commentId, currentUser.getUsername());
+        return ResponseEntity.ok(Map.of("message", "Comment successfully deleted"));
+    }
+}
@@ -1,16 +1,33 @@
 package pl.pbs.zwbackend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.TaskBulkRequest;
+import pl.pbs.zwbackend.dto.TaskBoardResponse;
+import pl.pbs.zwbackend.dto.TaskBulkResponse;
 import pl.pbs.zwbackend.dto.TaskCreateRequest;
+import pl.pbs.zwbackend.dto.TaskCustomFieldValuesRequest;
+import pl.pbs.zwbackend.dto.TaskMoveRequest;
 import pl.pbs.zwbackend.dto.TaskResponse;
+import pl.pbs.zwbackend.dto.TaskSearchRequest;
+import pl.pbs.zwbackend.dto.TaskStatusTransitionResponse;
+import pl.pbs.zwbackend.dto.TaskTagsRequest;
 import pl.pbs.zwbackend.dto.TaskUpdateRequest;
+import pl.pbs.zwbackend.exception.PreconditionFailedException;
+import pl.pbs.zwbackend.service.CustomFieldService;
+import pl.pbs.zwbackend.service.TaskFlowService;
 import pl.pbs.zwbackend.service.TaskService;
+import pl.pbs.zwbackend.service.TaskTagService;
 
 import java.util.List;
 import java.util.Map;
@@ -21,6 +38,9 @@ import java.util.Map;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskFlowService taskFlowService;
+    private final CustomFieldService customFieldService;
+    private final TaskTagService taskTagService;
 
     @PostMapping
     public ResponseEntity<TaskResponse> createTask(
@@ -30,10 +50,32 @@ public class TaskController {
         return new ResponseEntity<>(taskResponse, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<TaskBulkResponse> bulkUpdateTasks(
+            @Valid @RequestBody TaskBulkRequest bulkRequest,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskBulkResponse response = taskService.bulkUpdateTasks(bulkRequest, currentUser.getUsername());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id) {
         TaskResponse taskResponse = taskService.getTaskById(id);
-        return ResponseEntity.ok(taskResponse);
+        return ResponseEntity.ok().eTag(eTag(taskResponse)).body(taskResponse);
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<TaskStatusTransitionResponse>> getTaskHistory(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<TaskStatusTransitionResponse> history = taskFlowService.getTaskHistory(id, currentUser.getUsername());
+        return ResponseEntity.ok(history);
+    }
+
+    @GetMapping("/{id}/subtasks")
+    public ResponseEntity<List<TaskResponse>> getSubtasks(@PathVariable Long id) {
+        List<TaskResponse> subtasks = taskService.getSubtasks(id);
+        return ResponseEntity.ok(subtasks);
     }
 
     @GetMapping
@@ -42,12 +84,28 @@ public class TaskController {
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<TaskResponse>> searchTasks(@Valid @ModelAttribute TaskSearchRequest searchRequest) {
+        CursorPageResponse<TaskResponse> tasks = taskService.searchTasks(searchRequest);
+        return ResponseEntity.ok(tasks);
+    }
+
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<TaskResponse>> getTasksByProject(@PathVariable Long projectId) {
-        List<TaskResponse> tasks = taskService.getTasksByProject(projectId);
+    public ResponseEntity<List<TaskResponse>> getTasksByProject(
+            @PathVariable Long projectId,
+            @RequestParam(name = "field", required = false) List<String> fieldFilters,
+            @RequestParam(required = false) Long sortFieldId,
+            @RequestParam(required = false) Sort.Direction direction) {
+        List<TaskResponse> tasks = taskService.getTasksByProject(projectId, fieldFilters, sortFieldId, direction);
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping("/project/{projectId}/board")
+    public ResponseEntity<TaskBoardResponse> getProjectBoard(@PathVariable Long projectId) {
+        TaskBoardResponse board = taskService.getProjectBoard(projectId);
+        return ResponseEntity.ok(board);
+    }
+
     @GetMapping("/my-tasks")
     public ResponseEntity<List<TaskResponse>> getMyTasks(@AuthenticationPrincipal UserDetails currentUser) {
         List<TaskResponse> tasks = taskService.getTasksAssignedToUser(currentUser.getUsername());
@@ -63,6 +121,43 @@ public class TaskController {
         return ResponseEntity.ok(taskResponse);
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TaskResponse> patchTask(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskResponse taskResponse = taskService.patchTask(id, patch, parseVersion(ifMatch), currentUser.getUsername());
+        return ResponseEntity.ok().eTag(eTag(taskResponse)).body(taskResponse);
+    }
+
+    @PutMapping("/{id}/custom-fields")
+    public ResponseEntity<Map<String, Object>> setCustomFields(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskCustomFieldValuesRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        Map<String, Object> values = customFieldService.setValues(id, request, currentUser.getUsername());
+        return ResponseEntity.ok(values);
+    }
+
+    @PutMapping("/{id}/tags")
+    public ResponseEntity<List<String>> setTags(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskTagsRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<String> tags = taskTagService.setTags(id, request, currentUser.getUsername());
+        return ResponseEntity.ok(tags);
+    }
+
+    @PutMapping("/{id}/move")
+    public ResponseEntity<TaskResponse> moveTask(
+            @PathVariable Long id,
+            @Valid @RequestBody TaskMoveRequest moveRequest,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskResponse taskResponse = taskService.moveTask(id, moveRequest, currentUser.getUsername());
+        return ResponseEntity.ok(taskResponse);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteTask(
             @PathVariable Long id,
@@ -70,4 +165,26 @@ public class TaskController {
         taskService.deleteTask(id, currentUser.getUsername());
         return ResponseEntity.ok(Map.of("message", "Task successfully deleted"));
     }
+
+    private String eTag(TaskResponse task) {
+        return "\"" + task.getVersion() + "\"";
+    }
+
+    // Accepts "3"; "*" matches any version. If-Match uses the strong comparison (RFC 9110), so a
+    // weak tag such as W/"3" never matches
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak entity tags cannot be used with If-Match: " + ifMatch);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Invalid If-Match header: " + ifMatch);
+        }
+    }
 }
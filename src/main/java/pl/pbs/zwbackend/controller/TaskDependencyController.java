@@ -0,0 +1,47 @@
+package pl.pbs.zwbackend.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.TaskDependencyRequest;
+import pl.pbs.zwbackend.dto.TaskDependencyResponse;
+import pl.pbs.zwbackend.service.TaskDependencyService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tasks/{taskId}/dependencies")
+@RequiredArgsConstructor
+public class TaskDependencyController {
+
+    private final TaskDependencyService taskDependencyService;
+
+    @PostMapping
+    public ResponseEntity<TaskDependencyResponse> addDependency(
+            @PathVariable Long taskId,
+            @Valid @RequestBody TaskDependencyRequest request,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        TaskDependencyResponse response = taskDependencyService.addDependency(taskId, request, currentUser.getUsername());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TaskDependencyResponse>> getDependencies(@PathVariable Long taskId) {
+        List<TaskDependencyResponse> dependencies = taskDependencyService.getDependencies(taskId);
+        return ResponseEntity.ok(dependencies);
+    }
+
+    @DeleteMapping("/{predecessorId}")
+    public ResponseEntity<Map<String, String>> removeDependency(
+            @PathVariable Long taskId,
+            @PathVariable Long predecessorId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        taskDependencyService.removeDependency(taskId, predecessorId, currentUser.getUsername());
+        return ResponseEntity.ok(Map.of("message", "Dependency successfully removed"));
+    }
+}
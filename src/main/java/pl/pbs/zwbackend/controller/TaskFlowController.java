@@ -0,0 +1,51 @@
+package pl.pbs.zwbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.BurndownPointResponse;
+import pl.pbs.zwbackend.dto.CumulativeFlowDayResponse;
+import pl.pbs.zwbackend.dto.CycleTimeBucketResponse;
+import pl.pbs.zwbackend.service.TaskFlowService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/projects/{projectId}/flow")
+@RequiredArgsConstructor
+public class TaskFlowController {
+
+    private final TaskFlowService taskFlowService;
+
+    @GetMapping("/cumulative")
+    public ResponseEntity<List<CumulativeFlowDayResponse>> getCumulativeFlow(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<CumulativeFlowDayResponse> flow = taskFlowService.getCumulativeFlow(projectId, from, to, currentUser.getUsername());
+        return ResponseEntity.ok(flow);
+    }
+
+    @GetMapping("/burndown")
+    public ResponseEntity<List<BurndownPointResponse>> getBurndown(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<BurndownPointResponse> burndown = taskFlowService.getBurndown(projectId, from, to, currentUser.getUsername());
+        return ResponseEntity.ok(burndown);
+    }
+
+    @GetMapping("/cycle-time")
+    public ResponseEntity<List<CycleTimeBucketResponse>> getCycleTimeHistogram(
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        List<CycleTimeBucketResponse> histogram = taskFlowService.getCycleTimeHistogram(projectId, currentUser.getUsername());
+        return ResponseEntity.ok(histogram);
+    }
+}
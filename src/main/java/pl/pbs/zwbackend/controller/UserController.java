@@ -1,7 +1,8 @@
 package pl.pbs.zwbackend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,6 +13,7 @@ import pl.pbs.zwbackend.dto.UserSummaryResponse;
 import pl.pbs.zwbackend.service.ProjectFileService;
 import pl.pbs.zwbackend.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -32,8 +34,11 @@ public class UserController {
     }
 
     @GetMapping("/avatar/{fileName:.+}")
-    public ResponseEntity<Resource> getAvatar(@PathVariable String fileName) {
-        return userService.serveAvatar(fileName);
+    public void getAvatar(
+            @PathVariable String fileName,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        userService.serveAvatar(fileName).write(request, response);
     }
 
     @DeleteMapping("/avatar")
@@ -0,0 +1,25 @@
+package pl.pbs.zwbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import pl.pbs.zwbackend.dto.WorkloadResponse;
+import pl.pbs.zwbackend.service.WorkloadService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/workload")
+@RequiredArgsConstructor
+public class WorkloadController {
+
+    private final WorkloadService workloadService;
+
+    @GetMapping
+    public ResponseEntity<List<WorkloadResponse>> getWorkload(@AuthenticationPrincipal UserDetails currentUser) {
+        List<WorkloadResponse> workload = workloadService.getWorkload(currentUser.getUsername());
+        return ResponseEntity.ok(workload);
+    }
+}
@@ -0,0 +1,18 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BurndownPointResponse {
+    private LocalDate date;
+    private long remaining;
+    private long completed;
+}
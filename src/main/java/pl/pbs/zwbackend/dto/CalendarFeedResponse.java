@@ -0,0 +1,15 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedResponse {
+    private String token;
+    private String url;
+}
@@ -0,0 +1,19 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CumulativeFlowDayResponse {
+    private LocalDate date;
+    private Map<TaskStatus, Long> counts;
+}
@@ -0,0 +1,24 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.CustomFieldType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomFieldDefinitionRequest {
+
+    @NotBlank(message = "Field name cannot be blank")
+    @Size(max = 50, message = "Field name cannot exceed 50 characters")
+    private String name;
+
+    @NotNull(message = "Field type is required")
+    private CustomFieldType type;
+}
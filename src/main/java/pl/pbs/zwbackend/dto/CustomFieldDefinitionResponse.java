@@ -0,0 +1,18 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.CustomFieldType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomFieldDefinitionResponse {
+    private Long id;
+    private Long projectId;
+    private String name;
+    private CustomFieldType type;
+}
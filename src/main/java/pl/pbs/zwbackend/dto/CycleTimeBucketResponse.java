@@ -0,0 +1,16 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleTimeBucketResponse {
+    private int minDays;
+    private Integer maxDays;
+    private long count;
+}
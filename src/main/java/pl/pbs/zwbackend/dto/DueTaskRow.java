@@ -0,0 +1,22 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Minimal task columns needed by the due-date scanner, filled by a JPQL constructor expression
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DueTaskRow {
+    private Long id;
+    private String name;
+    private LocalDate dueDate;
+    private Long projectId;
+    private Long assigneeId;
+    private String assigneeEmail;
+}
@@ -0,0 +1,37 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePreflightRequest {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+
+    @NotBlank(message = "SHA-256 is required")
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "SHA-256 must be 64 hexadecimal characters")
+    private String sha256;
+
+    @NotBlank(message = "Subdirectory is required")
+    private String subDirectory;
+
+    private Long projectId;
+
+    private String description;
+}
@@ -0,0 +1,16 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The created image when its content was already stored; otherwise uploadRequired is set and it has to be sent
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePreflightResponse {
+    private ImageResponse image;
+    private boolean uploadRequired;
+}
@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class MessageResponse {
     private Long id;
     private String content;
+    private String contentHtml;
     private LocalDateTime timestamp;
     private UserSummaryResponse sender;
 }
@@ -0,0 +1,30 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Delta pushed to /topic/projects/{projectId}; clients refetch or patch the single entity instead of polling lists
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectChangeEvent {
+
+    public enum Entity {
+        TASK, TASK_COMMENT, COMMENT, FILE
+    }
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Long projectId;
+    private Entity entity;
+    private Long id;
+    private Operation op;
+    private List<String> changedFields;
+}
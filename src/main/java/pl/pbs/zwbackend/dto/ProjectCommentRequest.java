@@ -16,4 +16,7 @@ public class ProjectCommentRequest {
     @NotBlank(message = "Comment content is required")
     @Size(max = 1000, message = "Comment content cannot exceed 1000 characters")
     private String content;
+
+    // Posts the comment as a reply to this comment of the same project
+    private Long parentId;
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -15,8 +16,14 @@ public class ProjectCommentResponse {
     
     private Long id;
     private String content;
+    private String contentHtml;
     private UserSummaryResponse user;
     private Long projectId;
+    private Long parentId;
+    private int depth;
+    private int replyCount;
+    // First direct replies, only filled for top-level comments of a page
+    private List<ProjectCommentResponse> replies;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private boolean canEdit;
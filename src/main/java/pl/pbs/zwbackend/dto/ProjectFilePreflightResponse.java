@@ -0,0 +1,16 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Exactly one is set: the created file when its content was already stored, otherwise a session to upload it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectFilePreflightResponse {
+    private ProjectFileResponse file;
+    private UploadSessionResponse upload;
+}
@@ -0,0 +1,20 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectScheduleResponse {
+    private Long projectId;
+    private LocalDate projectFinish;
+    private List<Long> criticalPath;
+    private List<TaskScheduleResponse> tasks;
+}
@@ -0,0 +1,19 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBoardResponse {
+    private Long projectId;
+    private Map<TaskStatus, List<TaskResponse>> columns;
+}
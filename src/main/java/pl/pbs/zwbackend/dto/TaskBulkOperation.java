@@ -0,0 +1,41 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkOperation {
+
+    public enum Type {
+        CREATE, UPDATE, STATUS_CHANGE, REASSIGN, DELETE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    private Long taskId; // required for every type except CREATE
+
+    @Size(max = 100, message = "Task name cannot exceed 100 characters")
+    private String name;
+
+    @Size(max = 500, message = "Task description cannot exceed 500 characters")
+    private String description;
+
+    private TaskStatus status;
+
+    private Long projectId; // CREATE only
+
+    private String assignedTo;
+
+    private LocalDate dueDate;
+}
@@ -0,0 +1,22 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 500, message = "A bulk request cannot contain more than 500 operations")
+    private List<@Valid TaskBulkOperation> operations;
+}
@@ -0,0 +1,18 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkResponse {
+    private List<TaskResponse> created;
+    private List<TaskResponse> updated;
+    private List<Long> deletedIds;
+}
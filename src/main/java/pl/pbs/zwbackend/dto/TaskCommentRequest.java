@@ -0,0 +1,19 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCommentRequest {
+
+    @NotBlank(message = "Comment content is required")
+    @Size(max = 500, message = "Comment content cannot exceed 500 characters")
+    private String content;
+}
@@ -0,0 +1,22 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCommentResponse {
+    private Long id;
+    private Long taskId;
+    private String content;
+    private UserSummaryResponse user;
+    private LocalDate createdAt;
+    private boolean canEdit;
+    private boolean canDelete;
+}
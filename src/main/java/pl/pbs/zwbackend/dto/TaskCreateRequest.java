@@ -33,4 +33,7 @@ public class TaskCreateRequest {
     private String assignedTo;
 
     private LocalDate dueDate;
+
+    // Creates the task as a subtask of this task, which must belong to the same project
+    private Long parentId;
 }
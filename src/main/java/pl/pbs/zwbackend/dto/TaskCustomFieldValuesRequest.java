@@ -0,0 +1,20 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCustomFieldValuesRequest {
+
+    // Field id to value in its text form (ISO dates, plain numbers, true/false); null removes the value
+    @NotNull(message = "Values are required")
+    private Map<Long, String> values;
+}
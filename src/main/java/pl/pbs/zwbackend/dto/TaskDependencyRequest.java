@@ -0,0 +1,16 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDependencyRequest {
+    @NotNull
+    private Long predecessorId;
+}
@@ -0,0 +1,24 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskFacetResponse {
+    // Number of tasks matching all filters, and their ids in ascending order
+    private long total;
+    private List<Long> taskIds;
+    // Per value counts of each facet, with the filters of the other facets applied
+    private Map<TaskStatus, Long> statuses;
+    private Map<Long, Long> assignees;
+    private Map<String, Long> tags;
+}
@@ -0,0 +1,22 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskMoveRequest {
+
+    @NotNull(message = "Target status is required")
+    private TaskStatus status;
+
+    private Long previousTaskId; // card directly above the new position, null when moved to the top
+
+    private Long nextTaskId; // card directly below the new position, null when moved to the bottom
+}
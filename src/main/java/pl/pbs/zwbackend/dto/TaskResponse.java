@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import pl.pbs.zwbackend.model.enums.TaskStatus;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -16,9 +18,19 @@ public class TaskResponse {
     private Long id;
     private String name;
     private String description;
+    private String descriptionHtml;
     private TaskStatus status;
     private Long projectId;
     private UserSummaryResponse assignedTo;
     private LocalDate dueDate;
+    private String rank;
+    private int commentCount;
+    private Long version;
+    private Long parentId;
+    private int depth;
+    private int subtaskCount;
+    private int subtaskDoneCount;
+    private Map<String, Object> customFields;
+    private List<String> tags;
     private LocalDate createdAt;
 }
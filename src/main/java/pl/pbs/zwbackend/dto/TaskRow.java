@@ -0,0 +1,37 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+
+// Flat read model for task listings, filled by JPQL constructor expressions in TaskRepository
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRow {
+    private Long id;
+    private String name;
+    private String description;
+    private String descriptionHtml;
+    private TaskStatus status;
+    private LocalDate dueDate;
+    private String rank;
+    private int commentCount;
+    private Long version;
+    private Long parentId;
+    private int depth;
+    private int subtaskCount;
+    private int subtaskDoneCount;
+    private LocalDate createdAt;
+    private Long projectId;
+    private Long assigneeId;
+    private String assigneeFirstName;
+    private String assigneeLastName;
+    private String assigneeEmail;
+    private String assigneeAvatarFileName;
+}
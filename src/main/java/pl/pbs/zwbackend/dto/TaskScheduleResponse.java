@@ -0,0 +1,20 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskScheduleResponse {
+    private Long taskId;
+    private LocalDate earliestFinish;
+    private LocalDate latestFinish;
+    private long slackDays;
+    private boolean critical;
+}
@@ -0,0 +1,70 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchRequest {
+
+    public enum SortField {
+        CREATED_AT, DUE_DATE, NAME, CUSTOM_FIELD
+    }
+
+    private List<Long> projectIds;
+
+    private Set<TaskStatus> statuses;
+
+    private Long assigneeId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    @Size(max = 100, message = "Name prefix cannot exceed 100 characters")
+    private String namePrefix;
+
+    // Custom field filters as fieldId:op:value, e.g. 12:gte:3
+    private List<String> fields;
+
+    // Tasks carrying any of these tags
+    private Set<String> tags;
+
+    // Field to order by when sort is CUSTOM_FIELD; tasks without a value for it are left out
+    private Long sortFieldId;
+
+    @Builder.Default
+    private SortField sort = SortField.CREATED_AT;
+
+    @Builder.Default
+    private Sort.Direction direction = Sort.Direction.DESC;
+
+    private String cursor;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 200, message = "Page size cannot exceed 200")
+    @Builder.Default
+    private int size = 50;
+}
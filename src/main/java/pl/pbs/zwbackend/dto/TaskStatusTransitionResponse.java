@@ -0,0 +1,20 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusTransitionResponse {
+    private TaskStatus fromStatus;
+    private TaskStatus toStatus;
+    private Long changedById;
+    private LocalDateTime changedAt;
+}
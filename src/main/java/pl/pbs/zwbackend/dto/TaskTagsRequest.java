@@ -0,0 +1,22 @@
+package pl.pbs.zwbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskTagsRequest {
+
+    @NotNull(message = "Tags are required")
+    @Size(max = 20, message = "A task cannot have more than 20 tags")
+    private List<@NotBlank(message = "Tag cannot be blank") @Size(max = 50, message = "Tag cannot exceed 50 characters") String> tags;
+}
@@ -0,0 +1,21 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String id;
+    private Long projectId;
+    private String originalFileName;
+    private Long fileSize;
+    private Long offset;
+    private LocalDateTime expiresAt;
+}
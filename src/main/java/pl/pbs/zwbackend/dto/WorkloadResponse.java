@@ -0,0 +1,21 @@
+package pl.pbs.zwbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadResponse {
+    private UserSummaryResponse user;
+    private Map<TaskStatus, Long> counts;
+    private long openCount;
+    private long overdueCount;
+    private long dueThisWeekCount;
+}
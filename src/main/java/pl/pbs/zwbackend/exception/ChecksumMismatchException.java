@@ -0,0 +1,11 @@
+package pl.pbs.zwbackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ChecksumMismatchException extends RuntimeException {
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Per-user calendar subscription; the change counter is bumped whenever anything in the feed may have changed
+@Entity
+@Table(name = "calendar_feeds")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarFeed {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String token;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long changeCounter = 0;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import pl.pbs.zwbackend.model.enums.CustomFieldType;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "custom_field_definitions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_custom_field_project_name", columnNames = {"project_id", "name"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomFieldDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CustomFieldType type;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,34 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Stored content, addressed by its SHA-256; every project file, image or avatar with that content holds one reference
+@Entity
+@Table(name = "file_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+
+    // Lowercase hex SHA-256 of the content, also the file name in the blob directory
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private Long size;
+
+    // Only changed through FileBlobRepository, so concurrent uploads never overwrite each other's count
+    @Column(name = "ref_count", nullable = false, updatable = false)
+    private Long refCount;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
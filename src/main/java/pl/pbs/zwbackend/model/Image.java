@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = {
+        @Index(name = "idx_images_blob_hash", columnList = "blob_hash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,7 +25,11 @@ public class Image {
     private String originalFileName;
 
     @Column(nullable = false, unique = true)
-    private String storedFileName; // UUID or unique name on disk
+    private String storedFileName; // UUID name used in URLs; the bytes are in the blob
+
+    // SHA-256 of the content in the blob store
+    @Column(name = "blob_hash", nullable = false, length = 64)
+    private String blobHash;
 
     @Column(nullable = false)
     private String contentType;
@@ -0,0 +1,24 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// High-water mark of an incremental scheduled job: everything up to and including the watermark has been processed
+@Entity
+@Table(name = "job_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobWatermark {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate watermark;
+}
@@ -26,6 +26,11 @@ public class Message {
     @Column(nullable = false, length = 1000)
     private String content;
 
+    // Sanitised HTML of the Markdown content, rendered when the message is sent
+    // Unbounded: nested blocks render to many times the length of their source
+    @Column(columnDefinition = "TEXT")
+    private String contentHtml;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime timestamp;
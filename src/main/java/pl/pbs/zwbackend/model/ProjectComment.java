@@ -3,11 +3,17 @@ package pl.pbs.zwbackend.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "project_comments")
+@Table(name = "project_comments", indexes = {
+        @Index(name = "idx_project_comments_project_depth_created", columnList = "project_id, depth, created_at, id"),
+        @Index(name = "idx_project_comments_project_path", columnList = "project_id, comment_path"),
+        @Index(name = "idx_project_comments_parent", columnList = "parent_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +36,31 @@ public class ProjectComment {
     @Column(nullable = false, length = 1000)
     private String content;
 
+    // Sanitised HTML of the Markdown content, rendered when the content is written
+    // Unbounded: nested blocks render to many times the length of their source
+    @Column(columnDefinition = "TEXT")
+    private String contentHtml;
+
+    // Comment this one replies to; null for top-level comments. Deleting a comment deletes its replies.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id", updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private ProjectComment parent;
+
+    // Ids of all ancestors from the top-level comment, e.g. "/7/31/" ("/" for top-level comments)
+    @Column(name = "comment_path", nullable = false, length = 255, updatable = false)
+    @Builder.Default
+    private String path = "/";
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private int depth = 0;
+
+    // Replies at any depth below this comment; maintained with atomic UPDATE statements
+    @Column(name = "reply_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int replyCount = 0;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,30 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Histogram of task cycle times (first start to completion) per project, bucketed by whole days
+@Entity
+@Table(name = "project_cycle_time_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_project_cycle_time_bucket", columnNames = {"project_id", "min_days"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectCycleTimeBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "min_days", nullable = false)
+    private int minDays;
+
+    @Column(nullable = false)
+    private long count;
+}
@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "project_files")
+@Table(name = "project_files", indexes = {
+        @Index(name = "idx_project_files_blob_hash", columnList = "blob_hash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,7 +25,11 @@ public class ProjectFile {
     private String originalFileName;
 
     @Column(nullable = false, length = 500, unique = true)
-    private String storedFileName; // UUID filename on disk
+    private String storedFileName; // UUID name used in URLs; the bytes are in the blob
+
+    // SHA-256 of the content in the blob store
+    @Column(name = "blob_hash", nullable = false, length = 64)
+    private String blobHash;
 
     @Column(nullable = false)
     private String contentType;
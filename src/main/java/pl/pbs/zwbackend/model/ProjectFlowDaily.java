@@ -0,0 +1,42 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+
+// Per project, day and status: how many tasks entered and left the status that day.
+// The number of tasks in a status at the end of a day is the running sum of (entered - exited).
+@Entity
+@Table(name = "project_flow_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_project_flow_daily", columnNames = {"project_id", "flow_date", "status"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectFlowDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    // DAY is a reserved word in H2
+    @Column(name = "flow_date", nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TaskStatus status;
+
+    @Column(nullable = false)
+    private long entered;
+
+    @Column(nullable = false)
+    private long exited;
+}
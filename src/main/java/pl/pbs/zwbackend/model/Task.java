@@ -3,12 +3,27 @@ package pl.pbs.zwbackend.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.util.LexoRank;
 
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_project_created", columnList = "project_id, created_at, id"),
+        @Index(name = "idx_tasks_project_status_rank", columnList = "project_id, status, board_rank, id"),
+        @Index(name = "idx_tasks_assignee_status", columnList = "assigned_to, status, id"),
+        @Index(name = "idx_tasks_project_assignee_status_due", columnList = "project_id, assigned_to, status, due_date"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date, id"),
+        @Index(name = "idx_tasks_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_tasks_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_tasks_name", columnList = "name, id"),
+        @Index(name = "idx_tasks_project_path", columnList = "project_id, task_path")
+})
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +31,10 @@ import java.time.LocalDate;
 @Builder
 public class Task {
 
+    // Sequence ids (allocated in blocks) let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -26,12 +43,31 @@ public class Task {
     @Column(length = 500)
     private String description;
 
+    // Sanitised HTML of the Markdown description, rendered when the description is written
+    // Unbounded: nested blocks render to many times the length of their source
+    @Column(columnDefinition = "TEXT")
+    private String descriptionHtml;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private TaskStatus status;
 
     private LocalDate dueDate;
 
+    // Position inside the status column of the project board, see LexoRank
+    @Column(name = "board_rank", nullable = false, length = 64)
+    @Builder.Default
+    private String rank = LexoRank.INITIAL;
+
+    // Maintained with atomic UPDATE statements; excluded from entity updates so a stale copy cannot overwrite it
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int commentCount = 0;
+
+    // Optimistic lock; exposed to clients as the ETag of the task
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     private Project project;
@@ -40,6 +76,34 @@ public class Task {
     @JoinColumn(name = "assigned_to")
     private User assignedTo;
 
+    // Parent in the subtask tree; null for top-level tasks. Fixed when the task is created.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id", updatable = false)
+    private Task parent;
+
+    // Ids of all ancestors from the root, e.g. "/12/40/" ("/" for top-level tasks), so a subtree is one prefix match
+    @Column(name = "task_path", nullable = false, length = 255, updatable = false)
+    @Builder.Default
+    private String path = "/";
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private int depth = 0;
+
+    // Subtasks at any depth below this task and how many of them are completed; maintained like commentCount
+    @Column(name = "subtask_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int subtaskCount = 0;
+
+    @Column(name = "subtask_done_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int subtaskDoneCount = 0;
+
+    // Inverse side only, used to join custom field values in search queries; never loaded eagerly
+    @OneToMany(mappedBy = "task")
+    @Builder.Default
+    private Set<TaskCustomFieldValue> customFieldValues = new HashSet<>();
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDate createdAt;
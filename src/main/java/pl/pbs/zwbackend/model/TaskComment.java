@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "task_comments")
+@Table(name = "task_comments", indexes = {
+        @Index(name = "idx_task_comments_task", columnList = "task_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
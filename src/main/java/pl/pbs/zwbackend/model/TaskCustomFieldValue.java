@@ -0,0 +1,47 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One value of a custom field on a task; only the column matching the field type is set
+@Entity
+@Table(name = "task_custom_field_values", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_custom_field_value", columnNames = {"task_id", "field_id"})
+}, indexes = {
+        @Index(name = "idx_custom_values_text", columnList = "field_id, text_value, task_id"),
+        @Index(name = "idx_custom_values_number", columnList = "field_id, number_value, task_id"),
+        @Index(name = "idx_custom_values_date", columnList = "field_id, date_value, task_id"),
+        @Index(name = "idx_custom_values_boolean", columnList = "field_id, boolean_value, task_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskCustomFieldValue {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id", nullable = false)
+    private Task task;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "field_id", nullable = false)
+    private CustomFieldDefinition field;
+
+    @Column(length = 255)
+    private String textValue;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal numberValue;
+
+    private LocalDate dateValue;
+
+    private Boolean booleanValue;
+}
@@ -0,0 +1,31 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Finish-to-start dependency: the successor cannot finish before the predecessor has finished
+@Entity
+@Table(name = "task_dependencies", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_dependency", columnNames = {"predecessor_id", "successor_id"})
+}, indexes = {
+        @Index(name = "idx_task_dependencies_successor", columnList = "successor_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskDependency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "predecessor_id", nullable = false)
+    private Task predecessor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "successor_id", nullable = false)
+    private Task successor;
+}
@@ -0,0 +1,47 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDateTime;
+
+// Compact, append-only history of task status changes. Plain id columns keep rows small and let
+// history outlive deleted tasks. A null fromStatus marks creation and a null toStatus marks deletion.
+@Entity
+@Table(name = "task_status_transitions", indexes = {
+        @Index(name = "idx_task_transitions_task", columnList = "task_id, changed_at"),
+        @Index(name = "idx_task_transitions_project", columnList = "project_id, changed_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskStatusTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_status_transitions_seq")
+    @SequenceGenerator(name = "task_status_transitions_seq", sequenceName = "task_status_transitions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskStatus toStatus;
+
+    @Column(name = "changed_by")
+    private Long changedById;
+
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,30 @@
+package pl.pbs.zwbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A label on a task; names are stored trimmed and lower-cased
+@Entity
+@Table(name = "task_tags", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_tag", columnNames = {"task_id", "name"})
+}, indexes = {
+        @Index(name = "idx_task_tags_name", columnList = "name, task_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id", nullable = false)
+    private Task task;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+}
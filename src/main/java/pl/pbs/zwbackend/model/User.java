@@ -8,9 +8,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import pl.pbs.zwbackend.model.enums.Role;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_handle", columnList = "handle")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,12 +34,22 @@ public class User {
     @Column(nullable = false, unique = true, length = 100)
     private String email;
 
+    // Lower-case part of the email before '@', the name users are @mentioned by; kept in step with the email
+    @JsonIgnore
+    @Column(nullable = false, length = 100)
+    private String handle;
+
     @Column(length = 255)
     private String avatarFileName;
 
     @Column(length = 50)
     private String avatarContentType;
 
+    // SHA-256 of the avatar content in the blob store
+    @JsonIgnore
+    @Column(length = 64)
+    private String avatarBlobHash;
+
     @JsonIgnore
     @Column(nullable = false)
     private String password;
@@ -49,6 +62,13 @@ public class User {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        int at = email.indexOf('@');
+        handle = (at >= 0 ? email.substring(0, at) : email).toLowerCase(Locale.ROOT);
+    }
+
     public void setPassword(String rawPassword) {
         BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
         this.password = encoder.encode(rawPassword);
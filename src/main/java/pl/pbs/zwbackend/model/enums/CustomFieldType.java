@@ -0,0 +1,19 @@
+package pl.pbs.zwbackend.model.enums;
+
+public enum CustomFieldType {
+    TEXT("textValue"),
+    NUMBER("numberValue"),
+    DATE("dateValue"),
+    BOOLEAN("booleanValue");
+
+    // Attribute of TaskCustomFieldValue holding values of this type
+    private final String valueAttribute;
+
+    CustomFieldType(String valueAttribute) {
+        this.valueAttribute = valueAttribute;
+    }
+
+    public String getValueAttribute() {
+        return valueAttribute;
+    }
+}
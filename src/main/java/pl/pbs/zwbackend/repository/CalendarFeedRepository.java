@@ -0,0 +1,28 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.CalendarFeed;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface CalendarFeedRepository extends JpaRepository<CalendarFeed, Long> {
+
+    Optional<CalendarFeed> findByToken(String token);
+
+    @Modifying
+    @Query("UPDATE CalendarFeed f SET f.changeCounter = f.changeCounter + 1 WHERE f.userId IN :userIds")
+    int incrementChangeCounters(@Param("userIds") Collection<Long> userIds);
+
+    // Owner and members of the project; only users with a feed have a row to update
+    @Modifying
+    @Query("UPDATE CalendarFeed f SET f.changeCounter = f.changeCounter + 1 " +
+            "WHERE f.userId IN (SELECT p.createdBy.id FROM Project p WHERE p.id = :projectId) " +
+            "OR f.userId IN (SELECT pu.user.id FROM ProjectUser pu WHERE pu.project.id = :projectId)")
+    int incrementChangeCountersForProject(@Param("projectId") Long projectId);
+}
@@ -0,0 +1,18 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.CustomFieldDefinition;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomFieldDefinitionRepository extends JpaRepository<CustomFieldDefinition, Long> {
+
+    List<CustomFieldDefinition> findByProjectIdOrderByIdAsc(Long projectId);
+
+    Optional<CustomFieldDefinition> findByIdAndProjectId(Long id, Long projectId);
+
+    boolean existsByProjectIdAndName(Long projectId, String name);
+}
@@ -0,0 +1,41 @@
+package pl.pbs.zwbackend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.FileBlob;
+
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // Creates the row without references, or leaves an existing one alone. A concurrent insert of
+    // the same hash is waited for instead of failing, and incrementRefCount then adds the reference.
+    @Modifying
+    @Query(value = "INSERT INTO file_blobs (hash, size, ref_count, created_at) " +
+            "VALUES (:hash, :size, 0, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("size") long size);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    // Only matches a blob of the given size, so a client that knows just the hash gets nothing
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash AND b.size = :size")
+    int incrementRefCountIfSize(@Param("hash") String hash, @Param("size") long size);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    // Locks the row so that a blob is never purged while an upload is taking a new reference to it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FileBlob b WHERE b.hash = :hash")
+    Optional<FileBlob> findForUpdate(@Param("hash") String hash);
+}
@@ -1,6 +1,8 @@
 package pl.pbs.zwbackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.pbs.zwbackend.model.Image;
 
@@ -13,4 +15,10 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findAllByProjectId(Long projectId);
     List<Image> findAllByUploadedById(Long userId);
     Optional<Image> findByIdAndUploadedById(Long id, Long userId);
+
+    // Whether the user uploaded some image with this content or has access to the project it belongs to
+    @Query("SELECT COUNT(i) > 0 FROM Image i LEFT JOIN i.project p WHERE i.blobHash = :hash AND (i.uploadedBy.id = :userId "
+            + "OR p.createdBy.id = :userId "
+            + "OR EXISTS (SELECT pu FROM ProjectUser pu WHERE pu.project.id = p.id AND pu.user.id = :userId))")
+    boolean existsReadableByBlobHash(@Param("hash") String hash, @Param("userId") Long userId);
 }
@@ -0,0 +1,25 @@
+package pl.pbs.zwbackend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.JobWatermark;
+
+import java.util.Optional;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+    // Locks the row so that only one instance advances a watermark at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM JobWatermark w WHERE w.name = :name")
+    Optional<JobWatermark> findForUpdate(@Param("name") String name);
+
+    // Shared lock: concurrent readers proceed, but a scan cannot advance the watermark until they commit
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT w FROM JobWatermark w WHERE w.name = :name")
+    Optional<JobWatermark> findForShare(@Param("name") String name);
+}
@@ -0,0 +1,13 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.Notification;
+
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    List<Notification> findByUserIdOrderByIdDesc(Long userId);
+}
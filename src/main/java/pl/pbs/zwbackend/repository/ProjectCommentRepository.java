@@ -1,24 +1,56 @@
 package pl.pbs.zwbackend.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.pbs.zwbackend.model.ProjectComment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProjectCommentRepository extends JpaRepository<ProjectComment, Long> {
     
-    @Query("SELECT pc FROM ProjectComment pc JOIN FETCH pc.user WHERE pc.project.id = :projectId ORDER BY pc.createdAt DESC")
-    List<ProjectComment> findByProjectIdWithUser(@Param("projectId") Long projectId);
+    // Newest-first keyset pages of top-level comments over the (project_id, depth, created_at, id) index
+    @Query("SELECT pc FROM ProjectComment pc JOIN FETCH pc.user WHERE pc.project.id = :projectId AND pc.depth = 0 " +
+            "ORDER BY pc.createdAt DESC, pc.id DESC")
+    List<ProjectComment> findFirstPageByProjectId(@Param("projectId") Long projectId, Limit limit);
+
+    @Query("SELECT pc FROM ProjectComment pc JOIN FETCH pc.user WHERE pc.project.id = :projectId AND pc.depth = 0 " +
+            "AND (pc.createdAt < :createdAt OR (pc.createdAt = :createdAt AND pc.id < :id)) " +
+            "ORDER BY pc.createdAt DESC, pc.id DESC")
+    List<ProjectComment> findPageByProjectIdBefore(@Param("projectId") Long projectId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id, Limit limit);
     
     List<ProjectComment> findByProjectIdOrderByCreatedAtDesc(Long projectId);
       List<ProjectComment> findByUserIdOrderByCreatedAtDesc(Long userId);
     
     Optional<ProjectComment> findByIdAndProjectId(Long id, Long projectId);
+
+    // Whole reply subtree of a comment with one range scan of the (project_id, comment_path) index
+    @Query("SELECT pc FROM ProjectComment pc JOIN FETCH pc.user WHERE pc.project.id = :projectId " +
+            "AND pc.path LIKE :pathPrefix ORDER BY pc.depth, pc.id")
+    List<ProjectComment> findSubtree(@Param("projectId") Long projectId, @Param("pathPrefix") String pathPrefix);
+
+    // Ids of the first direct replies of each parent; JPQL has no per-group limit, hence the window function
+    @Query(value = "SELECT ranked.id FROM (SELECT c.id AS id, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.id) AS rn " +
+            "FROM project_comments c WHERE c.parent_id IN (:parentIds)) ranked WHERE ranked.rn <= :perParent",
+            nativeQuery = true)
+    List<Long> findFirstReplyIds(@Param("parentIds") Collection<Long> parentIds, @Param("perParent") int perParent);
+
+    @Query("SELECT pc FROM ProjectComment pc JOIN FETCH pc.user WHERE pc.id IN :ids ORDER BY pc.id")
+    List<ProjectComment> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProjectComment pc SET pc.replyCount = pc.replyCount + :delta WHERE pc.id IN :ids")
+    int adjustReplyCounts(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
     
     Long countByProjectId(Long projectId);
     
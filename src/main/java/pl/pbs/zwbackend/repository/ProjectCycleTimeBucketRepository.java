@@ -0,0 +1,27 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.ProjectCycleTimeBucket;
+
+import java.util.List;
+
+@Repository
+public interface ProjectCycleTimeBucketRepository extends JpaRepository<ProjectCycleTimeBucket, Long> {
+
+    // Creates the bucket with a zero count unless it exists; see ProjectFlowDailyRepository#insertIfAbsent
+    @Modifying
+    @Query(value = "INSERT INTO project_cycle_time_buckets (project_id, min_days, count) " +
+            "VALUES (:projectId, :minDays, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("projectId") Long projectId, @Param("minDays") int minDays);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProjectCycleTimeBucket b SET b.count = b.count + :count " +
+            "WHERE b.projectId = :projectId AND b.minDays = :minDays")
+    int increment(@Param("projectId") Long projectId, @Param("minDays") int minDays, @Param("count") long count);
+
+    List<ProjectCycleTimeBucket> findByProjectIdOrderByMinDaysAsc(Long projectId);
+}
@@ -1,6 +1,8 @@
 package pl.pbs.zwbackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.pbs.zwbackend.model.ProjectFile;
 
@@ -13,4 +15,9 @@ public interface ProjectFileRepository extends JpaRepository<ProjectFile, Long>
     List<ProjectFile> findAllByUploadedById(Long userId);
     Optional<ProjectFile> findByIdAndProjectId(Long id, Long projectId);
     Optional<ProjectFile> findByStoredFileName(String storedFileName);
+
+    // Whether the user can download some file with this content, i.e. owns or is assigned to its project
+    @Query("SELECT COUNT(pf) > 0 FROM ProjectFile pf WHERE pf.blobHash = :hash AND (pf.project.createdBy.id = :userId "
+            + "OR EXISTS (SELECT pu FROM ProjectUser pu WHERE pu.project.id = pf.project.id AND pu.user.id = :userId))")
+    boolean existsReadableByBlobHash(@Param("hash") String hash, @Param("userId") Long userId);
 }
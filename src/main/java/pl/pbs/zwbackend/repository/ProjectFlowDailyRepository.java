@@ -0,0 +1,36 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.ProjectFlowDaily;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProjectFlowDailyRepository extends JpaRepository<ProjectFlowDaily, Long> {
+
+    // Creates the bucket with zero counts unless it exists, so concurrent transactions never both insert it;
+    // the counts are then added with increment, which locks the row
+    @Modifying
+    @Query(value = "INSERT INTO project_flow_daily (project_id, flow_date, status, entered, exited) " +
+            "VALUES (:projectId, :day, :status, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("projectId") Long projectId, @Param("day") LocalDate day, @Param("status") String status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProjectFlowDaily f SET f.entered = f.entered + :entered, f.exited = f.exited + :exited " +
+            "WHERE f.projectId = :projectId AND f.day = :day AND f.status = :status")
+    int increment(@Param("projectId") Long projectId, @Param("day") LocalDate day, @Param("status") TaskStatus status,
+                  @Param("entered") long entered, @Param("exited") long exited);
+
+    // Number of tasks per status at the end of the day before :from
+    @Query("SELECT f.status, SUM(f.entered - f.exited) FROM ProjectFlowDaily f " +
+            "WHERE f.projectId = :projectId AND f.day < :from GROUP BY f.status")
+    List<Object[]> sumNetBefore(@Param("projectId") Long projectId, @Param("from") LocalDate from);
+
+    List<ProjectFlowDaily> findByProjectIdAndDayBetweenOrderByDayAsc(Long projectId, LocalDate from, LocalDate to);
+}
@@ -1,14 +1,35 @@
 package pl.pbs.zwbackend.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.pbs.zwbackend.model.Project;
 import pl.pbs.zwbackend.model.User;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByCreatedBy(User createdBy);
     List<Project> findByCreatedById(Long userId);
+
+    // True when the user owns the project or is assigned to it
+    @Query("SELECT COUNT(p) > 0 FROM Project p WHERE p.id = :projectId AND (p.createdBy.email = :email " +
+            "OR EXISTS (SELECT pu FROM ProjectUser pu WHERE pu.project.id = p.id AND pu.user.email = :email))")
+    boolean hasMember(@Param("projectId") Long projectId, @Param("email") String email);
+
+    // Serializes structural changes inside one project, e.g. dependency edits that must stay acyclic
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Project p WHERE p.id = :id")
+    Optional<Project> findForUpdate(@Param("id") Long id);
+
+    // Rows are (id, name, startDate, endDate) of dated projects the user owns or is assigned to
+    @Query("SELECT p.id, p.name, p.startDate, p.endDate FROM Project p " +
+            "WHERE (p.startDate IS NOT NULL OR p.endDate IS NOT NULL) AND (p.createdBy.id = :userId " +
+            "OR p.id IN (SELECT pu.project.id FROM ProjectUser pu WHERE pu.user.id = :userId)) ORDER BY p.id")
+    List<Object[]> findCalendarRowsByMemberId(@Param("userId") Long userId);
 }
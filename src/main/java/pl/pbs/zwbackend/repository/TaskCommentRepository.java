@@ -0,0 +1,27 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.TaskComment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskCommentRepository extends JpaRepository<TaskComment, Long> {
+
+    Optional<TaskComment> findByIdAndTaskId(Long id, Long taskId);
+
+    // Keyset page over the (task_id, id) index; authors are left lazy and loaded per page by the service
+    @Query("SELECT c FROM TaskComment c WHERE c.task.id = :taskId AND c.id > :afterId ORDER BY c.id")
+    List<TaskComment> findPageByTaskId(@Param("taskId") Long taskId, @Param("afterId") Long afterId, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskComment c WHERE c.task.id IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+}
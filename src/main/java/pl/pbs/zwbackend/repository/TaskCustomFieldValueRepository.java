@@ -0,0 +1,35 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.TaskCustomFieldValue;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskCustomFieldValueRepository extends JpaRepository<TaskCustomFieldValue, Long> {
+
+    String VALUE_ROW_SELECT = "SELECT v.task.id, f.name, f.type, v.textValue, v.numberValue, v.dateValue, v.booleanValue " +
+            "FROM TaskCustomFieldValue v JOIN v.field f ";
+
+    List<TaskCustomFieldValue> findByTaskId(Long taskId);
+
+    // Rows are (taskId, fieldName, fieldType, textValue, numberValue, dateValue, booleanValue)
+    @Query(VALUE_ROW_SELECT + "WHERE v.task.id IN :taskIds")
+    List<Object[]> findValueRowsByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query(VALUE_ROW_SELECT + "WHERE f.project.id = :projectId")
+    List<Object[]> findValueRowsByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskCustomFieldValue v WHERE v.task.id IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskCustomFieldValue v WHERE v.field.id = :fieldId")
+    int deleteByFieldId(@Param("fieldId") Long fieldId);
+}
@@ -0,0 +1,34 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.TaskDependency;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskDependencyRepository extends JpaRepository<TaskDependency, Long> {
+
+    Optional<TaskDependency> findByPredecessorIdAndSuccessorId(Long predecessorId, Long successorId);
+
+    boolean existsByPredecessorIdAndSuccessorId(Long predecessorId, Long successorId);
+
+    @Query("SELECT d.predecessor.id, d.successor.id FROM TaskDependency d WHERE d.successor.id = :taskId OR d.predecessor.id = :taskId")
+    List<Object[]> findEdgesByTaskId(@Param("taskId") Long taskId);
+
+    @Query("SELECT d.successor.id FROM TaskDependency d WHERE d.predecessor.id IN :taskIds")
+    List<Long> findSuccessorIds(@Param("taskIds") Collection<Long> taskIds);
+
+    // (predecessorId, successorId) pairs of every dependency inside the project
+    @Query("SELECT d.predecessor.id, d.successor.id FROM TaskDependency d WHERE d.successor.project.id = :projectId")
+    List<Object[]> findEdgesByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskDependency d WHERE d.predecessor.id IN :taskIds OR d.successor.id IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+}
@@ -1,13 +1,112 @@
 package pl.pbs.zwbackend.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.dto.DueTaskRow;
+import pl.pbs.zwbackend.dto.TaskRow;
 import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByProjectId(Long projectId);
-    List<Task> findByAssignedToId(Long userId);
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+
+    String TASK_ROW_SELECT = "SELECT new pl.pbs.zwbackend.dto.TaskRow(t.id, t.name, t.description, t.descriptionHtml, t.status, " +
+            "t.dueDate, t.rank, t.commentCount, t.version, t.parent.id, t.depth, t.subtaskCount, t.subtaskDoneCount, " +
+            "t.createdAt, t.project.id, a.id, a.firstName, a.lastName, a.email, a.avatarFileName) " +
+            "FROM Task t LEFT JOIN t.assignedTo a ";
+
+    List<Task> findByProjectIdAndStatusOrderByRankAscIdAsc(Long projectId, TaskStatus status);
+
+    @Query("SELECT MAX(t.rank) FROM Task t WHERE t.project.id = :projectId AND t.status = :status")
+    String findMaxRank(@Param("projectId") Long projectId, @Param("status") TaskStatus status);
+
+    @Query("SELECT MIN(t.rank) FROM Task t WHERE t.project.id = :projectId AND t.status = :status AND t.rank > :rank")
+    String findRankAfter(@Param("projectId") Long projectId, @Param("status") TaskStatus status, @Param("rank") String rank);
+
+    @Query("SELECT t FROM Task t JOIN FETCH t.project LEFT JOIN FETCH t.assignedTo WHERE t.id IN :ids")
+    List<Task> findAllWithProjectByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(TASK_ROW_SELECT + "ORDER BY t.id")
+    List<TaskRow> findAllRows();
+
+    @Query(TASK_ROW_SELECT + "WHERE t.project.id = :projectId ORDER BY t.id")
+    List<TaskRow> findRowsByProjectId(@Param("projectId") Long projectId);
+
+    // Rows are (id, status, assigneeId), used to build the facet index of a project
+    @Query("SELECT t.id, t.status, a.id FROM Task t LEFT JOIN t.assignedTo a WHERE t.project.id = :projectId")
+    List<Object[]> findFacetRowsByProjectId(@Param("projectId") Long projectId);
+
+    // Same rows for single tasks, re-read after they were written
+    @Query("SELECT t.id, t.status, a.id FROM Task t LEFT JOIN t.assignedTo a WHERE t.id IN :ids")
+    List<Object[]> findFacetRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Served by the (project_id, status, board_rank, id) index in a single range scan
+    @Query(TASK_ROW_SELECT + "WHERE t.project.id = :projectId ORDER BY t.status, t.rank, t.id")
+    List<TaskRow> findBoardRowsByProjectId(@Param("projectId") Long projectId);
+
+    @Query(TASK_ROW_SELECT + "WHERE a.id = :userId ORDER BY t.id")
+    List<TaskRow> findRowsByAssigneeId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.commentCount = t.commentCount + :delta WHERE t.id = :taskId")
+    int incrementCommentCount(@Param("taskId") Long taskId, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.subtaskCount = t.subtaskCount + :total, t.subtaskDoneCount = t.subtaskDoneCount + :done " +
+            "WHERE t.id IN :taskIds")
+    int adjustSubtaskCounts(@Param("taskIds") Collection<Long> taskIds, @Param("total") int total, @Param("done") int done);
+
+    // Every task below a node of the subtask tree, answered from the (project_id, task_path) index
+    @Query(TASK_ROW_SELECT + "WHERE t.project.id = :projectId AND t.path LIKE :pathPrefix ORDER BY t.depth, t.rank, t.id")
+    List<TaskRow> findSubtreeRows(@Param("projectId") Long projectId, @Param("pathPrefix") String pathPrefix);
+
+    // (id, dueDate, createdAt) of every task in the project, used to build the schedule graph
+    @Query("SELECT t.id, t.dueDate, t.createdAt FROM Task t WHERE t.project.id = :projectId")
+    List<Object[]> findScheduleRowsByProjectId(@Param("projectId") Long projectId);
+
+    // Assigned tasks in the given statuses whose due date lies in (after, upTo], read in id order after :afterId
+    @Query("SELECT new pl.pbs.zwbackend.dto.DueTaskRow(t.id, t.name, t.dueDate, t.project.id, a.id, a.email) " +
+            "FROM Task t JOIN t.assignedTo a " +
+            "WHERE t.status IN :statuses AND t.dueDate > :after AND t.dueDate <= :upTo AND t.id > :afterId " +
+            "ORDER BY t.id")
+    List<DueTaskRow> findDueRows(@Param("statuses") Collection<TaskStatus> statuses, @Param("after") LocalDate after,
+                                 @Param("upTo") LocalDate upTo, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Per assignee and status counts over the projects the user owns or holds one of the given
+     * roles in, together with how many of those tasks are overdue or due by {@code weekEnd}.
+     * Rows are (assigneeId, firstName, lastName, email, avatarFileName, status, count, overdue, dueThisWeek).
+     */
+    @Query("SELECT a.id, a.firstName, a.lastName, a.email, a.avatarFileName, t.status, COUNT(t), " +
+            "SUM(CASE WHEN t.status <> pl.pbs.zwbackend.model.enums.TaskStatus.COMPLETED AND t.dueDate < :today THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN t.status <> pl.pbs.zwbackend.model.enums.TaskStatus.COMPLETED " +
+            "AND t.dueDate >= :today AND t.dueDate <= :weekEnd THEN 1 ELSE 0 END) " +
+            "FROM Task t JOIN t.assignedTo a " +
+            "WHERE t.project.id IN (SELECT p.id FROM Project p WHERE p.createdBy.id = :userId) " +
+            "OR t.project.id IN (SELECT pu.project.id FROM ProjectUser pu WHERE pu.user.id = :userId AND pu.role IN :roles) " +
+            "GROUP BY a.id, a.firstName, a.lastName, a.email, a.avatarFileName, t.status")
+    List<Object[]> aggregateWorkload(@Param("userId") Long userId,
+                                     @Param("roles") Collection<ProjectRole> roles,
+                                     @Param("today") LocalDate today,
+                                     @Param("weekEnd") LocalDate weekEnd);
+
+    // Rows are (id, name, dueDate, status, projectName), read as a stream for the calendar feed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.id, t.name, t.dueDate, t.status, p.name FROM Task t JOIN t.project p " +
+            "WHERE t.assignedTo.id = :userId AND t.dueDate IS NOT NULL ORDER BY t.dueDate, t.id")
+    Stream<Object[]> streamCalendarRows(@Param("userId") Long userId);
 }
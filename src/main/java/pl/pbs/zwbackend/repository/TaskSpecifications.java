@@ -0,0 +1,181 @@
+package pl.pbs.zwbackend.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskCustomFieldValue;
+import pl.pbs.zwbackend.model.TaskTag;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public final class TaskSpecifications {
+
+    public enum Comparison {
+        EQ, LT, LTE, GT, GTE
+    }
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> inProjects(Collection<Long> projectIds) {
+        if (projectIds == null || projectIds.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("project").get("id").in(projectIds);
+    }
+
+    public static Specification<Task> hasStatusIn(Collection<TaskStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> assignedTo(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("assignedTo").get("id"), userId);
+    }
+
+    public static Specification<Task> dueBetween(LocalDate from, LocalDate to) {
+        return between("dueDate", from, to);
+    }
+
+    public static Specification<Task> createdBetween(LocalDate from, LocalDate to) {
+        return between("createdAt", from, to);
+    }
+
+    public static Specification<Task> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        // Case-sensitive prefix match so the (name, id) index can be used
+        String pattern = prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+
+    // Tasks carrying at least one of the tags, answered from the (name, task_id) index
+    public static Specification<Task> hasAnyTag(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> matching = query.subquery(Long.class);
+            Root<TaskTag> tagRoot = matching.from(TaskTag.class);
+            matching.select(tagRoot.get("id")).where(
+                    cb.equal(tagRoot.get("task"), root),
+                    tagRoot.get("name").in(tags));
+            return cb.exists(matching);
+        };
+    }
+
+    public static Specification<Task> hasDueDate() {
+        return (root, query, cb) -> cb.isNotNull(root.get("dueDate"));
+    }
+
+    public static Specification<Task> fetchAssignee() {
+        return (root, query, cb) -> {
+            // Count queries cannot fetch, so only join the assignee into data queries
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("assignedTo", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Keyset predicate selecting rows that come after (attribute, id) in the given sort direction.
+     * The attribute must be non-null for every row in the result.
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Task> after(
+            String attribute, Y value, Long id, Sort.Direction direction) {
+        return (root, query, cb) -> keysetAfter(cb, root.get(attribute), root.get("id"), value, id, direction);
+    }
+
+    /**
+     * Tasks whose value of the custom field compares to {@code value} as given. The EXISTS
+     * subquery is answered from the (field_id, value, task_id) index of the value table.
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Task> customField(
+            Long fieldId, String valueAttribute, Comparison comparison, Y value) {
+        return (root, query, cb) -> {
+            Subquery<Long> values = query.subquery(Long.class);
+            Root<TaskCustomFieldValue> valueRoot = values.from(TaskCustomFieldValue.class);
+            Path<Y> path = valueRoot.get(valueAttribute);
+            Predicate matches = switch (comparison) {
+                case EQ -> cb.equal(path, value);
+                case LT -> cb.lessThan(path, value);
+                case LTE -> cb.lessThanOrEqualTo(path, value);
+                case GT -> cb.greaterThan(path, value);
+                case GTE -> cb.greaterThanOrEqualTo(path, value);
+            };
+            values.select(valueRoot.get("id")).where(
+                    cb.equal(valueRoot.get("task"), root),
+                    cb.equal(valueRoot.get("field").get("id"), fieldId),
+                    matches);
+            return cb.exists(values);
+        };
+    }
+
+    /**
+     * Orders tasks by their value of the custom field and then by id, leaving out tasks without a
+     * value. With a non-null {@code afterValue} only rows after (afterValue, afterId) are kept.
+     * The ordering is part of the specification, so it must be queried without a {@link Sort}.
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Task> orderByCustomField(
+            Long fieldId, String valueAttribute, Sort.Direction direction, Y afterValue, Long afterId) {
+        return (root, query, cb) -> {
+            Join<Task, TaskCustomFieldValue> value = root.join("customFieldValues");
+            value.on(cb.equal(value.get("field").get("id"), fieldId), cb.isNotNull(value.get(valueAttribute)));
+            Path<Y> key = value.get(valueAttribute);
+            Path<Long> id = root.get("id");
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                query.orderBy(direction.isAscending()
+                        ? List.of(cb.asc(key), cb.asc(id))
+                        : List.of(cb.desc(key), cb.desc(id)));
+            }
+            return afterValue != null ? keysetAfter(cb, key, id, afterValue, afterId, direction) : null;
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate keysetAfter(
+            CriteriaBuilder cb, Path<Y> key, Path<Long> idPath, Y value, Long id, Sort.Direction direction) {
+        if (direction.isAscending()) {
+            return cb.or(
+                    cb.greaterThan(key, value),
+                    cb.and(cb.equal(key, value), cb.greaterThan(idPath, id)));
+        }
+        return cb.or(
+                cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), cb.lessThan(idPath, id)));
+    }
+
+    private static Specification<Task> between(String attribute, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<LocalDate> path = root.get(attribute);
+            if (from == null) {
+                return cb.lessThanOrEqualTo(path, to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(path, from);
+            }
+            return cb.between(path, from, to);
+        };
+    }
+}
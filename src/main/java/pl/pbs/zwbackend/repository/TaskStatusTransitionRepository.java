@@ -0,0 +1,26 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.TaskStatusTransition;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskStatusTransitionRepository extends JpaRepository<TaskStatusTransition, Long> {
+
+    List<TaskStatusTransition> findByTaskIdOrderByChangedAtAscIdAsc(Long taskId);
+
+    // Moment each task was first started, i.e. first moved into any status other than TODO
+    @Query("SELECT t.taskId, MIN(t.changedAt) FROM TaskStatusTransition t " +
+            "WHERE t.taskId IN :taskIds AND t.toStatus <> pl.pbs.zwbackend.model.enums.TaskStatus.TODO " +
+            "GROUP BY t.taskId")
+    List<Object[]> findStartTimesByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("SELECT DISTINCT t.taskId FROM TaskStatusTransition t " +
+            "WHERE t.taskId IN :taskIds AND t.toStatus = pl.pbs.zwbackend.model.enums.TaskStatus.COMPLETED")
+    List<Long> findCompletedTaskIdsIn(@Param("taskIds") Collection<Long> taskIds);
+}
@@ -0,0 +1,28 @@
+package pl.pbs.zwbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.TaskTag;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskTagRepository extends JpaRepository<TaskTag, Long> {
+
+    List<TaskTag> findByTaskId(Long taskId);
+
+    // Rows are (taskId, name)
+    @Query("SELECT t.task.id, t.name FROM TaskTag t WHERE t.task.id IN :taskIds ORDER BY t.name")
+    List<Object[]> findTagRowsByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("SELECT t.task.id, t.name FROM TaskTag t WHERE t.task.project.id = :projectId")
+    List<Object[]> findTagRowsByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskTag t WHERE t.task.id IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+}
@@ -0,0 +1,38 @@
+package pl.pbs.zwbackend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pbs.zwbackend.model.UploadSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Locks the row so that an upload is completed or cancelled only once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findForUpdate(@Param("id") String id);
+
+    @Query("SELECT s.receivedBytes FROM UploadSession s WHERE s.id = :id")
+    Optional<Long> findReceivedBytes(@Param("id") String id);
+
+    // Moves the offset only if no other chunk got there first and the session still exists
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :receivedBytes, s.expiresAt = :expiresAt " +
+            "WHERE s.id = :id AND s.receivedBytes = :offset")
+    int advanceOffset(@Param("id") String id, @Param("offset") long offset,
+                      @Param("receivedBytes") long receivedBytes, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Locked, so a session that a chunk extends while the expired ones are removed is re-checked and kept
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.expiresAt < :time")
+    List<UploadSession> findExpiredForUpdate(@Param("time") LocalDateTime time);
+}
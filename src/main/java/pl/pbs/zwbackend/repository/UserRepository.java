@@ -1,14 +1,30 @@
 package pl.pbs.zwbackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.pbs.zwbackend.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    boolean existsByIdAndAvatarBlobHash(Long id, String avatarBlobHash);
     Optional<User> findByAvatarFileName(String avatarFileName);
-}
\ No newline at end of file
+    List<User> findByEmailIn(Collection<String> emails);
+
+    // Users whose handle is one of the given lower-case handles, looked up on the handle index
+    List<User> findByHandleIn(Collection<String> handles);
+
+    // Same, limited to the owner and the assigned users of the project
+    @Query("SELECT u FROM User u WHERE u.handle IN :handles " +
+            "AND (EXISTS (SELECT p FROM Project p WHERE p.id = :projectId AND p.createdBy = u) " +
+            "OR EXISTS (SELECT pu FROM ProjectUser pu WHERE pu.project.id = :projectId AND pu.user = u))")
+    List<User> findProjectMembersByHandleIn(@Param("projectId") Long projectId,
+                                            @Param("handles") Collection<String> handles);
+}
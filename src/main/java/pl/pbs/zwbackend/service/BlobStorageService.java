@@ -0,0 +1,197 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import pl.pbs.zwbackend.exception.ChecksumMismatchException;
+import pl.pbs.zwbackend.exception.FileStorageException;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.FileBlobRepository;
+import pl.pbs.zwbackend.repository.ImageRepository;
+import pl.pbs.zwbackend.repository.ProjectFileRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage shared by project files, images and avatars. Content is stored once
+ * per SHA-256, which is computed while the upload is streamed to disk, and every record that uses
+ * it holds a reference. Storing content that is already present only increments the reference
+ * count and drops the new copy; releasing the last reference deletes the bytes.
+ * <p>
+ * Callers must run in a transaction. Counts are changed with single UPDATE statements; bytes are
+ * only deleted after the releasing transaction has committed, under a row lock that also blocks
+ * uploads taking a new reference, so a blob is never deleted while it is referenced.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlobStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStorageService.class);
+
+    private final FileBlobRepository fileBlobRepository;
+    private final ProjectFileRepository projectFileRepository;
+    private final ImageRepository imageRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    public record StoredBlob(String hash, long size) {
+    }
+
+    public record StagedBlob(Path file, String hash, long size) {
+    }
+
+    public StoredBlob store(MultipartFile file) {
+        try {
+            return store(file.getInputStream());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read uploaded file " + file.getOriginalFilename(), ex);
+        }
+    }
+
+    public StoredBlob store(InputStream inputStream) {
+        return store(stage(inputStream));
+    }
+
+    /**
+     * Streams content to a temporary file in the storage root and hashes it on the way, without
+     * touching the database. This lets slow uploads be received outside a transaction; the result
+     * is then passed to {@link #store(StagedBlob)} or {@link #discard(StagedBlob)}.
+     */
+    public StagedBlob stage(InputStream inputStream) {
+        MessageDigest digest = sha256();
+        Path tempFile = fileStorageService.writeTempFile(inputStream, digest);
+        return new StagedBlob(tempFile, HexFormat.of().formatHex(digest.digest()), size(tempFile));
+    }
+
+    public StoredBlob store(StagedBlob staged) {
+        return adopt(staged.file(), staged.hash(), staged.size());
+    }
+
+    public void discard(StagedBlob staged) {
+        fileStorageService.deleteTempFile(staged.file());
+    }
+
+    /**
+     * Stores a file that already lies in the storage root, such as a finished resumable upload.
+     * It is read once to hash it and then moved, or deleted when its content is already stored.
+     */
+    public StoredBlob storeFile(Path file) {
+        return storeFile(file, null);
+    }
+
+    /**
+     * Like {@link #storeFile(Path)}, but throws {@link ChecksumMismatchException}, leaving the file
+     * in place and the database untouched, when it does not hash to {@code expectedHash}. A null
+     * {@code expectedHash} accepts any content.
+     */
+    public StoredBlob storeFile(Path file, String expectedHash) {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read file " + file.getFileName(), ex);
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        if (expectedHash != null && !expectedHash.equals(hash)) {
+            throw new ChecksumMismatchException("Uploaded content does not match its declared SHA-256");
+        }
+        return adopt(file, hash, size(file));
+    }
+
+    /**
+     * Takes a new reference to content that is already stored, so a record can be created without
+     * uploading it again. This only succeeds when the blob exists with exactly this size and
+     * {@code user} can already read a project file, image or avatar with that content; otherwise
+     * knowing a hash would be enough to obtain someone else's file. Returns empty when the
+     * content has to be uploaded.
+     */
+    public Optional<StoredBlob> retain(String hash, long size, User user) {
+        if (!canReference(hash, user) || fileBlobRepository.incrementRefCountIfSize(hash, size) == 0) {
+            return Optional.empty();
+        }
+        // The row lock held by the increment keeps a concurrent purge from deleting the bytes now
+        fileStorageService.loadBlobPath(hash);
+        return Optional.of(new StoredBlob(hash, size));
+    }
+
+    public Path path(String hash) {
+        return fileStorageService.loadBlobPath(hash);
+    }
+
+    /**
+     * Drops one reference. The content is deleted once the transaction has committed if nothing
+     * references it any more.
+     */
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+        if (fileBlobRepository.decrementRefCount(hash) > 0) {
+            AfterCommit.run(() -> purgeIfUnreferenced(hash));
+        }
+    }
+
+    // Content never changes under a hash, so it is a strong validator for every record using it
+    public static String eTag(String hash) {
+        return "\"" + hash + "\"";
+    }
+
+    private boolean canReference(String hash, User user) {
+        return projectFileRepository.existsReadableByBlobHash(hash, user.getId())
+                || imageRepository.existsReadableByBlobHash(hash, user.getId())
+                || userRepository.existsByIdAndAvatarBlobHash(user.getId(), hash);
+    }
+
+    private StoredBlob adopt(Path file, String hash, long size) {
+        // Two statements but no check-then-insert, so overlapping uploads of new content share one row
+        fileBlobRepository.insertIfAbsent(hash, size);
+        fileBlobRepository.incrementRefCount(hash);
+        // Also restores the bytes of a blob whose purge deleted them but then failed to commit
+        fileStorageService.moveToBlob(file, hash);
+        return new StoredBlob(hash, size);
+    }
+
+    private void purgeIfUnreferenced(String hash) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> fileBlobRepository.findForUpdate(hash)
+                    .filter(blob -> blob.getRefCount() == 0)
+                    .ifPresent(blob -> {
+                        fileStorageService.deleteBlob(hash);
+                        fileBlobRepository.delete(blob);
+                    }));
+        } catch (Exception e) {
+            logger.warn("Could not delete unreferenced blob {}", hash, e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read file " + file.getFileName(), ex);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
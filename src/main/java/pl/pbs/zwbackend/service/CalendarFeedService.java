@@ -0,0 +1,180 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pl.pbs.zwbackend.dto.CalendarFeedResponse;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.model.CalendarFeed;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.CalendarFeedRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+import pl.pbs.zwbackend.util.ICalendarWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Token-authenticated iCalendar feeds with the due dates of a user's tasks and the start and end
+ * dates of their projects. Every write that can change a feed bumps the owner's change counter,
+ * which is the feed's ETag: unchanged polls are answered from the counter alone and a changed
+ * feed is rendered once and then served from memory until the counter moves again.
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarFeedService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CalendarFeedRepository calendarFeedRepository;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+
+    private final Map<Long, RenderedCalendar> rendered = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public CalendarFeedResponse getFeed(String userEmail) {
+        User user = findUser(userEmail);
+        CalendarFeed feed = calendarFeedRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("CalendarFeed", "userId", user.getId()));
+        return convertToResponse(feed);
+    }
+
+    /**
+     * Creates the user's feed, or replaces its token so that the previous URL stops working.
+     */
+    @Transactional
+    public CalendarFeedResponse rotateToken(String userEmail) {
+        User user = findUser(userEmail);
+        CalendarFeed feed = calendarFeedRepository.findById(user.getId())
+                .orElseGet(() -> CalendarFeed.builder().userId(user.getId()).build());
+        feed.setToken(generateToken());
+        return convertToResponse(calendarFeedRepository.save(feed));
+    }
+
+    @Transactional
+    public void deleteFeed(String userEmail) {
+        User user = findUser(userEmail);
+        calendarFeedRepository.deleteById(user.getId());
+        AfterCommit.run(() -> rendered.remove(user.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarFeed findByToken(String token) {
+        return calendarFeedRepository.findByToken(token)
+                .orElseThrow(() -> new ResourceNotFoundException("CalendarFeed", "token", token));
+    }
+
+    public String eTag(CalendarFeed feed) {
+        return "\"" + feed.getUserId() + "-" + feed.getChangeCounter() + "\"";
+    }
+
+    /**
+     * Returns the feed body for the given counter value, rendering it only when the cached copy
+     * is older. Task and project rows are streamed straight into the iCalendar writer.
+     */
+    @Transactional(readOnly = true)
+    public byte[] render(CalendarFeed feed) {
+        RenderedCalendar cached = rendered.get(feed.getUserId());
+        if (cached != null && cached.changeCounter() >= feed.getChangeCounter()) {
+            return cached.body();
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+             Stream<Object[]> tasks = taskRepository.streamCalendarRows(feed.getUserId())) {
+            ICalendarWriter calendar = new ICalendarWriter(writer, Instant.now());
+            calendar.begin("Tasks");
+            for (Object[] row : projectRepository.findCalendarRowsByMemberId(feed.getUserId())) {
+                writeProjectDate(calendar, (Long) row[0], "start", (String) row[1], (LocalDate) row[2]);
+                writeProjectDate(calendar, (Long) row[0], "end", (String) row[1], (LocalDate) row[3]);
+            }
+            for (Object[] row : (Iterable<Object[]>) tasks::iterator) {
+                TaskStatus status = (TaskStatus) row[3];
+                String summary = status == TaskStatus.COMPLETED ? row[1] + " (completed)" : (String) row[1];
+                calendar.allDayEvent("task-" + row[0] + "@zw-backend", (LocalDate) row[2], summary,
+                        "Project: " + row[4] + "\nStatus: " + status);
+            }
+            calendar.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render calendar feed", e);
+        }
+
+        byte[] bytes = body.toByteArray();
+        rendered.merge(feed.getUserId(), new RenderedCalendar(feed.getChangeCounter(), bytes),
+                (current, candidate) -> candidate.changeCounter() >= current.changeCounter() ? candidate : current);
+        return bytes;
+    }
+
+    /**
+     * Marks the feeds of the given users as changed, e.g. the previous and new assignee of a task.
+     */
+    @Transactional
+    public void usersChanged(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            calendarFeedRepository.incrementChangeCounters(ids);
+        }
+    }
+
+    // Marks the feeds of the project's owner and members as changed
+    @Transactional
+    public void projectChanged(Long projectId) {
+        calendarFeedRepository.incrementChangeCountersForProject(projectId);
+    }
+
+    private void writeProjectDate(ICalendarWriter calendar, Long projectId, String kind, String name, LocalDate date)
+            throws IOException {
+        if (date != null) {
+            calendar.allDayEvent("project-" + projectId + "-" + kind + "@zw-backend", date,
+                    "Project " + kind + ": " + name, null);
+        }
+    }
+
+    private CalendarFeedResponse convertToResponse(CalendarFeed feed) {
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/calendar/feeds/")
+                .path(feed.getToken())
+                .path(".ics")
+                .toUriString();
+        return CalendarFeedResponse.builder()
+                .token(feed.getToken())
+                .url(url)
+                .build();
+    }
+
+    private User findUser(String userEmail) {
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record RenderedCalendar(long changeCounter, byte[] body) {
+    }
+}
@@ -23,6 +23,8 @@ public class ChatService {
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final MentionService mentionService;
+    private final MarkdownRenderer markdownRenderer;
     
     @Transactional
     public MessageSendResponse sendMessage(MessageRequest request, String userEmail) {
@@ -32,10 +34,13 @@ public class ChatService {
             
             Message message = Message.builder()
                     .content(request.getContent())
+                    .contentHtml(markdownRenderer.render(request.getContent()))
                     .sender(sender)
                     .build();
             
             Message savedMessage = messageRepository.save(message);
+            mentionService.notifyMentions(request.getContent(), sender,
+                    sender.getFirstName() + " " + sender.getLastName() + " mentioned you in the chat");
             MessageResponse messageResponse = convertToResponse(savedMessage);
             
             return MessageSendResponse.builder()
@@ -70,6 +75,7 @@ public class ChatService {
         return MessageResponse.builder()
                 .id(message.getId())
                 .content(message.getContent())
+                .contentHtml(message.getContentHtml())
                 .timestamp(message.getTimestamp())
                 .sender(userService.convertToUserSummaryResponse(message.getSender()))
                 .build();
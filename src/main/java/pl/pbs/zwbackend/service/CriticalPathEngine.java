@@ -0,0 +1,133 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.pbs.zwbackend.dto.ProjectScheduleResponse;
+import pl.pbs.zwbackend.repository.TaskDependencyRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one {@link ProjectScheduleGraph} per project in memory. A graph is loaded from the
+ * database the first time its project is scheduled; afterwards task and dependency changes are
+ * applied to it incrementally once their transaction has committed.
+ * <p>
+ * Graphs are loaded outside any lock. Every committed change bumps the project's version, and a
+ * graph is only cached when no change committed while it was being loaded, so such a change is
+ * never lost. Cached graphs are dropped after a while, which also picks up changes made by other
+ * instances, and whenever a change cannot be applied.
+ */
+@Component
+@RequiredArgsConstructor
+public class CriticalPathEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CriticalPathEngine.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+
+    private final Map<Long, CachedGraph> graphs = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.schedule.graph-ttl-ms:600000}")
+    private long graphTtlMs;
+
+    public ProjectScheduleResponse getSchedule(Long projectId) {
+        ProjectScheduleGraph graph = graph(projectId);
+        synchronized (graph) {
+            return graph.toResponse(projectId);
+        }
+    }
+
+    public void taskSaved(Long projectId, Long taskId, LocalDate dueDate, LocalDate createdAt) {
+        LocalDate plannedFinish = plannedFinish(dueDate, createdAt);
+        afterCommit(projectId, graph -> graph.putTask(taskId, plannedFinish));
+    }
+
+    public void tasksDeleted(Long projectId, Collection<Long> taskIds) {
+        afterCommit(projectId, graph -> taskIds.forEach(graph::removeTask));
+    }
+
+    public void dependencyAdded(Long projectId, Long predecessorId, Long successorId) {
+        afterCommit(projectId, graph -> graph.addDependency(predecessorId, successorId));
+    }
+
+    public void dependencyRemoved(Long projectId, Long predecessorId, Long successorId) {
+        afterCommit(projectId, graph -> graph.removeDependency(predecessorId, successorId));
+    }
+
+    private ProjectScheduleGraph graph(Long projectId) {
+        CachedGraph cached = graphs.get(projectId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < graphTtlMs) {
+            return cached.graph();
+        }
+        long version = version(projectId).get();
+        ProjectScheduleGraph loaded = load(projectId);
+        // Replaces only the entry this call found; a graph installed meanwhile by another call wins
+        graphs.compute(projectId, (id, current) -> {
+            if (current != cached) {
+                return current;
+            }
+            return version(projectId).get() == version ? new CachedGraph(loaded, System.currentTimeMillis()) : null;
+        });
+        return loaded;
+    }
+
+    private AtomicLong version(Long projectId) {
+        return versions.computeIfAbsent(projectId, id -> new AtomicLong());
+    }
+
+    private ProjectScheduleGraph load(Long projectId) {
+        Map<Long, LocalDate> plannedFinishes = new HashMap<>();
+        for (Object[] row : taskRepository.findScheduleRowsByProjectId(projectId)) {
+            plannedFinishes.put((Long) row[0], plannedFinish((LocalDate) row[1], (LocalDate) row[2]));
+        }
+        List<Long[]> dependencies = taskDependencyRepository.findEdgesByProjectId(projectId).stream()
+                .map(row -> new Long[]{(Long) row[0], (Long) row[1]})
+                .collect(Collectors.toList());
+        return ProjectScheduleGraph.build(plannedFinishes, dependencies);
+    }
+
+    // Only graphs that are already loaded are updated; others pick the change up when they are loaded.
+    // The version is bumped in the same map operation, so it is atomic with a concurrent load being cached.
+    private void afterCommit(Long projectId, Consumer<ProjectScheduleGraph> change) {
+        AfterCommit.run(() -> graphs.compute(projectId, (id, cached) -> {
+            version(projectId).incrementAndGet();
+            if (cached == null) {
+                return null;
+            }
+            try {
+                synchronized (cached.graph()) {
+                    change.accept(cached.graph());
+                }
+                return cached;
+            } catch (RuntimeException e) {
+                logger.warn("Could not update the schedule of project {}, it is reloaded on next use", projectId, e);
+                return null;
+            }
+        }));
+    }
+
+    private record CachedGraph(ProjectScheduleGraph graph, long loadedAt) {
+    }
+
+    private static LocalDate plannedFinish(LocalDate dueDate, LocalDate createdAt) {
+        if (dueDate != null) {
+            return dueDate;
+        }
+        return createdAt != null ? createdAt : LocalDate.now();
+    }
+}
@@ -0,0 +1,320 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.CustomFieldDefinitionRequest;
+import pl.pbs.zwbackend.dto.CustomFieldDefinitionResponse;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.dto.TaskCustomFieldValuesRequest;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.CustomFieldDefinition;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskCustomFieldValue;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.CustomFieldType;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.repository.CustomFieldDefinitionRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.TaskCustomFieldValueRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskSpecifications;
+import pl.pbs.zwbackend.repository.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Typed custom fields defined per project. Values live in an EAV table with one column per type,
+ * indexed together with the field id, so filters and sorts on a field are index range scans.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomFieldService {
+
+    private final CustomFieldDefinitionRepository definitionRepository;
+    private final TaskCustomFieldValueRepository valueRepository;
+    private final ProjectRepository projectRepository;
+    private final ProjectUserRepository projectUserRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final ProjectEventPublisher projectEventPublisher;
+
+    @Transactional
+    public CustomFieldDefinitionResponse createField(Long projectId, CustomFieldDefinitionRequest request, String userEmail) {
+        Project project = loadProject(projectId);
+        requireManager(project, findUser(userEmail), "User not authorized to define fields in this project");
+        if (definitionRepository.existsByProjectIdAndName(projectId, request.getName())) {
+            throw new IllegalArgumentException("Field '" + request.getName() + "' already exists in this project");
+        }
+
+        CustomFieldDefinition field = definitionRepository.save(CustomFieldDefinition.builder()
+                .project(project)
+                .name(request.getName())
+                .type(request.getType())
+                .build());
+        return convertToResponse(field);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomFieldDefinitionResponse> getFields(Long projectId, String userEmail) {
+        loadProject(projectId);
+        if (!projectRepository.hasMember(projectId, userEmail)) {
+            throw new UnauthorizedOperationException("User not authorized to view fields of this project");
+        }
+        return definitionRepository.findByProjectIdOrderByIdAsc(projectId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deleteField(Long projectId, Long fieldId, String userEmail) {
+        Project project = loadProject(projectId);
+        requireManager(project, findUser(userEmail), "User not authorized to delete fields in this project");
+        CustomFieldDefinition field = definitionRepository.findByIdAndProjectId(fieldId, projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("CustomField", "id", fieldId));
+
+        valueRepository.deleteByFieldId(fieldId);
+        definitionRepository.delete(field);
+    }
+
+    /**
+     * Sets or clears (null value) the given fields of a task and returns all of its values.
+     */
+    @Transactional
+    public Map<String, Object> setValues(Long taskId, TaskCustomFieldValuesRequest request, String userEmail) {
+        User currentUser = findUser(userEmail);
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        boolean canUpdate = task.getProject().getCreatedBy().getId().equals(currentUser.getId())
+                || (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(currentUser.getId()));
+        if (!canUpdate) {
+            throw new UnauthorizedOperationException("User not authorized to update this task");
+        }
+
+        Map<Long, CustomFieldDefinition> fields = definitionRepository.findAllById(request.getValues().keySet()).stream()
+                .collect(Collectors.toMap(CustomFieldDefinition::getId, Function.identity()));
+        Map<Long, TaskCustomFieldValue> existing = valueRepository.findByTaskId(taskId).stream()
+                .collect(Collectors.toMap(value -> value.getField().getId(), Function.identity()));
+
+        request.getValues().forEach((fieldId, text) -> {
+            CustomFieldDefinition field = fields.get(fieldId);
+            if (field == null || !field.getProject().getId().equals(task.getProject().getId())) {
+                throw new ResourceNotFoundException("CustomField", "id", fieldId);
+            }
+            TaskCustomFieldValue value = existing.get(fieldId);
+            if (text == null) {
+                if (value != null) {
+                    valueRepository.delete(value);
+                }
+                return;
+            }
+            if (value == null) {
+                value = TaskCustomFieldValue.builder().task(task).field(field).build();
+            }
+            assign(value, field.getType(), parseValue(field.getType(), text));
+            valueRepository.save(value);
+        });
+
+        projectEventPublisher.updated(task.getProject().getId(), ProjectChangeEvent.Entity.TASK, taskId, List.of("customFields"));
+        valueRepository.flush();
+        return getValues(List.of(taskId)).getOrDefault(taskId, Map.of());
+    }
+
+    // Field name to value for each of the tasks, loaded with one query
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, Object>> getValues(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+        return groupByTask(valueRepository.findValueRowsByTaskIdIn(taskIds));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, Object>> getValuesForProject(Long projectId) {
+        return groupByTask(valueRepository.findValueRowsByProjectId(projectId));
+    }
+
+    /**
+     * Builds a specification from filters of the form {@code fieldId:op:value}, with op one of
+     * eq, lt, lte, gt or gte, e.g. {@code 12:gte:3} or {@code 7:eq:backend}. All filters must match.
+     */
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public Specification<Task> filterSpecification(Collection<String> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return null;
+        }
+        List<String[]> parsed = filters.stream()
+                .map(filter -> {
+                    String[] parts = filter.split(":", 3);
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException("Invalid field filter '" + filter + "', expected fieldId:op:value");
+                    }
+                    return parts;
+                })
+                .collect(Collectors.toList());
+        Set<Long> fieldIds = parsed.stream().map(parts -> parseFieldId(parts[0])).collect(Collectors.toSet());
+        Map<Long, CustomFieldDefinition> fields = definitionRepository.findAllById(fieldIds).stream()
+                .collect(Collectors.toMap(CustomFieldDefinition::getId, Function.identity()));
+
+        Specification<Task> spec = null;
+        for (String[] parts : parsed) {
+            CustomFieldDefinition field = fields.get(parseFieldId(parts[0]));
+            if (field == null) {
+                throw new ResourceNotFoundException("CustomField", "id", parts[0]);
+            }
+            TaskSpecifications.Comparison comparison;
+            try {
+                comparison = TaskSpecifications.Comparison.valueOf(parts[1].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field filter operator: " + parts[1]);
+            }
+            if (field.getType() == CustomFieldType.BOOLEAN && comparison != TaskSpecifications.Comparison.EQ) {
+                throw new IllegalArgumentException("Boolean fields can only be filtered with eq");
+            }
+            Specification<Task> filter = TaskSpecifications.customField(field.getId(),
+                    field.getType().getValueAttribute(), comparison, parseValue(field.getType(), parts[2]));
+            spec = spec == null ? Specification.where(filter) : spec.and(filter);
+        }
+        return spec;
+    }
+
+    /**
+     * Orders by the field's value; {@code afterValue} is the text form of the last value of the
+     * previous page, or null for the first page.
+     */
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public Specification<Task> sortSpecification(Long fieldId, Sort.Direction direction, String afterValue, Long afterId) {
+        CustomFieldDefinition field = definitionRepository.findById(fieldId)
+                .orElseThrow(() -> new ResourceNotFoundException("CustomField", "id", fieldId));
+        return TaskSpecifications.orderByCustomField(fieldId, field.getType().getValueAttribute(), direction,
+                afterValue != null ? parseValue(field.getType(), afterValue) : null, afterId);
+    }
+
+    // Text form of a task's value of the field, as accepted by filters and sort cursors
+    @Transactional(readOnly = true)
+    public String valueAsText(Long taskId, Long fieldId) {
+        return valueRepository.findByTaskId(taskId).stream()
+                .filter(value -> value.getField().getId().equals(fieldId))
+                .map(value -> toText(readValue(value)))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Raw, because the values of one field share its type and are only compared with each other
+    @SuppressWarnings("rawtypes")
+    static Comparable parseValue(CustomFieldType type, String text) {
+        try {
+            return switch (type) {
+                case TEXT -> {
+                    if (text.length() > 255) {
+                        throw new IllegalArgumentException("Text field values cannot exceed 255 characters");
+                    }
+                    yield text;
+                }
+                case NUMBER -> new BigDecimal(text.trim());
+                case DATE -> LocalDate.parse(text.trim());
+                case BOOLEAN -> {
+                    if (!text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+                        throw new IllegalArgumentException("Boolean field values must be true or false");
+                    }
+                    yield Boolean.valueOf(text);
+                }
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + type + " field value: " + text);
+        }
+    }
+
+    private static void assign(TaskCustomFieldValue value, CustomFieldType type, Object parsed) {
+        value.setTextValue(type == CustomFieldType.TEXT ? (String) parsed : null);
+        value.setNumberValue(type == CustomFieldType.NUMBER ? (BigDecimal) parsed : null);
+        value.setDateValue(type == CustomFieldType.DATE ? (LocalDate) parsed : null);
+        value.setBooleanValue(type == CustomFieldType.BOOLEAN ? (Boolean) parsed : null);
+    }
+
+    private static Object readValue(TaskCustomFieldValue value) {
+        return switch (value.getField().getType()) {
+            case TEXT -> value.getTextValue();
+            case NUMBER -> value.getNumberValue();
+            case DATE -> value.getDateValue();
+            case BOOLEAN -> value.getBooleanValue();
+        };
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof BigDecimal number) {
+            return number.toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    // Rows are (taskId, fieldName, fieldType, textValue, numberValue, dateValue, booleanValue)
+    private Map<Long, Map<String, Object>> groupByTask(List<Object[]> rows) {
+        Map<Long, Map<String, Object>> values = new HashMap<>();
+        for (Object[] row : rows) {
+            Object value = switch ((CustomFieldType) row[2]) {
+                case TEXT -> row[3];
+                case NUMBER -> row[4];
+                case DATE -> row[5];
+                case BOOLEAN -> row[6];
+            };
+            values.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>()).put((String) row[1], value);
+        }
+        return values;
+    }
+
+    private Long parseFieldId(String text) {
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid field id: " + text);
+        }
+    }
+
+    private Project loadProject(Long projectId) {
+        return projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+    }
+
+    private User findUser(String userEmail) {
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+    }
+
+    private void requireManager(Project project, User user, String message) {
+        boolean manager = project.getCreatedBy().getId().equals(user.getId())
+                || projectUserRepository.findByProjectIdAndUserId(project.getId(), user.getId())
+                        .map(pu -> pu.getRole() == ProjectRole.OWNER || pu.getRole() == ProjectRole.MANAGER)
+                        .orElse(false);
+        if (!manager) {
+            throw new UnauthorizedOperationException(message);
+        }
+    }
+
+    private CustomFieldDefinitionResponse convertToResponse(CustomFieldDefinition field) {
+        return CustomFieldDefinitionResponse.builder()
+                .id(field.getId())
+                .projectId(field.getProject().getId())
+                .name(field.getName())
+                .type(field.getType())
+                .build();
+    }
+}
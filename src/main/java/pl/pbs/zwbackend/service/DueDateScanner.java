@@ -0,0 +1,224 @@
+package pl.pbs.zwbackend.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.dto.DueTaskRow;
+import pl.pbs.zwbackend.dto.NotificationResponse;
+import pl.pbs.zwbackend.model.JobWatermark;
+import pl.pbs.zwbackend.model.Notification;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.JobWatermarkRepository;
+import pl.pbs.zwbackend.repository.NotificationRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Notifies assignees when their open tasks become due soon or overdue. Both thresholds move with
+ * the calendar, so each keeps a high-water mark of the last due date it has handled and a run only
+ * reads tasks whose due date lies between the previous and the current threshold, using the
+ * (status, due_date) index. Running several times a day touches no rows until the date changes.
+ * A due date set inside a window a run has already passed is handled by {@link #dueDatesChanged}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DueDateScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueDateScanner.class);
+
+    static final String DUE_SOON_WATERMARK = "task-due-soon";
+    static final String OVERDUE_WATERMARK = "task-overdue";
+    private static final int BATCH_SIZE = 500;
+    private static final Set<TaskStatus> OPEN_STATUSES = EnumSet.complementOf(EnumSet.of(TaskStatus.COMPLETED));
+
+    private final TaskRepository taskRepository;
+    private final NotificationRepository notificationRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${app.tasks.due-soon-days:2}")
+    private int dueSoonDays;
+
+    @Value("${app.tasks.overdue-catch-up-days:7}")
+    private int overdueCatchUpDays;
+
+    @Scheduled(fixedDelayString = "${app.tasks.due-date-scan-delay-ms:300000}")
+    public void scanDueDates() {
+        LocalDate today = LocalDate.now();
+        try {
+            List<PendingPush> pushes = transactionTemplate.execute(tx -> {
+                List<PendingPush> created = new ArrayList<>();
+                // Tasks due before today are overdue; after a long pause only the last few days catch up
+                created.addAll(scan(OVERDUE_WATERMARK, initialOverdueWatermark(today),
+                        today.minusDays(overdueCatchUpDays + 1L), today.minusDays(1), DueDateScanner::overdueMessage));
+                // Tasks due from today up to dueSoonDays ahead are due soon; past dates belong to the overdue scan
+                created.addAll(scan(DUE_SOON_WATERMARK, initialDueSoonWatermark(today), today.minusDays(1),
+                        today.plusDays(dueSoonDays), DueDateScanner::dueSoonMessage));
+                return created;
+            });
+            // Push only after the notifications are committed
+            if (pushes != null) {
+                pushes.forEach(push -> notificationService.sendToUser(push.userEmail(), push.notification()));
+            }
+        } catch (Exception e) {
+            logger.warn("Due date scan failed, it will be retried on the next run", e);
+        }
+    }
+
+    /**
+     * Creates notifications for tasks whose due date lies in (watermark, upTo] and advances the
+     * watermark to upTo. {@code initialWatermark} is used on the first run, as if the previous run
+     * happened yesterday, so existing overdue tasks do not all notify at once. A non-null
+     * {@code minimumWatermark} skips dates that are no longer relevant after a long pause.
+     */
+    private List<PendingPush> scan(String watermarkName, LocalDate initialWatermark, LocalDate minimumWatermark,
+                                   LocalDate upTo, Function<DueTaskRow, String> message) {
+        JobWatermark watermark = jobWatermarkRepository.findForUpdate(watermarkName)
+                .orElseGet(() -> jobWatermarkRepository.save(JobWatermark.builder()
+                        .name(watermarkName)
+                        .watermark(initialWatermark)
+                        .build()));
+        LocalDate after = watermark.getWatermark();
+        if (minimumWatermark != null && after.isBefore(minimumWatermark)) {
+            after = minimumWatermark;
+        }
+        if (!upTo.isAfter(after)) {
+            return List.of();
+        }
+
+        List<PendingPush> pushes = new ArrayList<>();
+        Long afterId = 0L;
+        List<DueTaskRow> rows;
+        do {
+            rows = taskRepository.findDueRows(OPEN_STATUSES, after, upTo, afterId, Limit.of(BATCH_SIZE));
+            List<Notification> notifications = new ArrayList<>(rows.size());
+            for (DueTaskRow row : rows) {
+                notifications.add(Notification.builder()
+                        .user(userRepository.getReferenceById(row.getAssigneeId()))
+                        .message(message.apply(row))
+                        .build());
+            }
+            // Sequence ids are pooled, so each chunk goes out as batched inserts
+            notificationRepository.saveAll(notifications);
+            notificationRepository.flush();
+            for (int i = 0; i < rows.size(); i++) {
+                DueTaskRow row = rows.get(i);
+                pushes.add(new PendingPush(row.getAssigneeEmail(),
+                        notificationService.convertToResponse(notifications.get(i), row.getId(), row.getProjectId())));
+            }
+            // Keep the persistence context small while walking large windows
+            entityManager.clear();
+            if (!rows.isEmpty()) {
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        watermark.setWatermark(upTo);
+        jobWatermarkRepository.save(watermark);
+        logger.info("Due date scan {} notified {} tasks due in ({}, {}]", watermarkName, pushes.size(), after, upTo);
+        return pushes;
+    }
+
+    /**
+     * Called in the transaction that creates tasks or changes their due dates. A scan never looks
+     * behind its watermark again, so an open, assigned task whose new due date is already covered
+     * is notified here instead. The watermarks are read with a shared lock: a scan running at the
+     * same time either commits first and its new watermark is seen here, or waits for this
+     * transaction and then reads the new due dates itself.
+     */
+    public void dueDatesChanged(Collection<Task> tasks) {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(dueSoonDays);
+        List<Task> candidates = tasks.stream()
+                .filter(task -> task.getDueDate() != null && !task.getDueDate().isAfter(horizon))
+                .filter(task -> task.getAssignedTo() != null && OPEN_STATUSES.contains(task.getStatus()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        LocalDate overdueUpTo = handledUpTo(OVERDUE_WATERMARK, initialOverdueWatermark(today));
+        LocalDate dueSoonUpTo = handledUpTo(DUE_SOON_WATERMARK, initialDueSoonWatermark(today));
+
+        List<DueTaskRow> rows = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (Task task : candidates) {
+            LocalDate dueDate = task.getDueDate();
+            boolean overdue = dueDate.isBefore(today);
+            // Dates past the watermark are still ahead of the scan
+            if (dueDate.isAfter(overdue ? overdueUpTo : dueSoonUpTo)) {
+                continue;
+            }
+            DueTaskRow row = DueTaskRow.builder()
+                    .id(task.getId())
+                    .name(task.getName())
+                    .dueDate(dueDate)
+                    .projectId(task.getProject().getId())
+                    .assigneeId(task.getAssignedTo().getId())
+                    .assigneeEmail(task.getAssignedTo().getEmail())
+                    .build();
+            rows.add(row);
+            notifications.add(Notification.builder()
+                    .user(task.getAssignedTo())
+                    .message(overdue ? overdueMessage(row) : dueSoonMessage(row))
+                    .build());
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+        notificationRepository.saveAll(notifications);
+        notificationRepository.flush();
+
+        List<NotificationService.UserNotification> pushes = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            DueTaskRow row = rows.get(i);
+            pushes.add(new NotificationService.UserNotification(row.getAssigneeEmail(),
+                    notificationService.convertToResponse(notifications.get(i), row.getId(), row.getProjectId())));
+        }
+        AfterCommit.run(() -> notificationService.sendToUsersAsync(pushes));
+    }
+
+    // Before the first run a scan starts from its initial watermark, so that is what it has covered
+    private LocalDate handledUpTo(String watermarkName, LocalDate initialWatermark) {
+        return jobWatermarkRepository.findForShare(watermarkName)
+                .map(JobWatermark::getWatermark)
+                .orElse(initialWatermark);
+    }
+
+    private LocalDate initialOverdueWatermark(LocalDate today) {
+        return today.minusDays(2);
+    }
+
+    private LocalDate initialDueSoonWatermark(LocalDate today) {
+        return today.plusDays(dueSoonDays - 1L);
+    }
+
+    private static String overdueMessage(DueTaskRow row) {
+        return "Task \"" + row.getName() + "\" is overdue (due " + row.getDueDate() + ")";
+    }
+
+    private static String dueSoonMessage(DueTaskRow row) {
+        return "Task \"" + row.getName() + "\" is due on " + row.getDueDate();
+    }
+
+    private record PendingPush(String userEmail, NotificationResponse notification) {
+    }
+}
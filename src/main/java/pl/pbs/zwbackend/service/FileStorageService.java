@@ -1,28 +1,50 @@
 package pl.pbs.zwbackend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 import pl.pbs.zwbackend.config.FileStorageProperties;
+import pl.pbs.zwbackend.exception.ConflictException;
 import pl.pbs.zwbackend.exception.FileStorageException;
+import pl.pbs.zwbackend.exception.PayloadTooLargeException;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.Objects;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
+    // Resumable uploads are assembled here, inside the storage root so finishing one is an atomic rename
+    private static final String PARTIAL_UPLOADS_DIRECTORY = ".partial";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String BLOBS_DIRECTORY = "blobs";
+    private static final Pattern BLOB_HASH = Pattern.compile("[0-9a-f]{64}");
+    // Blobs are spread over two levels of subdirectories named after the first four
+    // characters of their hash (blobs/ab/cd/abcd...), keeping every directory small
+    private static final int FAN_OUT_LEVELS = 2;
+    private static final int FAN_OUT_WIDTH = 2;
+
     private final Path baseFileStorageLocation;
+    // Directories are never removed by the application, so each one only has to be created once
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
 
     @Autowired
     public FileStorageService(FileStorageProperties fileStorageProperties) {
@@ -36,80 +58,282 @@ public class FileStorageService {
         }
     }
 
-    private Path getTargetLocation(String subDirectory, String fileName) {
-        Path subDirPath = this.baseFileStorageLocation.resolve(subDirectory).normalize();
+    public void createPartialUpload(String uploadId) {
         try {
-            Files.createDirectories(subDirPath);
+            ensureDirectory(partialUploadPath(uploadId).getParent());
+            Files.createFile(partialUploadPath(uploadId));
         } catch (IOException ex) {
-            throw new FileStorageException("Could not create the sub-directory: " + subDirectory, ex);
+            throw new FileStorageException("Could not create upload " + uploadId, ex);
         }
-        return subDirPath.resolve(fileName);
     }
 
-    public String storeFile(MultipartFile file, String subDirectory) {
-        String originalFileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        String extension = "";
-        int i = originalFileName.lastIndexOf('.');
-        if (i > 0) {
-            extension = originalFileName.substring(i);
+    /**
+     * Opens the partial file of a resumable upload under an exclusive file lock, so chunks of one
+     * upload are written one at a time, also by instances sharing the storage root, without a
+     * database lock held while they stream in. Fails with {@link ConflictException} when another
+     * chunk of the upload is being written.
+     */
+    public PartialUpload openPartialUpload(String uploadId) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(partialUploadPath(uploadId), StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new OverlappingFileLockException();
+            }
+            return new PartialUpload(uploadId, channel);
+        } catch (OverlappingFileLockException ex) {
+            closeQuietly(channel);
+            throw new ConflictException("Another chunk of upload " + uploadId + " is being written");
+        } catch (IOException ex) {
+            closeQuietly(channel);
+            throw new FileStorageException("Could not open upload " + uploadId, ex);
         }
-        String storedFileName = UUID.randomUUID().toString() + extension;
+    }
 
+    /**
+     * Writes a chunk of a resumable upload at the given offset and returns the number of bytes
+     * written. Anything after the offset is discarded first, so a chunk that failed half-way is
+     * simply overwritten when it is sent again. The bytes are fed to {@code digest} when it is
+     * not null.
+     */
+    public long writeChunk(PartialUpload partialUpload, long offset, InputStream inputStream, long maxBytes, MessageDigest digest) {
+        String uploadId = partialUpload.uploadId();
+        FileChannel channel = partialUpload.channel();
         try {
-            if (storedFileName.contains("..")) {
-                throw new FileStorageException("Sorry! Filename contains invalid path sequence " + storedFileName);
+            if (channel.size() < offset) {
+                throw new FileStorageException("Upload " + uploadId + " is shorter than offset " + offset);
             }
+            channel.truncate(offset);
+            channel.position(offset);
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long written = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                written += read;
+                if (written > maxBytes) {
+                    channel.truncate(offset);
+                    throw new PayloadTooLargeException("Chunk exceeds the remaining " + maxBytes + " bytes of the upload");
+                }
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+            return written;
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not write to upload " + uploadId, ex);
+        }
+    }
 
-            Path targetLocation = getTargetLocation(subDirectory, storedFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    // The locked partial file of an upload, closing it releases the lock
+    public record PartialUpload(String uploadId, FileChannel channel) implements AutoCloseable {
 
-            return storedFileName;
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not close upload " + uploadId, ex);
+            }
+        }
+    }
+
+    public long partialUploadSize(String uploadId) {
+        try {
+            return Files.size(partialUploadPath(uploadId));
         } catch (IOException ex) {
-            throw new FileStorageException("Could not store file " + storedFileName + ". Please try again!", ex);
+            throw new FileStorageException("Upload " + uploadId + " not found", ex);
         }
     }
 
-    public String storeFile(InputStream inputStream, String originalFileNameForExtension, String subDirectory) {
-        String extension = "";
-        int i = originalFileNameForExtension.lastIndexOf('.');
-        if (i > 0) {
-            extension = originalFileNameForExtension.substring(i);
+    public void deletePartialUpload(String uploadId) {
+        try {
+            Files.deleteIfExists(partialUploadPath(uploadId));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete upload " + uploadId, ex);
         }
-        String storedFileName = UUID.randomUUID().toString() + extension;
+    }
 
+    public Path partialUploadPath(String uploadId) {
+        return this.baseFileStorageLocation.resolve(PARTIAL_UPLOADS_DIRECTORY).resolve(uploadId + ".part");
+    }
+
+    /**
+     * Streams the input into a new temporary file in the storage root, feeding every byte to
+     * {@code digest}, and returns its path. The caller moves it with {@link #moveToBlob} or
+     * deletes it with {@link #deleteTempFile}.
+     */
+    public Path writeTempFile(InputStream inputStream, MessageDigest digest) {
+        Path tempFile = partialUploadPath(UUID.randomUUID().toString());
+        try (InputStream in = new DigestInputStream(inputStream, digest)) {
+            ensureDirectory(tempFile.getParent());
+            Files.copy(in, tempFile);
+            return tempFile;
+        } catch (IOException ex) {
+            deleteQuietly(tempFile);
+            throw new FileStorageException("Could not store file. Please try again!", ex);
+        } catch (RuntimeException ex) {
+            // e.g. a size limit enforced by the input stream
+            deleteQuietly(tempFile);
+            throw ex;
+        }
+    }
+
+    public void deleteTempFile(Path tempFile) {
+        deleteQuietly(tempFile);
+    }
+
+    /**
+     * Makes {@code source} the content of blob {@code hash}. When the blob is already on disk the
+     * source is a duplicate and is deleted instead.
+     */
+    public void moveToBlob(Path source, String hash) {
+        Path target = blobLocation(hash);
         try {
-            if (storedFileName.contains("..")) {
-                throw new FileStorageException("Sorry! Filename contains invalid path sequence " + storedFileName);
+            if (Files.exists(target) || Files.exists(flatBlobLocation(hash))) {
+                Files.delete(source);
+                return;
             }
-            Path targetLocation = getTargetLocation(subDirectory, storedFileName);
-            Files.copy(inputStream, targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            inputStream.close();
-            return storedFileName;
+            ensureDirectory(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException ex) {
-            throw new FileStorageException("Could not store file " + storedFileName + ". Please try again!", ex);
+            deleteQuietly(source);
+            throw new FileStorageException("Could not store blob " + hash + ". Please try again!", ex);
+        }
+    }
+
+    public Path loadBlobPath(String hash) {
+        Path blob = blobLocation(hash);
+        if (Files.isRegularFile(blob)) {
+            return blob;
         }
+        Path flatBlob = flatBlobLocation(hash);
+        if (Files.isRegularFile(flatBlob)) {
+            return flatBlob;
+        }
+        // The migration may have moved it between the two checks
+        if (Files.isRegularFile(blob)) {
+            return blob;
+        }
+        throw new FileStorageException("Blob not found " + hash);
     }
 
-    public Resource loadFileAsResource(String fileName, String subDirectory) {
+    public void deleteBlob(String hash) {
         try {
-            Path filePath = this.baseFileStorageLocation.resolve(subDirectory).resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new FileStorageException("File not found " + fileName + " in " + subDirectory);
+            Files.deleteIfExists(blobLocation(hash));
+            Files.deleteIfExists(flatBlobLocation(hash));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete blob " + hash, ex);
+        }
+    }
+
+    // Public name of a stored object; the extension is kept so clients can tell the type from the URL
+    public String newStoredFileName(String originalFileName) {
+        String extension = originalFileName != null ? extension(StringUtils.cleanPath(originalFileName)) : "";
+        String storedFileName = UUID.randomUUID().toString() + extension;
+        if (storedFileName.contains("..") || storedFileName.contains("/")) {
+            throw new FileStorageException("Sorry! Filename contains invalid path sequence " + storedFileName);
+        }
+        return storedFileName;
+    }
+
+    /**
+     * Calls {@code action} for every blob that still lies directly in the blob directory although
+     * it belongs in a fan-out subdirectory. The directory is streamed rather than listed, so this
+     * works for any number of entries.
+     */
+    public void forEachUnmigratedBlob(Consumer<Path> action) {
+        Path dirPath = this.baseFileStorageLocation.resolve(BLOBS_DIRECTORY);
+        if (!Files.isDirectory(dirPath)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dirPath,
+                entry -> BLOB_HASH.matcher(entry.getFileName().toString()).matches() && Files.isRegularFile(entry))) {
+            entries.forEach(action);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list " + BLOBS_DIRECTORY, ex);
+        }
+    }
+
+    /**
+     * Moves a file of the flat layout to its fan-out location and returns whether it was moved.
+     * Names are content hashes, so a file already at the target has the same content and the
+     * flat copy is just deleted.
+     */
+    public boolean moveToFanOut(Path flatFile) {
+        Path target = fanOut(flatFile.getParent(), flatFile.getFileName().toString());
+        try {
+            if (Files.exists(target)) {
+                Files.deleteIfExists(flatFile);
+                return false;
             }
-        } catch (MalformedURLException ex) {
-            throw new FileStorageException("File not found " + fileName + " in " + subDirectory, ex);
+            ensureDirectory(target.getParent());
+            Files.move(flatFile, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException ex) {
+            // Deleted since it was listed
+            return false;
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not move " + flatFile.getFileName() + " to the fan-out layout", ex);
+        }
+    }
+
+    private Path blobLocation(String hash) {
+        return fanOut(flatBlobLocation(hash).getParent(), hash);
+    }
+
+    private Path flatBlobLocation(String hash) {
+        if (!BLOB_HASH.matcher(hash).matches()) {
+            throw new FileStorageException("Invalid blob hash " + hash);
         }
+        return this.baseFileStorageLocation.resolve(BLOBS_DIRECTORY).resolve(hash);
     }
 
-    public void deleteFile(String fileName, String subDirectory) {
+    private static Path fanOut(Path directory, String hash) {
+        Path path = directory;
+        for (int level = 0; level < FAN_OUT_LEVELS; level++) {
+            path = path.resolve(hash.substring(level * FAN_OUT_WIDTH, (level + 1) * FAN_OUT_WIDTH));
+        }
+        return path.resolve(hash);
+    }
+
+    private void ensureDirectory(Path directory) {
+        if (knownDirectories.contains(directory)) {
+            return;
+        }
         try {
-            Path filePath = this.baseFileStorageLocation.resolve(subDirectory).resolve(fileName).normalize();
-            Files.deleteIfExists(filePath);
+            Files.createDirectories(directory);
         } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file " + fileName + " from " + subDirectory + ". Please try again!", ex);
+            throw new FileStorageException("Could not create the directory: " + this.baseFileStorageLocation.relativize(directory), ex);
+        }
+        knownDirectories.add(directory);
+    }
+
+    private static String extension(String originalFileName) {
+        int i = originalFileName.lastIndexOf('.');
+        return i > 0 ? originalFileName.substring(i) : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Leftover temporary files are harmless
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing was written through it
         }
     }
 }
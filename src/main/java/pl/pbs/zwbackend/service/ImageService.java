@@ -1,14 +1,12 @@
 package pl.pbs.zwbackend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pl.pbs.zwbackend.dto.ImagePreflightRequest;
+import pl.pbs.zwbackend.dto.ImagePreflightResponse;
 import pl.pbs.zwbackend.dto.ImageResponse;
 import pl.pbs.zwbackend.dto.UserSummaryResponse;
 import pl.pbs.zwbackend.exception.ResourceNotFoundException;
@@ -19,8 +17,12 @@ import pl.pbs.zwbackend.model.User;
 import pl.pbs.zwbackend.repository.ImageRepository;
 import pl.pbs.zwbackend.repository.ProjectRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.RangeDownload;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +33,7 @@ public class ImageService {
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
     private final FileStorageService fileStorageService;
+    private final BlobStorageService blobStorageService;
     private final UserService userService;
 
     @Transactional
@@ -45,13 +48,14 @@ public class ImageService {
                     .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
         }
 
-        String storedFileName = fileStorageService.storeFile(file, subDirectory);
+        BlobStorageService.StoredBlob blob = blobStorageService.store(file);
 
         Image image = Image.builder()
                 .originalFileName(file.getOriginalFilename())
-                .storedFileName(storedFileName)
+                .storedFileName(fileStorageService.newStoredFileName(file.getOriginalFilename()))
+                .blobHash(blob.hash())
                 .contentType(file.getContentType())
-                .size(file.getSize())
+                .size(blob.size())
                 .subDirectory(subDirectory)
                 .uploadedBy(currentUser)
                 .project(project)
@@ -62,15 +66,52 @@ public class ImageService {
         return convertToResponse(savedImage);
     }
 
-    public ResponseEntity<Resource> serveImage(String subDirectory, String storedFileName) {
-        Resource resource = fileStorageService.loadFileAsResource(storedFileName, subDirectory);
+    /**
+     * Creates the image without an upload when content with this SHA-256 and size is already
+     * stored and the caller may reference it; otherwise the client has to upload it as usual.
+     */
+    @Transactional
+    public ImagePreflightResponse preflight(ImagePreflightRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        Project project = null;
+        if (request.getProjectId() != null) {
+            project = projectRepository.findById(request.getProjectId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Project", "id", request.getProjectId()));
+        }
+
+        String hash = request.getSha256().toLowerCase(Locale.ROOT);
+        Optional<BlobStorageService.StoredBlob> blob = blobStorageService.retain(hash, request.getFileSize(), currentUser);
+        if (blob.isEmpty()) {
+            return ImagePreflightResponse.builder().uploadRequired(true).build();
+        }
+
+        Image image = Image.builder()
+                .originalFileName(request.getFileName())
+                .storedFileName(fileStorageService.newStoredFileName(request.getFileName()))
+                .blobHash(blob.get().hash())
+                .contentType(request.getContentType() != null ? request.getContentType() : "application/octet-stream")
+                .size(blob.get().size())
+                .subDirectory(request.getSubDirectory())
+                .uploadedBy(currentUser)
+                .project(project)
+                .description(request.getDescription())
+                .build();
+
+        return ImagePreflightResponse.builder()
+                .image(convertToResponse(imageRepository.save(image)))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public RangeDownload serveImage(String subDirectory, String storedFileName) {
         Image image = imageRepository.findByStoredFileNameAndSubDirectory(storedFileName, subDirectory)
                 .orElseThrow(() -> new ResourceNotFoundException("Image", "storedFileName/subDirectory", storedFileName + "/" + subDirectory));
+        Path path = blobStorageService.path(image.getBlobHash());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(image.getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + image.getOriginalFileName() + "\"")
-                .body(resource);
+        return new RangeDownload(path, image.getContentType(), image.getOriginalFileName(), true,
+                BlobStorageService.eTag(image.getBlobHash()));
     }
 
     @Transactional(readOnly = true)
@@ -94,7 +135,7 @@ public class ImageService {
             throw new UnauthorizedOperationException("User not authorized to delete this image");
         }
 
-        fileStorageService.deleteFile(image.getStoredFileName(), image.getSubDirectory());
+        blobStorageService.release(image.getBlobHash());
         imageRepository.delete(image);
     }
     
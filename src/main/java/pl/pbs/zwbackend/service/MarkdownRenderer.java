@@ -0,0 +1,74 @@
+package pl.pbs.zwbackend.service;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.DefaultUrlSanitizer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders user-written Markdown to HTML that is safe to insert into a page: raw HTML in the source
+ * is escaped rather than passed through and link and image URLs are limited to http, https and
+ * mailto (the default sanitizer would also let {@code data:} URLs through).
+ * <p>
+ * Results are kept in a bounded LRU cache keyed by the SHA-256 of the source, so re-saving
+ * unchanged text or posting the same text again costs a hash instead of a render. Callers render
+ * when text is written and store the HTML next to it, so listings never render.
+ */
+@Component
+public class MarkdownRenderer {
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .urlSanitizer(new DefaultUrlSanitizer(List.of("http", "https", "mailto")))
+            .build();
+
+    @Value("${app.markdown.cache-size:2000}")
+    private int cacheSize;
+
+    // Access-ordered, so the least recently used entry is evicted first
+    private final Map<String, String> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    public String render(String markdown) {
+        if (markdown == null) {
+            return null;
+        }
+        String key = sha256(markdown);
+        synchronized (cache) {
+            String html = cache.get(key);
+            if (html != null) {
+                return html;
+            }
+        }
+        // Rendering happens outside the lock; two threads may render the same text once each
+        String html = renderer.render(parser.parse(markdown));
+        synchronized (cache) {
+            cache.put(key, html);
+        }
+        return html;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.model.Notification;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.NotificationRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Notifies users mentioned as "@handle" in written text, where the handle is the part of the
+ * user's email before '@'. All handles of a text are resolved with one query, the notifications
+ * are inserted as one JDBC batch and pushed from the task executor after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class MentionService {
+
+    // A mention starts the text or follows a character that cannot be part of an email address
+    private static final Pattern MENTION = Pattern.compile("(?<![\\w.@+-])@([\\w.+-]{1,64})");
+    private static final int MAX_MENTIONS = 20;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final UserRepository userRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+
+    @Transactional
+    public void notifyProjectMentions(Long projectId, String content, User author, String message) {
+        Set<String> handles = parseHandles(content);
+        if (!handles.isEmpty()) {
+            notify(userRepository.findProjectMembersByHandleIn(projectId, handles), author, message, projectId);
+        }
+    }
+
+    // Chat is not bound to a project, so handles are resolved against all users
+    @Transactional
+    public void notifyMentions(String content, User author, String message) {
+        Set<String> handles = parseHandles(content);
+        if (!handles.isEmpty()) {
+            notify(userRepository.findByHandleIn(handles), author, message, null);
+        }
+    }
+
+    // Distinct lower-case handles in order of appearance, at most MAX_MENTIONS of them
+    static Set<String> parseHandles(String content) {
+        Set<String> handles = new LinkedHashSet<>();
+        if (content == null) {
+            return handles;
+        }
+        Matcher matcher = MENTION.matcher(content);
+        while (matcher.find() && handles.size() < MAX_MENTIONS) {
+            // Sentence punctuation right after a handle is not part of it
+            String handle = matcher.group(1).replaceAll("[.+-]+$", "");
+            if (!handle.isEmpty()) {
+                handles.add(handle.toLowerCase(Locale.ROOT));
+            }
+        }
+        return handles;
+    }
+
+    private void notify(List<User> recipients, User author, String message, Long projectId) {
+        String text = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        List<Notification> notifications = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (User recipient : recipients) {
+            if (recipient.getId().equals(author.getId())) {
+                continue;
+            }
+            notifications.add(Notification.builder()
+                    .user(recipient)
+                    .message(text)
+                    .build());
+            emails.add(recipient.getEmail());
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+        // Sequence ids are pooled, so the rows go out as one batched insert
+        notificationRepository.saveAll(notifications);
+        notificationRepository.flush();
+
+        List<NotificationService.UserNotification> pushes = new ArrayList<>(notifications.size());
+        for (int i = 0; i < notifications.size(); i++) {
+            pushes.add(new NotificationService.UserNotification(emails.get(i),
+                    notificationService.convertToResponse(notifications.get(i), null, projectId)));
+        }
+        AfterCommit.run(() -> notificationService.sendToUsersAsync(pushes));
+    }
+}
@@ -0,0 +1,53 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import pl.pbs.zwbackend.dto.NotificationResponse;
+import pl.pbs.zwbackend.model.Notification;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    // Clients subscribe to /user/queue/notifications; users without an open session simply miss the push
+    public static final String USER_QUEUE = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void sendToUser(String userEmail, NotificationResponse notification) {
+        try {
+            messagingTemplate.convertAndSendToUser(userEmail, USER_QUEUE, notification);
+        } catch (MessagingException e) {
+            logger.warn("Could not push notification {} to {}", notification.getId(), userEmail, e);
+        }
+    }
+
+    // Runs on the task executor, so a large fan-out does not hold up the thread that triggered it
+    @Async
+    public void sendToUsersAsync(List<UserNotification> notifications) {
+        notifications.forEach(push -> sendToUser(push.userEmail(), push.notification()));
+    }
+
+    public NotificationResponse convertToResponse(Notification notification, Long taskId, Long projectId) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .message(notification.getMessage())
+                .taskId(taskId)
+                .projectId(projectId)
+                .read(notification.isRead())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    public record UserNotification(String userEmail, NotificationResponse notification) {
+    }
+}
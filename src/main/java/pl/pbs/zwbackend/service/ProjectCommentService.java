@@ -1,8 +1,11 @@
 package pl.pbs.zwbackend.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
 import pl.pbs.zwbackend.dto.ProjectCommentRequest;
 import pl.pbs.zwbackend.dto.ProjectCommentResponse;
 import pl.pbs.zwbackend.dto.UserSummaryResponse;
@@ -10,25 +13,43 @@ import pl.pbs.zwbackend.exception.ResourceNotFoundException;
 import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
 import pl.pbs.zwbackend.model.Project;
 import pl.pbs.zwbackend.model.ProjectComment;
+import pl.pbs.zwbackend.model.ProjectUser;
 import pl.pbs.zwbackend.model.User;
 import pl.pbs.zwbackend.model.enums.ProjectRole;
 import pl.pbs.zwbackend.repository.ProjectCommentRepository;
 import pl.pbs.zwbackend.repository.ProjectRepository;
 import pl.pbs.zwbackend.repository.ProjectUserRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.KeysetCursor;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProjectCommentService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    // Direct replies inlined under each top-level comment of a page
+    public static final int INLINE_REPLIES = 3;
+    // Deepest reply level; keeps the stored path well within its column
+    private static final int MAX_REPLY_DEPTH = 8;
+
     private final ProjectCommentRepository projectCommentRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final ProjectUserRepository projectUserRepository;
     private final UserService userService;
+    private final ProjectEventPublisher projectEventPublisher;
+    private final MentionService mentionService;
+    private final MarkdownRenderer markdownRenderer;
 
     @Transactional
     public ProjectCommentResponse addComment(Long projectId, ProjectCommentRequest request, String userEmail) {
@@ -39,22 +60,50 @@ public class ProjectCommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
 
         // Check if user has access to the project
-        if (!hasProjectAccess(project, currentUser)) {
+        Viewer viewer = resolveViewer(project, currentUser);
+        if (!viewer.hasAccess()) {
             throw new UnauthorizedOperationException("User not authorized to comment on this project");
         }
 
+        ProjectComment parent = null;
+        if (request.getParentId() != null) {
+            parent = projectCommentRepository.findByIdAndProjectId(request.getParentId(), projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("ProjectComment", "id", request.getParentId()));
+            if (parent.getDepth() + 1 > MAX_REPLY_DEPTH) {
+                throw new IllegalArgumentException("Replies cannot be nested deeper than " + MAX_REPLY_DEPTH + " levels");
+            }
+        }
+
         ProjectComment comment = ProjectComment.builder()
                 .project(project)
                 .user(currentUser)
                 .content(request.getContent())
+                .contentHtml(markdownRenderer.render(request.getContent()))
+                .parent(parent)
+                .path(parent != null ? parent.getPath() + parent.getId() + "/" : "/")
+                .depth(parent != null ? parent.getDepth() + 1 : 0)
                 .build();
 
         ProjectComment savedComment = projectCommentRepository.save(comment);
-        return convertToResponse(savedComment, currentUser);
+        List<Long> ancestorIds = ancestorIds(savedComment);
+        if (!ancestorIds.isEmpty()) {
+            projectCommentRepository.adjustReplyCounts(ancestorIds, 1);
+        }
+        projectEventPublisher.created(projectId, ProjectChangeEvent.Entity.COMMENT, savedComment.getId());
+        mentionService.notifyProjectMentions(projectId, request.getContent(), currentUser,
+                currentUser.getFirstName() + " " + currentUser.getLastName()
+                        + " mentioned you in a comment on project \"" + project.getName() + "\"");
+        return convertToResponse(savedComment, userService.convertToUserSummaryResponse(currentUser), viewer);
     }
 
+    /**
+     * Newest top-level comments first, one keyset page at a time, each with its reply count and
+     * first direct replies. The viewer's role in the project is looked up once per page and the
+     * edit/delete flags of every comment are derived from it in memory.
+     */
     @Transactional(readOnly = true)
-    public List<ProjectCommentResponse> getProjectComments(Long projectId, String userEmail) {
+    public CursorPageResponse<ProjectCommentResponse> getProjectComments(Long projectId, String cursor, Integer size,
+                                                                         String userEmail) {
         User currentUser = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
 
@@ -62,14 +111,91 @@ public class ProjectCommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
 
         // Check if user has access to the project
-        if (!hasProjectAccess(project, currentUser)) {
+        Viewer viewer = resolveViewer(project, currentUser);
+        if (!viewer.hasAccess()) {
             throw new UnauthorizedOperationException("User not authorized to view comments for this project");
         }
 
-        return projectCommentRepository.findByProjectIdWithUser(projectId)
-                .stream()
-                .map(comment -> convertToResponse(comment, currentUser))
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<ProjectComment> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = projectCommentRepository.findFirstPageByProjectId(projectId, limit);
+        } else {
+            String[] parts = KeysetCursor.decode(cursor, 2);
+            try {
+                rows = projectCommentRepository.findPageByProjectIdBefore(projectId,
+                        LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]), limit);
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<ProjectComment> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        // First replies of every thread on the page with one id query and one fetch (authors included)
+        List<Long> threadIds = page.stream()
+                .filter(comment -> comment.getReplyCount() > 0)
+                .map(ProjectComment::getId)
+                .collect(Collectors.toList());
+        List<Long> replyIds = threadIds.isEmpty() ? List.of()
+                : projectCommentRepository.findFirstReplyIds(threadIds, INLINE_REPLIES);
+        List<ProjectComment> replies = replyIds.isEmpty() ? List.of()
+                : projectCommentRepository.findAllWithUserByIdIn(replyIds);
+
+        List<ProjectComment> all = new ArrayList<>(page);
+        all.addAll(replies);
+        Map<Long, ProjectCommentResponse> responses = convertToResponses(all, viewer);
+        for (ProjectComment reply : replies) {
+            ProjectCommentResponse thread = responses.get(reply.getParent().getId());
+            if (thread.getReplies() == null) {
+                thread.setReplies(new ArrayList<>());
+            }
+            thread.getReplies().add(responses.get(reply.getId()));
+        }
+        List<ProjectCommentResponse> items = page.stream()
+                .map(comment -> {
+                    ProjectCommentResponse response = responses.get(comment.getId());
+                    if (response.getReplies() == null) {
+                        response.setReplies(List.of());
+                    }
+                    return response;
+                })
                 .collect(Collectors.toList());
+
+        ProjectComment last = hasMore ? page.get(page.size() - 1) : null;
+        return CursorPageResponse.<ProjectCommentResponse>builder()
+                .items(items)
+                .nextCursor(last != null ? KeysetCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * A comment followed by all replies below it, shallowest first, loaded with one range query
+     * on the stored path.
+     */
+    @Transactional(readOnly = true)
+    public List<ProjectCommentResponse> getThread(Long projectId, Long commentId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        ProjectComment comment = projectCommentRepository.findByIdAndProjectId(commentId, projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProjectComment", "id", commentId));
+
+        Viewer viewer = resolveViewer(comment.getProject(), currentUser);
+        if (!viewer.hasAccess()) {
+            throw new UnauthorizedOperationException("User not authorized to view this comment");
+        }
+
+        List<ProjectComment> thread = new ArrayList<>();
+        thread.add(comment);
+        if (comment.getReplyCount() > 0) {
+            thread.addAll(projectCommentRepository.findSubtree(projectId, comment.getPath() + comment.getId() + "/%"));
+        }
+        Map<Long, ProjectCommentResponse> responses = convertToResponses(thread, viewer);
+        return thread.stream().map(c -> responses.get(c.getId())).collect(Collectors.toList());
     }
 
     @Transactional
@@ -81,13 +207,16 @@ public class ProjectCommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("ProjectComment", "id", commentId));
 
         // Check if user can edit this comment (only comment author)
-        if (!canUserEditComment(comment, currentUser)) {
+        Viewer viewer = resolveViewer(comment.getProject(), currentUser);
+        if (!viewer.canEdit(comment)) {
             throw new UnauthorizedOperationException("User not authorized to edit this comment");
         }
 
         comment.setContent(request.getContent());
+        comment.setContentHtml(markdownRenderer.render(request.getContent()));
         ProjectComment updatedComment = projectCommentRepository.save(comment);
-        return convertToResponse(updatedComment, currentUser);
+        projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.COMMENT, commentId, List.of("content"));
+        return convertToResponse(updatedComment, userService.convertToUserSummaryResponse(currentUser), viewer);
     }
 
     @Transactional
@@ -99,11 +228,17 @@ public class ProjectCommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("ProjectComment", "id", commentId));
 
         // Check if user can delete this comment (comment author, project owner, or project manager)
-        if (!canUserDeleteComment(comment, currentUser)) {
+        if (!resolveViewer(comment.getProject(), currentUser).canDelete(comment)) {
             throw new UnauthorizedOperationException("User not authorized to delete this comment");
         }
 
+        // Replies are removed with the comment by the database, so the ancestors lose all of them
+        List<Long> ancestorIds = ancestorIds(comment);
+        if (!ancestorIds.isEmpty()) {
+            projectCommentRepository.adjustReplyCounts(ancestorIds, -(1 + comment.getReplyCount()));
+        }
         projectCommentRepository.delete(comment);
+        projectEventPublisher.deleted(projectId, ProjectChangeEvent.Entity.COMMENT, commentId);
     }
 
     @Transactional(readOnly = true)
@@ -115,57 +250,82 @@ public class ProjectCommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("ProjectComment", "id", commentId));
 
         // Check if user has access to the project
-        if (!hasProjectAccess(comment.getProject(), currentUser)) {
+        Viewer viewer = resolveViewer(comment.getProject(), currentUser);
+        if (!viewer.hasAccess()) {
             throw new UnauthorizedOperationException("User not authorized to view this comment");
         }
 
-        return convertToResponse(comment, currentUser);
+        return convertToResponse(comment, userService.convertToUserSummaryResponse(comment.getUser()), viewer);
     }
 
-    private boolean hasProjectAccess(Project project, User user) {
+    // Looks up everything the permission checks need about the viewer with at most one query
+    private Viewer resolveViewer(Project project, User user) {
         // Project owner can always access
         if (project.getCreatedBy().getId().equals(user.getId())) {
-            return true;
+            return new Viewer(user.getId(), true, null);
         }
-
-        // Check if user is assigned to the project
-        return projectUserRepository.existsByProjectIdAndUserId(project.getId(), user.getId());
+        ProjectRole role = projectUserRepository.findByProjectIdAndUserId(project.getId(), user.getId())
+                .map(ProjectUser::getRole)
+                .orElse(null);
+        return new Viewer(user.getId(), false, role);
     }
 
-    private boolean canUserEditComment(ProjectComment comment, User user) {
-        // Only the comment author can edit
-        return comment.getUser().getId().equals(user.getId());
+    private static List<Long> ancestorIds(ProjectComment comment) {
+        return Arrays.stream(comment.getPath().split("/"))
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
     }
 
-    private boolean canUserDeleteComment(ProjectComment comment, User user) {
-        // Comment author can delete
-        if (comment.getUser().getId().equals(user.getId())) {
-            return true;
+    // Responses keyed by comment id; the authors must already be fetched
+    private Map<Long, ProjectCommentResponse> convertToResponses(List<ProjectComment> comments, Viewer viewer) {
+        String avatarBaseUrl = comments.stream().anyMatch(comment -> comment.getUser().getAvatarFileName() != null)
+                ? userService.getAvatarBaseUrl() : null;
+        Map<Long, ProjectCommentResponse> responses = new LinkedHashMap<>();
+        for (ProjectComment comment : comments) {
+            User author = comment.getUser();
+            responses.put(comment.getId(), convertToResponse(comment, userService.convertToUserSummaryResponse(
+                    author.getId(), author.getFirstName(), author.getLastName(), author.getEmail(),
+                    author.getAvatarFileName(), avatarBaseUrl), viewer));
         }
-
-        // Project owner can delete
-        if (comment.getProject().getCreatedBy().getId().equals(user.getId())) {
-            return true;
-        }
-
-        // Project managers can delete
-        return projectUserRepository.findByProjectIdAndUserId(comment.getProject().getId(), user.getId())
-                .map(pu -> pu.getRole() == ProjectRole.MANAGER)
-                .orElse(false);
+        return responses;
     }
 
-    private ProjectCommentResponse convertToResponse(ProjectComment comment, User currentUser) {
-        UserSummaryResponse userSummary = userService.convertToUserSummaryResponse(comment.getUser());
-
+    private ProjectCommentResponse convertToResponse(ProjectComment comment, UserSummaryResponse author, Viewer viewer) {
         return ProjectCommentResponse.builder()
                 .id(comment.getId())
                 .content(comment.getContent())
-                .user(userSummary)
+                .contentHtml(comment.getContentHtml())
+                .user(author)
                 .projectId(comment.getProject().getId())
+                .parentId(comment.getParent() != null ? comment.getParent().getId() : null)
+                .depth(comment.getDepth())
+                .replyCount(comment.getReplyCount())
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
-                .canEdit(canUserEditComment(comment, currentUser))
-                .canDelete(canUserDeleteComment(comment, currentUser))
+                .canEdit(viewer.canEdit(comment))
+                .canDelete(viewer.canDelete(comment))
                 .build();
     }
+
+    /**
+     * The current user as seen by one project: its owner, a member with the given role, or
+     * neither (null role).
+     */
+    private record Viewer(Long userId, boolean owner, ProjectRole role) {
+
+        boolean hasAccess() {
+            return owner || role != null;
+        }
+
+        // Only the comment author can edit
+        boolean canEdit(ProjectComment comment) {
+            return comment.getUser().getId().equals(userId);
+        }
+
+        // Comment author, project owner or project manager can delete
+        boolean canDelete(ProjectComment comment) {
+            return canEdit(comment) || owner || role == ProjectRole.MANAGER;
+        }
+    }
 }
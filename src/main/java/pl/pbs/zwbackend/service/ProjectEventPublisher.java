@@ -0,0 +1,60 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.util.List;
+
+/**
+ * Publishes change events to the project topic once the change has been committed, so
+ * subscribers never see changes that were rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectEventPublisher.class);
+
+    public static final String PROJECT_TOPIC_PREFIX = "/topic/projects/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void created(Long projectId, ProjectChangeEvent.Entity entity, Long id) {
+        publish(projectId, entity, id, ProjectChangeEvent.Operation.CREATED, null);
+    }
+
+    public void updated(Long projectId, ProjectChangeEvent.Entity entity, Long id, List<String> changedFields) {
+        if (changedFields.isEmpty()) {
+            return;
+        }
+        publish(projectId, entity, id, ProjectChangeEvent.Operation.UPDATED, changedFields);
+    }
+
+    public void deleted(Long projectId, ProjectChangeEvent.Entity entity, Long id) {
+        publish(projectId, entity, id, ProjectChangeEvent.Operation.DELETED, null);
+    }
+
+    private void publish(Long projectId, ProjectChangeEvent.Entity entity, Long id,
+                         ProjectChangeEvent.Operation op, List<String> changedFields) {
+        ProjectChangeEvent event = ProjectChangeEvent.builder()
+                .projectId(projectId)
+                .entity(entity)
+                .id(id)
+                .op(op)
+                .changedFields(changedFields)
+                .build();
+        AfterCommit.run(() -> {
+            try {
+                messagingTemplate.convertAndSend(PROJECT_TOPIC_PREFIX + projectId, event);
+            } catch (MessagingException e) {
+                logger.warn("Could not publish {} event for {} {} in project {}", op, entity, id, projectId, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,212 @@
+package pl.pbs.zwbackend.service;
+
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory bitmap index over the tasks of one project, with one bitmap per status, assignee
+ * and tag. Task ids are global and sparse, so every task gets a dense ordinal within the project
+ * and the bitmaps are {@link BitSet}s over those ordinals: one bit per task and value, and
+ * filters and facet counts are word-wise intersections. Ordinals of deleted tasks are reused only
+ * after a compaction, which runs once more than half of them are free.
+ * <p>
+ * Mutations are idempotent so they can be replayed safely. Instances are not thread-safe.
+ */
+final class ProjectFacetIndex {
+
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long[] taskIds = new long[64];
+    private int nextOrdinal;
+    private final BitSet live = new BitSet();
+    private final Map<TaskStatus, BitSet> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<Long, BitSet> byAssignee = new HashMap<>();
+    private final Map<String, BitSet> byTag = new HashMap<>();
+
+    void putTask(Long taskId, TaskStatus status, Long assigneeId) {
+        Entry entry = entries.get(taskId);
+        if (entry == null) {
+            entry = new Entry(ordinal(taskId));
+            entries.put(taskId, entry);
+            live.set(entry.ordinal);
+        }
+        if (entry.status != status) {
+            clear(byStatus, entry.status, entry.ordinal);
+            set(byStatus, status, entry.ordinal);
+            entry.status = status;
+        }
+        if (!Objects.equals(entry.assigneeId, assigneeId)) {
+            clear(byAssignee, entry.assigneeId, entry.ordinal);
+            set(byAssignee, assigneeId, entry.ordinal);
+            entry.assigneeId = assigneeId;
+        }
+    }
+
+    // Tags of unknown tasks are ignored; the task itself is always indexed first
+    void setTags(Long taskId, Set<String> tags) {
+        Entry entry = entries.get(taskId);
+        if (entry == null) {
+            return;
+        }
+        for (String tag : entry.tags) {
+            if (!tags.contains(tag)) {
+                clear(byTag, tag, entry.ordinal);
+            }
+        }
+        for (String tag : tags) {
+            if (!entry.tags.contains(tag)) {
+                set(byTag, tag, entry.ordinal);
+            }
+        }
+        entry.tags = Set.copyOf(tags);
+    }
+
+    void removeTask(Long taskId) {
+        Entry entry = entries.remove(taskId);
+        if (entry == null) {
+            return;
+        }
+        live.clear(entry.ordinal);
+        clear(byStatus, entry.status, entry.ordinal);
+        clear(byAssignee, entry.assigneeId, entry.ordinal);
+        entry.tags.forEach(tag -> clear(byTag, tag, entry.ordinal));
+        if (nextOrdinal >= MIN_COMPACTION_SIZE && entries.size() < nextOrdinal / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Counts and ids of the tasks matching every filter; values within one filter are alternatives.
+     * Each facet is counted with the filters of the other facets only, so selecting a value does
+     * not hide the counts of its alternatives. Empty or null filters match everything.
+     */
+    TaskFacetResponse facets(Collection<TaskStatus> statuses, Collection<Long> assigneeIds, Collection<String> tags) {
+        BitSet statusFilter = union(byStatus, statuses);
+        BitSet assigneeFilter = union(byAssignee, assigneeIds);
+        BitSet tagFilter = union(byTag, tags);
+
+        BitSet matching = intersect(statusFilter, assigneeFilter, tagFilter);
+        List<Long> ids = new ArrayList<>(matching.cardinality());
+        for (int ordinal = matching.nextSetBit(0); ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1)) {
+            ids.add(taskIds[ordinal]);
+        }
+        ids.sort(null);
+
+        Map<TaskStatus, Long> statusCounts = new EnumMap<>(TaskStatus.class);
+        count(byStatus, intersect(null, assigneeFilter, tagFilter)).forEach(statusCounts::put);
+        return TaskFacetResponse.builder()
+                .total(ids.size())
+                .taskIds(ids)
+                .statuses(statusCounts)
+                .assignees(count(byAssignee, intersect(statusFilter, null, tagFilter)))
+                .tags(count(byTag, intersect(statusFilter, assigneeFilter, null)))
+                .build();
+    }
+
+    private int ordinal(Long taskId) {
+        if (nextOrdinal == taskIds.length) {
+            taskIds = Arrays.copyOf(taskIds, taskIds.length * 2);
+        }
+        int ordinal = nextOrdinal++;
+        taskIds[ordinal] = taskId;
+        return ordinal;
+    }
+
+    // Reassigns ordinals densely and rebuilds the bitmaps from the entries
+    private void compact() {
+        List<Map.Entry<Long, Entry>> current = new ArrayList<>(entries.entrySet());
+        entries.clear();
+        live.clear();
+        byStatus.clear();
+        byAssignee.clear();
+        byTag.clear();
+        taskIds = new long[Math.max(64, current.size() * 2)];
+        nextOrdinal = 0;
+        for (Map.Entry<Long, Entry> task : current) {
+            putTask(task.getKey(), task.getValue().status, task.getValue().assigneeId);
+            setTags(task.getKey(), task.getValue().tags);
+        }
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    // Null when there is nothing to filter by
+    private static <K> BitSet union(Map<K, BitSet> bitmaps, Collection<K> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K value : values) {
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> count(Map<K, BitSet> bitmaps, BitSet base) {
+        Map<K, Long> counts = new TreeMap<>();
+        bitmaps.forEach((value, bitmap) -> {
+            BitSet matching = (BitSet) bitmap.clone();
+            matching.and(base);
+            int cardinality = matching.cardinality();
+            if (cardinality > 0) {
+                counts.put(value, (long) cardinality);
+            }
+        });
+        return counts;
+    }
+
+    // A null key (no status or no assignee) is not indexed
+    private static <K> void set(Map<K, BitSet> bitmaps, K key, int ordinal) {
+        if (key != null) {
+            bitmaps.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> bitmaps, K key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        BitSet bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final int ordinal;
+        private TaskStatus status;
+        private Long assigneeId;
+        private Set<String> tags = Set.of();
+
+        private Entry(int ordinal) {
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -2,17 +2,16 @@ package pl.pbs.zwbackend.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
 import pl.pbs.zwbackend.dto.ProjectFileResponse;
 import pl.pbs.zwbackend.dto.UserSummaryResponse;
+import pl.pbs.zwbackend.exception.PayloadTooLargeException;
 import pl.pbs.zwbackend.exception.ResourceNotFoundException;
 import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
 import pl.pbs.zwbackend.model.Project;
@@ -22,7 +21,11 @@ import pl.pbs.zwbackend.repository.ProjectFileRepository;
 import pl.pbs.zwbackend.repository.ProjectRepository;
 import pl.pbs.zwbackend.repository.ProjectUserRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.BoundedInputStream;
+import pl.pbs.zwbackend.util.RangeDownload;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -37,10 +40,10 @@ public class ProjectFileService {
     private final UserRepository userRepository;
     private final ProjectUserRepository projectUserRepository;
     private final FileStorageService fileStorageService;
+    private final BlobStorageService blobStorageService;
     private final UserService userService;
-
-    @Value("${file.project-files-subdir}")
-    private String projectFilesSubDirectory;
+    private final ProjectEventPublisher projectEventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${file.max-file-size-mb}")
     private Long maxFileSizeMB;
@@ -83,24 +86,68 @@ public class ProjectFileService {
         validateFile(file);
 
         // Store file
-        String storedFileName = fileStorageService.storeFile(file, projectFilesSubDirectory);
+        BlobStorageService.StoredBlob blob = blobStorageService.store(file);
+
+        return saveFile(project, currentUser, file.getOriginalFilename(), blob, file.getContentType(), description);
+    }
+
+    /**
+     * Stores a file sent as the raw request body. The body is hashed and written straight into
+     * the storage root as it arrives, so it is neither spooled by the multipart resolver nor
+     * copied again afterwards, and heap use does not depend on its size. Bodies without a
+     * {@code Content-Length} ({@code contentLength} -1) are cut off as soon as they exceed the
+     * size limit; a declared length over the limit is rejected before any of the body is read.
+     * No transaction is open while the body is received.
+     */
+    public ProjectFileResponse uploadFile(InputStream body, long contentLength, String fileName, String contentType,
+                                          Long projectId, String userEmail, String description) {
+        transactionTemplate.executeWithoutResult(tx -> requireUploadAccess(projectId, userEmail));
+        if (contentLength == 0) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        validateFile(fileName, Math.max(contentLength, 0));
+
+        BlobStorageService.StagedBlob staged = blobStorageService.stage(new BoundedInputStream(body,
+                maxFileSizeBytes(), "File size cannot exceed " + maxFileSizeMB + "MB"));
+        try {
+            if (staged.size() == 0) {
+                throw new IllegalArgumentException("File cannot be empty");
+            }
+            return transactionTemplate.execute(tx -> {
+                // Checked again, access may have been revoked while the body was arriving
+                Project project = requireUploadAccess(projectId, userEmail);
+                User currentUser = userRepository.findByEmail(userEmail)
+                        .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+                return saveFile(project, currentUser, fileName, blobStorageService.store(staged),
+                        contentType != null ? contentType : "application/octet-stream", description);
+            });
+        } catch (RuntimeException ex) {
+            blobStorageService.discard(staged);
+            throw ex;
+        }
+    }
 
-        // Create ProjectFile entity
+    // Creates the record of a file whose content is already in the blob store and holds a reference for it
+    ProjectFileResponse saveFile(Project project, User uploadedBy, String originalFileName,
+                                 BlobStorageService.StoredBlob blob, String contentType, String description) {
         ProjectFile projectFile = ProjectFile.builder()
-                .originalFileName(file.getOriginalFilename())
-                .storedFileName(storedFileName)
-                .contentType(file.getContentType())
-                .fileSize(file.getSize())
+                .originalFileName(originalFileName)
+                .storedFileName(fileStorageService.newStoredFileName(originalFileName))
+                .blobHash(blob.hash())
+                .contentType(contentType)
+                .fileSize(blob.size())
                 .description(description)
-                .uploadedBy(currentUser)
+                .uploadedBy(uploadedBy)
                 .project(project)
                 .build();
 
         ProjectFile savedFile = projectFileRepository.save(projectFile);
+        projectEventPublisher.created(project.getId(), ProjectChangeEvent.Entity.FILE, savedFile.getId());
         return convertToResponse(savedFile);
     }
 
-    public ResponseEntity<Resource> downloadFile(Long fileId, String userEmail) {
+    @Transactional(readOnly = true)
+    public RangeDownload downloadFile(Long fileId, String userEmail) {
         User currentUser = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
 
@@ -112,12 +159,9 @@ public class ProjectFileService {
             throw new UnauthorizedOperationException("User not authorized to download this file");
         }
 
-        Resource resource = fileStorageService.loadFileAsResource(projectFile.getStoredFileName(), projectFilesSubDirectory);
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(projectFile.getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + projectFile.getOriginalFileName() + "\"")
-                .body(resource);
+        Path path = blobStorageService.path(projectFile.getBlobHash());
+        return new RangeDownload(path, projectFile.getContentType(), projectFile.getOriginalFileName(), false,
+                BlobStorageService.eTag(projectFile.getBlobHash()));
     }
 
     @Transactional(readOnly = true)
@@ -167,11 +211,12 @@ public class ProjectFileService {
             throw new UnauthorizedOperationException("User not authorized to delete this file");
         }
 
-        // Delete physical file
-        fileStorageService.deleteFile(projectFile.getStoredFileName(), projectFilesSubDirectory);
+        // Drop the reference; the content is deleted when no other file uses it
+        blobStorageService.release(projectFile.getBlobHash());
 
         // Delete database record
         projectFileRepository.delete(projectFile);
+        projectEventPublisher.deleted(projectFile.getProject().getId(), ProjectChangeEvent.Entity.FILE, fileId);
     }
 
     @Transactional(readOnly = true)
@@ -188,15 +233,17 @@ public class ProjectFileService {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty");
         }
+        validateFile(Objects.requireNonNull(file.getOriginalFilename()), file.getSize());
+    }
 
-        // Check file size
-        long fileSizeInMB = file.getSize() / (1024 * 1024);
-        if (fileSizeInMB > maxFileSizeMB) {
-            throw new IllegalArgumentException("File size cannot exceed " + maxFileSizeMB + "MB");
+    void validateFile(String fileName, long fileSize) {
+        // Check file size, to the byte
+        if (fileSize > maxFileSizeBytes()) {
+            throw new PayloadTooLargeException("File size cannot exceed " + maxFileSizeMB + "MB");
         }
 
         // Check filename length
-        String originalFileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+        String originalFileName = StringUtils.cleanPath(fileName);
         if (originalFileName.length() > maxFileNameLength) {
             throw new IllegalArgumentException("Filename cannot exceed " + maxFileNameLength + " characters");
         }
@@ -226,7 +273,24 @@ public class ProjectFileService {
         return filename.substring(lastDotIndex + 1);
     }
 
-    private boolean hasProjectAccess(Project project, User user) {
+    private long maxFileSizeBytes() {
+        return maxFileSizeMB * 1024 * 1024;
+    }
+
+    private Project requireUploadAccess(Long projectId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+
+        if (!hasProjectAccess(project, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to upload files to this project");
+        }
+        return project;
+    }
+
+    boolean hasProjectAccess(Project project, User user) {
         // Project owner always has access
         if (project.getCreatedBy().getId().equals(user.getId())) {
             return true;
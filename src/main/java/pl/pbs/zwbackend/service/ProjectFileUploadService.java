@@ -0,0 +1,292 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightRequest;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightResponse;
+import pl.pbs.zwbackend.dto.ProjectFileResponse;
+import pl.pbs.zwbackend.dto.UploadSessionRequest;
+import pl.pbs.zwbackend.dto.UploadSessionResponse;
+import pl.pbs.zwbackend.exception.ChecksumMismatchException;
+import pl.pbs.zwbackend.exception.ConflictException;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.UploadSession;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.UploadSessionRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resumable uploads of project files. A client opens a session, sends the file in chunks that
+ * each name the offset they start at (and optionally their SHA-256), can ask for the current
+ * offset after a broken connection and finally completes the session. Chunks are appended to a
+ * partial file in the storage root; completing moves it into the blob store with an atomic rename
+ * and creates the {@link pl.pbs.zwbackend.model.ProjectFile}.
+ * <p>
+ * A pre-flight request names the SHA-256 and size up front: content that is already stored and
+ * readable by the caller becomes a file straight away, without any upload.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectFileUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectFileUploadService.class);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final BlobStorageService blobStorageService;
+    private final ProjectFileService projectFileService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload-session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Transactional
+    public UploadSessionResponse createSession(Long projectId, UploadSessionRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Project project = requireUploadAccess(projectId, currentUser);
+
+        projectFileService.validateFile(request.getFileName(), request.getFileSize());
+
+        return openSession(project, currentUser, request.getFileName(), request.getContentType(),
+                request.getFileSize(), request.getDescription(), null);
+    }
+
+    /**
+     * Creates the file at once when content with this SHA-256 and size is already stored and the
+     * caller may reference it, otherwise opens an upload session whose content has to match the
+     * announced hash.
+     */
+    @Transactional
+    public ProjectFilePreflightResponse preflight(Long projectId, ProjectFilePreflightRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Project project = requireUploadAccess(projectId, currentUser);
+
+        projectFileService.validateFile(request.getFileName(), request.getFileSize());
+
+        String hash = request.getSha256().toLowerCase(Locale.ROOT);
+        String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        Optional<BlobStorageService.StoredBlob> blob = blobStorageService.retain(hash, request.getFileSize(), currentUser);
+        if (blob.isPresent()) {
+            return ProjectFilePreflightResponse.builder()
+                    .file(projectFileService.saveFile(project, currentUser, request.getFileName(), blob.get(),
+                            contentType, request.getDescription()))
+                    .build();
+        }
+        return ProjectFilePreflightResponse.builder()
+                .upload(openSession(project, currentUser, request.getFileName(), contentType,
+                        request.getFileSize(), request.getDescription(), hash))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(Long projectId, String uploadId, String userEmail) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", uploadId));
+        requireOwner(session, projectId, userEmail);
+        return convertToResponse(session);
+    }
+
+    /**
+     * Appends a chunk that has to start exactly at the current offset. {@code checksum} is
+     * optional and has the form {@code sha256 <base64 digest>}; a chunk that does not match it is
+     * rejected and the offset stays where it was.
+     * <p>
+     * No transaction is open while the chunk streams in. The partial file is locked instead, the
+     * offset is checked under that lock and moved afterwards with a conditional update, which
+     * fails when the session was completed, cancelled or removed as expired in the meantime.
+     */
+    public UploadSessionResponse appendChunk(Long projectId, String uploadId, long offset, String checksum,
+                                             InputStream body, String userEmail) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", uploadId));
+        requireOwner(session, projectId, userEmail);
+        byte[] expectedDigest = checksum != null ? parseChecksum(checksum) : null;
+
+        try (FileStorageService.PartialUpload partialUpload = fileStorageService.openPartialUpload(uploadId)) {
+            // Read again under the file lock, a chunk that finished in the meantime has moved the offset
+            long receivedBytes = uploadSessionRepository.findReceivedBytes(uploadId)
+                    .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", uploadId));
+            if (offset != receivedBytes) {
+                throw new ConflictException("Upload is at offset " + receivedBytes + ", not " + offset);
+            }
+
+            MessageDigest digest = expectedDigest != null ? sha256() : null;
+            long written = fileStorageService.writeChunk(partialUpload, offset, body,
+                    session.getFileSize() - offset, digest);
+            if (digest != null && !MessageDigest.isEqual(expectedDigest, digest.digest())) {
+                throw new ChecksumMismatchException("Chunk checksum mismatch");
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().plusHours(sessionTtlHours);
+            Integer updated = transactionTemplate.execute(tx ->
+                    uploadSessionRepository.advanceOffset(uploadId, offset, offset + written, expiresAt));
+            if (updated == null || updated == 0) {
+                throw new ConflictException("Upload " + uploadId + " was completed, cancelled or has expired");
+            }
+            session.setReceivedBytes(offset + written);
+            session.setExpiresAt(expiresAt);
+            return convertToResponse(session);
+        }
+    }
+
+    /**
+     * Turns a fully received upload into a project file. When the content does not match the hash
+     * declared for the session, the session and its bytes are dropped so the client can start over
+     * right away instead of waiting for the session to expire.
+     */
+    @Transactional(noRollbackFor = ChecksumMismatchException.class)
+    public ProjectFileResponse completeSession(Long projectId, String uploadId, String userEmail) {
+        UploadSession session = uploadSessionRepository.findForUpdate(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", uploadId));
+        User currentUser = requireOwner(session, projectId, userEmail);
+
+        if (!session.getReceivedBytes().equals(session.getFileSize())
+                || fileStorageService.partialUploadSize(uploadId) != session.getFileSize()) {
+            throw new ConflictException("Upload is incomplete: " + session.getReceivedBytes()
+                    + " of " + session.getFileSize() + " bytes received");
+        }
+
+        // Access may have been revoked since the session was opened
+        if (!projectFileService.hasProjectAccess(session.getProject(), currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to upload files to this project");
+        }
+
+        BlobStorageService.StoredBlob blob;
+        try {
+            blob = blobStorageService.storeFile(fileStorageService.partialUploadPath(uploadId), session.getExpectedHash());
+        } catch (ChecksumMismatchException ex) {
+            uploadSessionRepository.delete(session);
+            AfterCommit.run(() -> fileStorageService.deletePartialUpload(uploadId));
+            throw ex;
+        }
+        uploadSessionRepository.delete(session);
+        return projectFileService.saveFile(session.getProject(), currentUser, session.getOriginalFileName(),
+                blob, session.getContentType(), session.getDescription());
+    }
+
+    @Transactional
+    public void cancelSession(Long projectId, String uploadId, String userEmail) {
+        UploadSession session = uploadSessionRepository.findForUpdate(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", uploadId));
+        requireOwner(session, projectId, userEmail);
+
+        uploadSessionRepository.delete(session);
+        AfterCommit.run(() -> fileStorageService.deletePartialUpload(uploadId));
+    }
+
+    @Scheduled(fixedDelayString = "${file.upload-session-cleanup-delay-ms:3600000}")
+    @Transactional
+    public void deleteExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository.findExpiredForUpdate(LocalDateTime.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+        uploadSessionRepository.deleteAllInBatch(expired);
+        AfterCommit.run(() -> {
+            for (UploadSession session : expired) {
+                try {
+                    fileStorageService.deletePartialUpload(session.getId());
+                } catch (Exception e) {
+                    logger.warn("Could not delete expired upload {}", session.getId(), e);
+                }
+            }
+        });
+    }
+
+    private Project requireUploadAccess(Long projectId, User currentUser) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+
+        if (!projectFileService.hasProjectAccess(project, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to upload files to this project");
+        }
+        return project;
+    }
+
+    private UploadSessionResponse openSession(Project project, User uploadedBy, String fileName, String contentType,
+                                              long fileSize, String description, String expectedHash) {
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .project(project)
+                .uploadedBy(uploadedBy)
+                .originalFileName(fileName)
+                .contentType(contentType != null ? contentType : "application/octet-stream")
+                .description(description)
+                .fileSize(fileSize)
+                .receivedBytes(0L)
+                .expectedHash(expectedHash)
+                .expiresAt(LocalDateTime.now().plusHours(sessionTtlHours))
+                .build();
+
+        fileStorageService.createPartialUpload(session.getId());
+        return convertToResponse(uploadSessionRepository.save(session));
+    }
+
+    private User requireOwner(UploadSession session, Long projectId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        if (!session.getUploadedBy().getId().equals(currentUser.getId())) {
+            throw new UnauthorizedOperationException("User not authorized to access this upload");
+        }
+        // A session is only reachable under the URL of its own project
+        if (!session.getProject().getId().equals(projectId)) {
+            throw new ResourceNotFoundException("UploadSession", "id", session.getId());
+        }
+        return currentUser;
+    }
+
+    private static byte[] parseChecksum(String checksum) {
+        String[] parts = checksum.trim().split("\\s+", 2);
+        if (parts.length != 2 || !parts[0].equalsIgnoreCase("sha256")) {
+            throw new IllegalArgumentException("Unsupported checksum, expected 'sha256 <base64 digest>'");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Checksum is not valid Base64");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UploadSessionResponse convertToResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .projectId(session.getProject().getId())
+                .originalFileName(session.getOriginalFileName())
+                .fileSize(session.getFileSize())
+                .offset(session.getReceivedBytes())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,340 @@
+package pl.pbs.zwbackend.service;
+
+import pl.pbs.zwbackend.dto.ProjectScheduleResponse;
+import pl.pbs.zwbackend.dto.TaskScheduleResponse;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory dependency DAG of one project with incrementally maintained schedule values.
+ * <p>
+ * A task cannot finish before its own planned date (due date, or creation date when it has none)
+ * nor earlier than one day after each predecessor, which gives its earliest finish. The project
+ * finishes at the latest earliest finish. The latest finish of a task is the project finish minus
+ * its tail, the number of days in the longest chain of successors after it; the tail depends only
+ * on the edges, so changing a date never touches upstream tasks. Slack is latest minus earliest
+ * finish and the critical path is the chain of zero-slack tasks.
+ * <p>
+ * Edits only touch the part of the graph whose values actually change: earliest finishes (and
+ * depths) downstream of a changed task or edge, tails upstream of a changed edge. Propagation
+ * stops at the first node whose value is unchanged.
+ * Mutations are idempotent so they can be replayed safely. A change that would make the graph
+ * cyclic fails with {@link IllegalStateException} instead of looping. Instances are not thread-safe.
+ */
+final class ProjectScheduleGraph {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    // Multiset of earliest finishes, so the project finish is available without a scan
+    private final TreeMap<LocalDate, Integer> finishes = new TreeMap<>();
+
+    /**
+     * Builds the graph from stored tasks and (predecessorId, successorId) pairs with a single
+     * pass over the whole graph instead of one incremental update per edge.
+     */
+    static ProjectScheduleGraph build(Map<Long, LocalDate> plannedFinishes, Collection<Long[]> dependencies) {
+        ProjectScheduleGraph graph = new ProjectScheduleGraph();
+        plannedFinishes.forEach(graph::putTask);
+        for (Long[] dependency : dependencies) {
+            Node predecessor = graph.nodes.get(dependency[0]);
+            Node successor = graph.nodes.get(dependency[1]);
+            if (predecessor != null && successor != null) {
+                predecessor.successors.add(successor);
+                successor.predecessors.add(predecessor);
+            }
+        }
+        // In topological order every node's predecessors (or successors, in reverse) are final when it is visited
+        List<Node> order = graph.topologicalOrder();
+        if (order.size() < graph.nodes.size()) {
+            throw new IllegalStateException("Dependency graph contains a cycle");
+        }
+        for (Node node : order) {
+            LocalDate earliestFinish = node.plannedFinish;
+            for (Node predecessor : node.predecessors) {
+                node.depth = Math.max(node.depth, predecessor.depth + 1);
+                LocalDate afterPredecessor = predecessor.earliestFinish.plusDays(1);
+                if (afterPredecessor.isAfter(earliestFinish)) {
+                    earliestFinish = afterPredecessor;
+                }
+            }
+            graph.removeFinish(node.earliestFinish);
+            node.earliestFinish = earliestFinish;
+            graph.addFinish(earliestFinish);
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            for (Node successor : node.successors) {
+                node.tail = Math.max(node.tail, successor.tail + 1);
+            }
+        }
+        return graph;
+    }
+
+    void putTask(Long taskId, LocalDate plannedFinish) {
+        Node node = nodes.get(taskId);
+        if (node == null) {
+            node = new Node(taskId, plannedFinish);
+            nodes.put(taskId, node);
+            addFinish(plannedFinish);
+            return;
+        }
+        if (!node.plannedFinish.equals(plannedFinish)) {
+            node.plannedFinish = plannedFinish;
+            recomputeEarliestFinishes(List.of(node));
+        }
+    }
+
+    void removeTask(Long taskId) {
+        Node node = nodes.remove(taskId);
+        if (node == null) {
+            return;
+        }
+        removeFinish(node.earliestFinish);
+        for (Node successor : node.successors) {
+            successor.predecessors.remove(node);
+        }
+        for (Node predecessor : node.predecessors) {
+            predecessor.successors.remove(node);
+        }
+        recomputeDepths(node.successors);
+        recomputeEarliestFinishes(node.successors);
+        recomputeTails(node.predecessors);
+    }
+
+    /**
+     * Returns true when adding predecessor -> successor would close a cycle, i.e. when the
+     * predecessor is already reachable from the successor.
+     */
+    boolean wouldCreateCycle(Long predecessorId, Long successorId) {
+        if (predecessorId.equals(successorId)) {
+            return true;
+        }
+        Node start = nodes.get(successorId);
+        Node target = nodes.get(predecessorId);
+        if (start == null || target == null) {
+            return false;
+        }
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node == target) {
+                return true;
+            }
+            if (visited.add(node)) {
+                node.successors.forEach(stack::push);
+            }
+        }
+        return false;
+    }
+
+    void addDependency(Long predecessorId, Long successorId) {
+        Node predecessor = nodes.get(predecessorId);
+        Node successor = nodes.get(successorId);
+        if (predecessor == null || successor == null || predecessor.successors.contains(successor)) {
+            return;
+        }
+        if (wouldCreateCycle(predecessorId, successorId)) {
+            throw new IllegalStateException("Dependency " + predecessorId + " -> " + successorId + " would create a cycle");
+        }
+        predecessor.successors.add(successor);
+        successor.predecessors.add(predecessor);
+        recomputeDepths(List.of(successor));
+        recomputeEarliestFinishes(List.of(successor));
+        recomputeTails(List.of(predecessor));
+    }
+
+    void removeDependency(Long predecessorId, Long successorId) {
+        Node predecessor = nodes.get(predecessorId);
+        Node successor = nodes.get(successorId);
+        if (predecessor == null || successor == null || !predecessor.successors.remove(successor)) {
+            return;
+        }
+        successor.predecessors.remove(predecessor);
+        recomputeDepths(List.of(successor));
+        recomputeEarliestFinishes(List.of(successor));
+        recomputeTails(List.of(predecessor));
+    }
+
+    ProjectScheduleResponse toResponse(Long projectId) {
+        if (nodes.isEmpty()) {
+            return ProjectScheduleResponse.builder()
+                    .projectId(projectId)
+                    .criticalPath(List.of())
+                    .tasks(List.of())
+                    .build();
+        }
+
+        LocalDate projectFinish = finishes.lastKey();
+        List<TaskScheduleResponse> tasks = new ArrayList<>(nodes.size());
+        Node start = null;
+        for (Node node : nodes.values()) {
+            long slack = slack(node, projectFinish);
+            tasks.add(TaskScheduleResponse.builder()
+                    .taskId(node.taskId)
+                    .earliestFinish(node.earliestFinish)
+                    .latestFinish(projectFinish.minusDays(node.tail))
+                    .slackDays(slack)
+                    .critical(slack == 0)
+                    .build());
+            if (slack == 0 && (start == null || node.tail > start.tail)) {
+                start = node;
+            }
+        }
+
+        // A zero-slack task with tail k always has a zero-slack successor with tail k - 1
+        List<Long> criticalPath = new ArrayList<>();
+        for (Node node = start; node != null; ) {
+            criticalPath.add(node.taskId);
+            Node current = node;
+            node = current.successors.stream()
+                    .filter(successor -> successor.tail == current.tail - 1 && slack(successor, projectFinish) == 0)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        return ProjectScheduleResponse.builder()
+                .projectId(projectId)
+                .projectFinish(projectFinish)
+                .criticalPath(criticalPath)
+                .tasks(tasks)
+                .build();
+    }
+
+    private long slack(Node node, LocalDate projectFinish) {
+        return ChronoUnit.DAYS.between(node.earliestFinish, projectFinish.minusDays(node.tail));
+    }
+
+    private void recomputeEarliestFinishes(Collection<Node> changed) {
+        // Visiting nodes by depth guarantees every predecessor is final first, so each node is computed once
+        PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingInt((Node node) -> node.depth));
+        Set<Node> queued = new HashSet<>();
+        for (Node node : changed) {
+            if (queued.add(node)) {
+                queue.add(node);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            queued.remove(node);
+            LocalDate earliestFinish = node.plannedFinish;
+            for (Node predecessor : node.predecessors) {
+                LocalDate afterPredecessor = predecessor.earliestFinish.plusDays(1);
+                if (afterPredecessor.isAfter(earliestFinish)) {
+                    earliestFinish = afterPredecessor;
+                }
+            }
+            if (earliestFinish.equals(node.earliestFinish)) {
+                continue;
+            }
+            removeFinish(node.earliestFinish);
+            node.earliestFinish = earliestFinish;
+            addFinish(earliestFinish);
+            for (Node successor : node.successors) {
+                if (queued.add(successor)) {
+                    queue.add(successor);
+                }
+            }
+        }
+    }
+
+    // Depth is the longest chain of predecessors; it only changes when edges do
+    private void recomputeDepths(Collection<Node> changed) {
+        Deque<Node> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            int depth = 0;
+            for (Node predecessor : node.predecessors) {
+                depth = Math.max(depth, predecessor.depth + 1);
+            }
+            requireAcyclic(depth);
+            if (depth != node.depth) {
+                node.depth = depth;
+                queue.addAll(node.successors);
+            }
+        }
+    }
+
+    private void recomputeTails(Collection<Node> changed) {
+        Deque<Node> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            int tail = 0;
+            for (Node successor : node.successors) {
+                tail = Math.max(tail, successor.tail + 1);
+            }
+            requireAcyclic(tail);
+            if (tail != node.tail) {
+                node.tail = tail;
+                queue.addAll(node.predecessors);
+            }
+        }
+    }
+
+    // A chain in a DAG has fewer edges than nodes; on a cycle depths and tails would grow forever
+    private void requireAcyclic(int chainLength) {
+        if (chainLength >= nodes.size()) {
+            throw new IllegalStateException("Dependency graph contains a cycle");
+        }
+    }
+
+    // Kahn's algorithm over the whole graph, used when it is built
+    private List<Node> topologicalOrder() {
+        Map<Node, Integer> pendingPredecessors = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            pendingPredecessors.put(node, node.predecessors.size());
+            if (node.predecessors.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<Node> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            order.add(node);
+            for (Node successor : node.successors) {
+                if (pendingPredecessors.merge(successor, -1, Integer::sum) == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        return order;
+    }
+
+    private void addFinish(LocalDate finish) {
+        finishes.merge(finish, 1, Integer::sum);
+    }
+
+    private void removeFinish(LocalDate finish) {
+        finishes.computeIfPresent(finish, (date, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static final class Node {
+        private final Long taskId;
+        private final Set<Node> predecessors = new HashSet<>();
+        private final Set<Node> successors = new HashSet<>();
+        private LocalDate plannedFinish;
+        private LocalDate earliestFinish;
+        private int depth;
+        private int tail;
+
+        private Node(Long taskId, LocalDate plannedFinish) {
+            this.taskId = taskId;
+            this.plannedFinish = plannedFinish;
+            this.earliestFinish = plannedFinish;
+        }
+    }
+}
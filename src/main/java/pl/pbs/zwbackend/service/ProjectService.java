@@ -18,6 +18,7 @@ import pl.pbs.zwbackend.repository.ProjectCommentRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +28,7 @@ public class ProjectService {    private final ProjectRepository projectReposito
     private final UserService userService;
     private final ProjectUserRepository projectUserRepository;
     private final ProjectCommentRepository projectCommentRepository;
+    private final CalendarFeedService calendarFeedService;
 
     @Transactional
     public ProjectResponse createProject(ProjectRequest projectRequest, String userEmail) {
@@ -43,6 +45,9 @@ public class ProjectService {    private final ProjectRepository projectReposito
                 .build();
 
         Project savedProject = projectRepository.save(project);
+        if (savedProject.getStartDate() != null || savedProject.getEndDate() != null) {
+            calendarFeedService.usersChanged(List.of(currentUser.getId()));
+        }
         return convertToResponse(savedProject);
     }
 
@@ -80,6 +85,9 @@ public class ProjectService {    private final ProjectRepository projectReposito
             throw new UnauthorizedOperationException("User not authorized to update this project");
         }
 
+        boolean calendarChanged = !Objects.equals(project.getName(), projectRequest.getName())
+                || !Objects.equals(project.getStartDate(), projectRequest.getStartDate())
+                || !Objects.equals(project.getEndDate(), projectRequest.getEndDate());
         project.setName(projectRequest.getName());
         project.setDescription(projectRequest.getDescription());
         project.setStartDate(projectRequest.getStartDate());
@@ -89,6 +97,9 @@ public class ProjectService {    private final ProjectRepository projectReposito
         }
 
         Project updatedProject = projectRepository.save(project);
+        if (calendarChanged) {
+            calendarFeedService.projectChanged(projectId);
+        }
         return convertToResponse(updatedProject);
     }
 
@@ -103,6 +114,7 @@ public class ProjectService {    private final ProjectRepository projectReposito
             throw new UnauthorizedOperationException("User not authorized to delete this project");
         }
         // Consider related entities (tasks, files) before deletion if cascading is not set
+        calendarFeedService.projectChanged(projectId);
         projectRepository.delete(project);
     }    private ProjectResponse convertToResponse(Project project) {
         UserSummaryResponse userSummary = userService.convertToUserSummaryResponse(project.getCreatedBy());
@@ -26,6 +26,7 @@ public class ProjectUserService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final CalendarFeedService calendarFeedService;
 
     @Transactional
     public ProjectUserResponse assignUserToProject(Long projectId, ProjectUserAssignRequest request, String currentUserEmail) {
@@ -55,6 +56,7 @@ public class ProjectUserService {
                 .build();
         
         ProjectUser savedProjectUser = projectUserRepository.save(projectUser);
+        calendarFeedService.usersChanged(List.of(userToAssign.getId()));
         return convertToResponse(savedProjectUser);
     }
 
@@ -96,6 +98,7 @@ public class ProjectUserService {
         }
         
         projectUserRepository.deleteByProjectIdAndUserId(projectId, userId);
+        calendarFeedService.usersChanged(List.of(userId));
     }
 
     @Transactional
@@ -0,0 +1,103 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.repository.FileBlobRepository;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Moves blobs of the old flat storage layout into fan-out subdirectories while the application
+ * keeps serving them; until a blob has been moved, reads fall back to its flat location. Runs in
+ * the background after every startup and only lists directories once everything has been moved.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageLayoutMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageLayoutMigrator.class);
+
+    // Files listed ahead of the workers per thread, so a huge directory is never held in memory
+    private static final int QUEUED_FILES_PER_THREAD = 64;
+
+    private final FileStorageService fileStorageService;
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.layout-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.layout-migration.threads:4}")
+    private int threads;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long moved = migrate();
+            if (moved > 0) {
+                logger.info("Moved {} blobs to the fan-out layout", moved);
+            }
+        } catch (Exception e) {
+            logger.warn("Storage layout migration stopped, it is resumed on the next start", e);
+        }
+    }
+
+    /**
+     * Moves every blob still in the flat layout and returns how many were moved. Safe to run
+     * again at any time, including concurrently with uploads, downloads and deletions.
+     */
+    public long migrate() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Semaphore queued = new Semaphore(threads * QUEUED_FILES_PER_THREAD);
+        AtomicLong moved = new AtomicLong();
+        try {
+            fileStorageService.forEachUnmigratedBlob(
+                    file -> submit(executor, queued, moved, file, () -> migrateBlob(file)));
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return moved.get();
+    }
+
+    // Holds the blob's row lock while moving it, so a concurrent purge deletes it either before or after the move
+    private boolean migrateBlob(Path file) {
+        String hash = file.getFileName().toString();
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            fileBlobRepository.findForUpdate(hash);
+            return fileStorageService.moveToFanOut(file);
+        }));
+    }
+
+    private void submit(ExecutorService executor, Semaphore queued, AtomicLong moved, Path file, BooleanSupplier move) {
+        queued.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                if (move.getAsBoolean()) {
+                    moved.incrementAndGet();
+                }
+            } catch (Exception e) {
+                logger.warn("Could not move {} to the fan-out layout", file, e);
+            } finally {
+                queued.release();
+            }
+        });
+    }
+}
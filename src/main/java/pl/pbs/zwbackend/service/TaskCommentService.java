@@ -0,0 +1,186 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.dto.TaskCommentRequest;
+import pl.pbs.zwbackend.dto.TaskCommentResponse;
+import pl.pbs.zwbackend.dto.UserSummaryResponse;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskComment;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.TaskCommentRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.KeysetCursor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TaskCommentService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final TaskCommentRepository taskCommentRepository;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ProjectEventPublisher projectEventPublisher;
+
+    @Transactional
+    public TaskCommentResponse addComment(Long taskId, TaskCommentRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+
+        if (!hasTaskAccess(task, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to comment on this task");
+        }
+
+        TaskComment comment = taskCommentRepository.save(TaskComment.builder()
+                .task(task)
+                .user(currentUser)
+                .content(request.getContent())
+                .build());
+        // Atomic increment, so concurrent comments cannot lose counts
+        taskRepository.incrementCommentCount(taskId, 1);
+
+        Long projectId = task.getProject().getId();
+        projectEventPublisher.created(projectId, ProjectChangeEvent.Entity.TASK_COMMENT, comment.getId());
+        projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.TASK, taskId, List.of("commentCount"));
+        return convertToResponse(comment, userService.convertToUserSummaryResponse(currentUser), task, currentUser);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TaskCommentResponse> getComments(Long taskId, String cursor, Integer size, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+
+        if (!hasTaskAccess(task, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to view comments of this task");
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = decodeCursor(cursor);
+        // One extra row tells whether there is a next page
+        List<TaskComment> rows = taskCommentRepository.findPageByTaskId(taskId, afterId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<TaskComment> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        // Load all authors of the page with one query instead of one lazy load per comment
+        Set<Long> authorIds = page.stream()
+                .map(comment -> comment.getUser().getId())
+                .collect(Collectors.toSet());
+        Map<Long, User> authors = userRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        String avatarBaseUrl = authors.values().stream().anyMatch(author -> author.getAvatarFileName() != null)
+                ? userService.getAvatarBaseUrl() : null;
+
+        List<TaskCommentResponse> items = page.stream()
+                .map(comment -> {
+                    User author = authors.get(comment.getUser().getId());
+                    return convertToResponse(comment, userService.convertToUserSummaryResponse(author.getId(),
+                            author.getFirstName(), author.getLastName(), author.getEmail(),
+                            author.getAvatarFileName(), avatarBaseUrl), task, currentUser);
+                })
+                .collect(Collectors.toList());
+
+        return CursorPageResponse.<TaskCommentResponse>builder()
+                .items(items)
+                .nextCursor(hasMore ? KeysetCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Transactional
+    public TaskCommentResponse updateComment(Long taskId, Long commentId, TaskCommentRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        TaskComment comment = taskCommentRepository.findByIdAndTaskId(commentId, taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("TaskComment", "id", commentId));
+
+        // Only the comment author can edit
+        if (!comment.getUser().getId().equals(currentUser.getId())) {
+            throw new UnauthorizedOperationException("User not authorized to edit this comment");
+        }
+
+        comment.setContent(request.getContent());
+        Task task = comment.getTask();
+        projectEventPublisher.updated(task.getProject().getId(), ProjectChangeEvent.Entity.TASK_COMMENT,
+                commentId, List.of("content"));
+        return convertToResponse(comment, userService.convertToUserSummaryResponse(currentUser), task, currentUser);
+    }
+
+    @Transactional
+    public void deleteComment(Long taskId, Long commentId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        TaskComment comment = taskCommentRepository.findByIdAndTaskId(commentId, taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("TaskComment", "id", commentId));
+        Task task = comment.getTask();
+
+        if (!canDeleteComment(comment, task, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to delete this comment");
+        }
+
+        taskCommentRepository.delete(comment);
+        taskRepository.incrementCommentCount(taskId, -1);
+
+        Long projectId = task.getProject().getId();
+        projectEventPublisher.deleted(projectId, ProjectChangeEvent.Entity.TASK_COMMENT, commentId);
+        projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.TASK, taskId, List.of("commentCount"));
+    }
+
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(KeysetCursor.decode(cursor, 1)[0]);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    private boolean hasTaskAccess(Task task, User user) {
+        if (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(user.getId())) {
+            return true;
+        }
+        return projectRepository.hasMember(task.getProject().getId(), user.getEmail());
+    }
+
+    // Comment author or project owner
+    private boolean canDeleteComment(TaskComment comment, Task task, User user) {
+        return comment.getUser().getId().equals(user.getId())
+                || task.getProject().getCreatedBy().getId().equals(user.getId());
+    }
+
+    private TaskCommentResponse convertToResponse(TaskComment comment, UserSummaryResponse author,
+                                                  Task task, User currentUser) {
+        return TaskCommentResponse.builder()
+                .id(comment.getId())
+                .taskId(task.getId())
+                .content(comment.getContent())
+                .user(author)
+                .createdAt(comment.getCreatedAt())
+                .canEdit(comment.getUser().getId().equals(currentUser.getId()))
+                .canDelete(canDeleteComment(comment, task, currentUser))
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.ProjectScheduleResponse;
+import pl.pbs.zwbackend.dto.TaskDependencyRequest;
+import pl.pbs.zwbackend.dto.TaskDependencyResponse;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskDependency;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.TaskDependencyRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TaskDependencyService {
+
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final ProjectUserRepository projectUserRepository;
+    private final UserRepository userRepository;
+    private final CriticalPathEngine criticalPathEngine;
+
+    @Transactional
+    public TaskDependencyResponse addDependency(Long taskId, TaskDependencyRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Task successor = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        Task predecessor = taskRepository.findById(request.getPredecessorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", request.getPredecessorId()));
+
+        if (!canEditDependencies(successor, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to change dependencies of this task");
+        }
+        Long projectId = successor.getProject().getId();
+        if (!predecessor.getProject().getId().equals(projectId)) {
+            throw new IllegalArgumentException("Dependencies can only link tasks of the same project");
+        }
+
+        // Lock the project so that concurrent edits cannot close a cycle between them
+        projectRepository.findForUpdate(projectId);
+        if (taskDependencyRepository.existsByPredecessorIdAndSuccessorId(predecessor.getId(), successor.getId())) {
+            return convertToResponse(predecessor.getId(), successor.getId());
+        }
+        if (wouldCreateCycle(predecessor.getId(), successor.getId())) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+
+        taskDependencyRepository.save(TaskDependency.builder()
+                .predecessor(predecessor)
+                .successor(successor)
+                .build());
+        criticalPathEngine.dependencyAdded(projectId, predecessor.getId(), successor.getId());
+        return convertToResponse(predecessor.getId(), successor.getId());
+    }
+
+    @Transactional
+    public void removeDependency(Long taskId, Long predecessorId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        TaskDependency dependency = taskDependencyRepository.findByPredecessorIdAndSuccessorId(predecessorId, taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("TaskDependency", "predecessorId", predecessorId));
+        Task successor = dependency.getSuccessor();
+
+        if (!canEditDependencies(successor, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to change dependencies of this task");
+        }
+
+        taskDependencyRepository.delete(dependency);
+        criticalPathEngine.dependencyRemoved(successor.getProject().getId(), predecessorId, taskId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDependencyResponse> getDependencies(Long taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new ResourceNotFoundException("Task", "id", taskId);
+        }
+        return taskDependencyRepository.findEdgesByTaskId(taskId).stream()
+                .map(row -> convertToResponse((Long) row[0], (Long) row[1]))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectScheduleResponse getProjectSchedule(Long projectId, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+
+        if (!project.getCreatedBy().getId().equals(currentUser.getId())
+                && !projectUserRepository.existsByProjectIdAndUserId(projectId, currentUser.getId())) {
+            throw new UnauthorizedOperationException("User not authorized to view the schedule of this project");
+        }
+
+        return criticalPathEngine.getSchedule(projectId);
+    }
+
+    /**
+     * Returns true when the predecessor is already reachable from the successor. The edges are
+     * read from the database while the project lock is held, so an edge committed by a concurrent
+     * edit is always seen; the in-memory graph is only updated after commit and may lag behind.
+     */
+    private boolean wouldCreateCycle(Long predecessorId, Long successorId) {
+        if (predecessorId.equals(successorId)) {
+            return true;
+        }
+        Set<Long> visited = new HashSet<>(List.of(successorId));
+        Collection<Long> frontier = List.of(successorId);
+        while (!frontier.isEmpty()) {
+            List<Long> next = new ArrayList<>();
+            for (Long taskId : taskDependencyRepository.findSuccessorIds(frontier)) {
+                if (taskId.equals(predecessorId)) {
+                    return true;
+                }
+                if (visited.add(taskId)) {
+                    next.add(taskId);
+                }
+            }
+            frontier = next;
+        }
+        return false;
+    }
+
+    private boolean canEditDependencies(Task task, User user) {
+        return task.getProject().getCreatedBy().getId().equals(user.getId()) ||
+                (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(user.getId()));
+    }
+
+    private TaskDependencyResponse convertToResponse(Long predecessorId, Long successorId) {
+        return TaskDependencyResponse.builder()
+                .predecessorId(predecessorId)
+                .successorId(successorId)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskTagRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one {@link ProjectFacetIndex} per project in memory. An index is loaded from the database
+ * the first time facets of its project are requested; afterwards the tasks written by a
+ * transaction are re-read and updated in it once the transaction has committed.
+ * <p>
+ * Indexes are loaded outside any lock and only cached when no write committed while they were
+ * being loaded. Written tasks are re-read while the index is locked, so whichever update comes
+ * last has read the latest committed state, whatever order the commits finish in. Cached indexes
+ * are dropped after a while, which also picks up writes made by other instances, and whenever an
+ * update fails.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskFacetIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskTagRepository taskTagRepository;
+
+    private final Map<Long, CachedIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.facets.index-ttl-ms:600000}")
+    private long indexTtlMs;
+
+    public TaskFacetResponse facets(Long projectId, Collection<TaskStatus> statuses, Collection<Long> assigneeIds,
+                                    Collection<String> tags) {
+        ProjectFacetIndex index = index(projectId);
+        synchronized (index) {
+            return index.facets(statuses, assigneeIds, tags);
+        }
+    }
+
+    // Tasks that were created, updated, deleted or re-tagged in the current transaction
+    public void tasksChanged(Long projectId, Collection<Long> taskIds) {
+        Set<Long> ids = Set.copyOf(taskIds);
+        AfterCommit.run(() -> {
+            // Bumped first, so a load that may have missed this write is not cached
+            version(projectId).incrementAndGet();
+            CachedIndex cached = indexes.get(projectId);
+            if (cached == null) {
+                return;
+            }
+            synchronized (cached.index()) {
+                try {
+                    refresh(cached.index(), ids);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not update the facet index of project {}, it is reloaded on next use", projectId, e);
+                    indexes.remove(projectId, cached);
+                }
+            }
+        });
+    }
+
+    private ProjectFacetIndex index(Long projectId) {
+        CachedIndex cached = indexes.get(projectId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < indexTtlMs) {
+            return cached.index();
+        }
+        long version = version(projectId).get();
+        ProjectFacetIndex loaded = load(projectId);
+        // Replaces only the entry this call found; an index installed meanwhile by another call wins
+        indexes.compute(projectId, (id, current) -> {
+            if (current != cached) {
+                return current;
+            }
+            return version(projectId).get() == version ? new CachedIndex(loaded, System.currentTimeMillis()) : null;
+        });
+        return loaded;
+    }
+
+    private AtomicLong version(Long projectId) {
+        return versions.computeIfAbsent(projectId, id -> new AtomicLong());
+    }
+
+    private ProjectFacetIndex load(Long projectId) {
+        ProjectFacetIndex index = new ProjectFacetIndex();
+        for (Object[] row : taskRepository.findFacetRowsByProjectId(projectId)) {
+            index.putTask((Long) row[0], (TaskStatus) row[1], (Long) row[2]);
+        }
+        groupTags(taskTagRepository.findTagRowsByProjectId(projectId)).forEach(index::setTags);
+        return index;
+    }
+
+    // Tasks that no longer exist are removed, the others take their committed status, assignee and tags
+    private void refresh(ProjectFacetIndex index, Set<Long> taskIds) {
+        Set<Long> remaining = new HashSet<>(taskIds);
+        for (Object[] row : taskRepository.findFacetRowsByIdIn(taskIds)) {
+            index.putTask((Long) row[0], (TaskStatus) row[1], (Long) row[2]);
+            remaining.remove((Long) row[0]);
+        }
+        remaining.forEach(index::removeTask);
+
+        Map<Long, Set<String>> tags = groupTags(taskTagRepository.findTagRowsByTaskIdIn(taskIds));
+        taskIds.forEach(taskId -> index.setTags(taskId, tags.getOrDefault(taskId, Set.of())));
+    }
+
+    private static Map<Long, Set<String>> groupTags(List<Object[]> rows) {
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (Object[] row : rows) {
+            tags.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        return tags;
+    }
+
+    private record CachedIndex(ProjectFacetIndex index, long loadedAt) {
+    }
+}
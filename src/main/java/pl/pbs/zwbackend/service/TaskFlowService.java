@@ -0,0 +1,290 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.BurndownPointResponse;
+import pl.pbs.zwbackend.dto.CumulativeFlowDayResponse;
+import pl.pbs.zwbackend.dto.CycleTimeBucketResponse;
+import pl.pbs.zwbackend.dto.TaskStatusTransitionResponse;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectCycleTimeBucket;
+import pl.pbs.zwbackend.model.ProjectFlowDaily;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskStatusTransition;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.ProjectCycleTimeBucketRepository;
+import pl.pbs.zwbackend.repository.ProjectFlowDailyRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskStatusTransitionRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Records task status transitions and keeps the per-project flow aggregates up to date in the
+ * same transaction, so burndown, cumulative flow and cycle-time reports only read the small
+ * pre-aggregated tables instead of scanning tasks or their history.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskFlowService {
+
+    // Lower bounds (in days) of the cycle-time histogram buckets; the last bucket is open-ended
+    static final int[] CYCLE_TIME_BUCKETS = {0, 1, 2, 3, 5, 8, 13, 21, 34, 55};
+    private static final int MAX_RANGE_DAYS = 366;
+    // Bucket rows are written in this order, so concurrent transactions cannot deadlock on them
+    private static final Comparator<FlowKey> FLOW_KEY_ORDER =
+            Comparator.comparing(FlowKey::projectId).thenComparing(FlowKey::status);
+    private static final Comparator<CycleTimeKey> CYCLE_TIME_KEY_ORDER =
+            Comparator.comparing(CycleTimeKey::projectId).thenComparingInt(CycleTimeKey::minDays);
+
+    private final TaskStatusTransitionRepository transitionRepository;
+    private final ProjectFlowDailyRepository flowDailyRepository;
+    private final ProjectCycleTimeBucketRepository cycleTimeBucketRepository;
+    private final ProjectRepository projectRepository;
+    private final ProjectUserRepository projectUserRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * A status change of a single task. {@code from} is null when the task is created and
+     * {@code to} is null when it is deleted.
+     */
+    public record StatusChange(Task task, TaskStatus from, TaskStatus to) {
+    }
+
+    @Transactional
+    public void recordTransition(Task task, TaskStatus from, TaskStatus to, User changedBy) {
+        recordTransitions(List.of(new StatusChange(task, from, to)), changedBy);
+    }
+
+    /**
+     * Appends the transitions and applies their deltas to the daily and cycle-time buckets.
+     * Deltas are summed per bucket first, so a bulk request touches each bucket row once, and
+     * buckets are written in key order, so concurrent requests lock shared rows in the same order.
+     */
+    @Transactional
+    public void recordTransitions(List<StatusChange> changes, User changedBy) {
+        List<StatusChange> effective = changes.stream()
+                .filter(change -> change.from() != change.to())
+                .collect(Collectors.toList());
+        if (effective.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        Set<Long> completedBefore = completedBefore(effective);
+        List<TaskStatusTransition> transitions = new ArrayList<>(effective.size());
+        Map<FlowKey, long[]> flowDeltas = new TreeMap<>(FLOW_KEY_ORDER);
+        for (StatusChange change : effective) {
+            Long projectId = change.task().getProject().getId();
+            transitions.add(TaskStatusTransition.builder()
+                    .taskId(change.task().getId())
+                    .projectId(projectId)
+                    .fromStatus(change.from())
+                    .toStatus(change.to())
+                    .changedById(changedBy != null ? changedBy.getId() : null)
+                    .changedAt(now)
+                    .build());
+            if (change.from() != null) {
+                flowDeltas.computeIfAbsent(new FlowKey(projectId, change.from()), key -> new long[2])[1]++;
+            }
+            if (change.to() != null) {
+                flowDeltas.computeIfAbsent(new FlowKey(projectId, change.to()), key -> new long[2])[0]++;
+            }
+        }
+        transitionRepository.saveAll(transitions);
+
+        flowDeltas.forEach((key, delta) -> {
+            flowDailyRepository.insertIfAbsent(key.projectId(), today, key.status().name());
+            flowDailyRepository.increment(key.projectId(), today, key.status(), delta[0], delta[1]);
+        });
+
+        recordCycleTimes(effective, completedBefore, now);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskStatusTransitionResponse> getTaskHistory(Long taskId, String userEmail) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        requireProjectAccess(task.getProject(), userEmail);
+
+        return transitionRepository.findByTaskIdOrderByChangedAtAscIdAsc(taskId).stream()
+                .map(transition -> TaskStatusTransitionResponse.builder()
+                        .fromStatus(transition.getFromStatus())
+                        .toStatus(transition.getToStatus())
+                        .changedById(transition.getChangedById())
+                        .changedAt(transition.getChangedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<CumulativeFlowDayResponse> getCumulativeFlow(Long projectId, LocalDate from, LocalDate to, String userEmail) {
+        requireProjectAccess(loadProject(projectId), userEmail);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end);
+
+        // Start from the totals before the range, then roll the daily deltas forward
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : flowDailyRepository.sumNetBefore(projectId, start)) {
+            counts.put((TaskStatus) row[0], ((Number) row[1]).longValue());
+        }
+
+        Iterator<ProjectFlowDaily> buckets = flowDailyRepository
+                .findByProjectIdAndDayBetweenOrderByDayAsc(projectId, start, end).iterator();
+        ProjectFlowDaily bucket = buckets.hasNext() ? buckets.next() : null;
+        List<CumulativeFlowDayResponse> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            while (bucket != null && bucket.getDay().equals(day)) {
+                counts.merge(bucket.getStatus(), bucket.getEntered() - bucket.getExited(), Long::sum);
+                bucket = buckets.hasNext() ? buckets.next() : null;
+            }
+            days.add(CumulativeFlowDayResponse.builder()
+                    .date(day)
+                    .counts(new EnumMap<>(counts))
+                    .build());
+        }
+        return days;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BurndownPointResponse> getBurndown(Long projectId, LocalDate from, LocalDate to, String userEmail) {
+        return getCumulativeFlow(projectId, from, to, userEmail).stream()
+                .map(day -> {
+                    long completed = day.getCounts().get(TaskStatus.COMPLETED);
+                    long total = day.getCounts().values().stream().mapToLong(Long::longValue).sum();
+                    return BurndownPointResponse.builder()
+                            .date(day.getDate())
+                            .remaining(total - completed)
+                            .completed(completed)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<CycleTimeBucketResponse> getCycleTimeHistogram(Long projectId, String userEmail) {
+        requireProjectAccess(loadProject(projectId), userEmail);
+
+        Map<Integer, Long> counts = cycleTimeBucketRepository.findByProjectIdOrderByMinDaysAsc(projectId).stream()
+                .collect(Collectors.toMap(ProjectCycleTimeBucket::getMinDays, ProjectCycleTimeBucket::getCount));
+        List<CycleTimeBucketResponse> histogram = new ArrayList<>(CYCLE_TIME_BUCKETS.length);
+        for (int i = 0; i < CYCLE_TIME_BUCKETS.length; i++) {
+            int minDays = CYCLE_TIME_BUCKETS[i];
+            histogram.add(CycleTimeBucketResponse.builder()
+                    .minDays(minDays)
+                    .maxDays(i + 1 < CYCLE_TIME_BUCKETS.length ? CYCLE_TIME_BUCKETS[i + 1] - 1 : null)
+                    .count(counts.getOrDefault(minDays, 0L))
+                    .build());
+        }
+        return histogram;
+    }
+
+    static int cycleTimeBucket(long days) {
+        int bucket = CYCLE_TIME_BUCKETS[0];
+        for (int minDays : CYCLE_TIME_BUCKETS) {
+            if (days >= minDays) {
+                bucket = minDays;
+            }
+        }
+        return bucket;
+    }
+
+    // Tasks being completed that were completed before; reopening and completing a task again is not a new cycle
+    private Set<Long> completedBefore(List<StatusChange> changes) {
+        Set<Long> completedTaskIds = changes.stream()
+                .filter(change -> change.to() == TaskStatus.COMPLETED && change.from() != null)
+                .map(change -> change.task().getId())
+                .collect(Collectors.toSet());
+        return completedTaskIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(transitionRepository.findCompletedTaskIdsIn(completedTaskIds));
+    }
+
+    private void recordCycleTimes(List<StatusChange> changes, Set<Long> completedBefore, LocalDateTime completedAt) {
+        Set<Long> completedTaskIds = changes.stream()
+                .filter(change -> change.to() == TaskStatus.COMPLETED)
+                .map(change -> change.task().getId())
+                .filter(taskId -> !completedBefore.contains(taskId))
+                .collect(Collectors.toSet());
+        if (completedTaskIds.isEmpty()) {
+            return;
+        }
+
+        // The completing transitions were just saved, so every completed task has a start time
+        Map<Long, LocalDateTime> startTimes = new HashMap<>();
+        for (Object[] row : transitionRepository.findStartTimesByTaskIdIn(completedTaskIds)) {
+            startTimes.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        Map<CycleTimeKey, Long> bucketDeltas = new TreeMap<>(CYCLE_TIME_KEY_ORDER);
+        for (StatusChange change : changes) {
+            if (change.to() != TaskStatus.COMPLETED || !completedTaskIds.contains(change.task().getId())) {
+                continue;
+            }
+            LocalDateTime startedAt = startTimes.getOrDefault(change.task().getId(), completedAt);
+            long days = Duration.between(startedAt, completedAt).toDays();
+            bucketDeltas.merge(new CycleTimeKey(change.task().getProject().getId(), cycleTimeBucket(days)), 1L, Long::sum);
+        }
+
+        bucketDeltas.forEach((key, count) -> {
+            cycleTimeBucketRepository.insertIfAbsent(key.projectId(), key.minDays());
+            cycleTimeBucketRepository.increment(key.projectId(), key.minDays(), count);
+        });
+    }
+
+    private Project loadProject(Long projectId) {
+        return projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+    }
+
+    private void requireProjectAccess(Project project, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        if (!project.getCreatedBy().getId().equals(user.getId())
+                && !projectUserRepository.existsByProjectIdAndUserId(project.getId(), user.getId())) {
+            throw new UnauthorizedOperationException("User not authorized to view analytics for this project");
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private record FlowKey(Long projectId, TaskStatus status) {
+    }
+
+    private record CycleTimeKey(Long projectId, int minDays) {
+    }
+}
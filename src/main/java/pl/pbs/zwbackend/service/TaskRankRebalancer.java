@@ -0,0 +1,63 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.util.LexoRank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class TaskRankRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRankRebalancer.class);
+
+    // Ranks longer than this are respaced in the background
+    public static final int REBALANCE_THRESHOLD = 16;
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<Column> pendingColumns = ConcurrentHashMap.newKeySet();
+
+    public void requestRebalanceIfNeeded(Long projectId, TaskStatus status, String rank) {
+        if (rank.length() > REBALANCE_THRESHOLD) {
+            pendingColumns.add(new Column(projectId, status));
+        }
+    }
+
+    @Transactional
+    public void rebalanceColumn(Long projectId, TaskStatus status) {
+        List<Task> tasks = taskRepository.findByProjectIdAndStatusOrderByRankAscIdAsc(projectId, status);
+        List<String> ranks = LexoRank.spaced(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setRank(ranks.get(i));
+        }
+        pendingColumns.remove(new Column(projectId, status));
+    }
+
+    @Scheduled(fixedDelayString = "${app.tasks.rank-rebalance-delay-ms:60000}")
+    public void rebalancePendingColumns() {
+        for (Column column : new ArrayList<>(pendingColumns)) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> rebalanceColumn(column.projectId(), column.status()));
+            } catch (Exception e) {
+                logger.warn("Could not rebalance ranks of project {} column {}", column.projectId(), column.status(), e);
+            }
+        }
+    }
+
+    private record Column(Long projectId, TaskStatus status) {
+    }
+}
@@ -1,32 +1,84 @@
 package pl.pbs.zwbackend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.dto.TaskBulkOperation;
+import pl.pbs.zwbackend.dto.TaskBulkRequest;
+import pl.pbs.zwbackend.dto.TaskBoardResponse;
+import pl.pbs.zwbackend.dto.TaskBulkResponse;
 import pl.pbs.zwbackend.dto.TaskCreateRequest;
+import pl.pbs.zwbackend.dto.TaskMoveRequest;
 import pl.pbs.zwbackend.dto.TaskResponse;
+import pl.pbs.zwbackend.dto.TaskRow;
+import pl.pbs.zwbackend.dto.TaskSearchRequest;
 import pl.pbs.zwbackend.dto.TaskUpdateRequest;
 import pl.pbs.zwbackend.dto.UserSummaryResponse;
+import pl.pbs.zwbackend.exception.PreconditionFailedException;
 import pl.pbs.zwbackend.exception.ResourceNotFoundException;
 import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
 import pl.pbs.zwbackend.model.Project;
 import pl.pbs.zwbackend.model.Task;
 import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
 import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.TaskCommentRepository;
+import pl.pbs.zwbackend.repository.TaskCustomFieldValueRepository;
+import pl.pbs.zwbackend.repository.TaskDependencyRepository;
 import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskSpecifications;
+import pl.pbs.zwbackend.repository.TaskTagRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.KeysetCursor;
+import pl.pbs.zwbackend.util.LexoRank;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
+    // Deepest level of the subtask tree; keeps the stored path well within its column
+    private static final int MAX_SUBTASK_DEPTH = 8;
+
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final TaskRankRebalancer taskRankRebalancer;
+    private final TaskFlowService taskFlowService;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final CriticalPathEngine criticalPathEngine;
+    private final ProjectEventPublisher projectEventPublisher;
+    private final TaskCommentRepository taskCommentRepository;
+    private final WorkloadService workloadService;
+    private final CalendarFeedService calendarFeedService;
+    private final CustomFieldService customFieldService;
+    private final TaskCustomFieldValueRepository taskCustomFieldValueRepository;
+    private final TaskFacetIndex taskFacetIndex;
+    private final TaskTagRepository taskTagRepository;
+    private final TaskTagService taskTagService;
+    private final MarkdownRenderer markdownRenderer;
+    private final DueDateScanner dueDateScanner;
 
     @Transactional
     public TaskResponse createTask(TaskCreateRequest taskRequest, String userEmail) {
@@ -42,16 +94,41 @@ public class TaskService {
                     .orElseThrow(() -> new ResourceNotFoundException("User", "email", taskRequest.getAssignedTo()));
         }
 
+        Task parent = null;
+        if (taskRequest.getParentId() != null) {
+            parent = taskRepository.findById(taskRequest.getParentId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskRequest.getParentId()));
+            if (!parent.getProject().getId().equals(project.getId())) {
+                throw new IllegalArgumentException("Parent task must belong to the same project");
+            }
+            if (parent.getDepth() + 1 > MAX_SUBTASK_DEPTH) {
+                throw new IllegalArgumentException("Subtasks cannot be nested deeper than " + MAX_SUBTASK_DEPTH + " levels");
+            }
+        }
+
         Task task = Task.builder()
                 .name(taskRequest.getName())
                 .description(taskRequest.getDescription())
+                .descriptionHtml(markdownRenderer.render(taskRequest.getDescription()))
                 .status(taskRequest.getStatus())
                 .dueDate(taskRequest.getDueDate())
+                .rank(LexoRank.after(taskRepository.findMaxRank(project.getId(), taskRequest.getStatus())))
                 .project(project)
                 .assignedTo(assignedUser)
+                .parent(parent)
+                .path(parent != null ? parent.getPath() + parent.getId() + "/" : "/")
+                .depth(parent != null ? parent.getDepth() + 1 : 0)
                 .build();
+        taskRankRebalancer.requestRebalanceIfNeeded(project.getId(), task.getStatus(), task.getRank());
 
         Task savedTask = taskRepository.save(task);
+        taskFlowService.recordTransition(savedTask, null, savedTask.getStatus(), currentUser);
+        rollUpSubtaskProgress(savedTask, null, savedTask.getStatus());
+        criticalPathEngine.taskSaved(project.getId(), savedTask.getId(), savedTask.getDueDate(), savedTask.getCreatedAt());
+        dueDateScanner.dueDatesChanged(List.of(savedTask));
+        taskFacetIndex.tasksChanged(project.getId(), List.of(savedTask.getId()));
+        projectEventPublisher.created(project.getId(), ProjectChangeEvent.Entity.TASK, savedTask.getId());
+        tasksWritten(List.of(convertToRow(savedTask)));
         return convertToResponse(savedTask);
     }
 
@@ -59,33 +136,133 @@ public class TaskService {
     public TaskResponse getTaskById(Long taskId) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
-        return convertToResponse(task);
+        TaskResponse response = convertToResponse(task);
+        response.setCustomFields(customFieldService.getValues(List.of(taskId)).getOrDefault(taskId, Map.of()));
+        response.setTags(taskTagService.getTags(List.of(taskId)).getOrDefault(taskId, List.of()));
+        return response;
     }
 
     @Transactional(readOnly = true)
     public List<TaskResponse> getAllTasks() {
-        return taskRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertRowsToResponses(taskRepository.findAllRows());
     }
 
     @Transactional(readOnly = true)
     public List<TaskResponse> getTasksByProject(Long projectId) {
+        return getTasksByProject(projectId, null, null, null);
+    }
+
+    /**
+     * Tasks of a project, optionally filtered by custom field values (fieldId:op:value) and
+     * ordered by a custom field, in which case tasks without a value for it are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getTasksByProject(Long projectId, List<String> fieldFilters, Long sortFieldId,
+                                                Sort.Direction direction) {
         if (!projectRepository.existsById(projectId)) {
             throw new ResourceNotFoundException("Project", "id", projectId);
         }
-        return taskRepository.findByProjectId(projectId).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+
+        boolean unfiltered = (fieldFilters == null || fieldFilters.isEmpty()) && sortFieldId == null;
+        List<TaskRow> rows;
+        if (unfiltered) {
+            rows = taskRepository.findRowsByProjectId(projectId);
+        } else {
+            Specification<Task> spec = Specification.where(TaskSpecifications.inProjects(List.of(projectId)))
+                    .and(customFieldService.filterSpecification(fieldFilters))
+                    .and(TaskSpecifications.fetchAssignee());
+            Sort sort = Sort.by("id");
+            if (sortFieldId != null) {
+                spec = spec.and(customFieldService.sortSpecification(sortFieldId,
+                        direction != null ? direction : Sort.Direction.ASC, null, null));
+                sort = Sort.unsorted();
+            }
+            rows = taskRepository.findAll(spec, sort).stream().map(this::convertToRow).collect(Collectors.toList());
+        }
+
+        List<TaskResponse> responses = convertRowsToResponses(rows);
+        // The whole project is read with one query by project; a filtered subset by its ids
+        List<Long> taskIds = rows.stream().map(TaskRow::getId).collect(Collectors.toList());
+        attachCustomFields(responses, unfiltered
+                ? customFieldService.getValuesForProject(projectId)
+                : customFieldService.getValues(taskIds));
+        attachTags(responses, taskTagService.getTags(taskIds));
+        return responses;
+    }
+
+    // Every task below the given one, shallowest first, loaded with one prefix query on the stored path
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getSubtasks(Long taskId) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        return convertRowsToResponses(taskRepository.findSubtreeRows(task.getProject().getId(),
+                task.getPath() + task.getId() + "/%"));
     }
 
     @Transactional(readOnly = true)
     public List<TaskResponse> getTasksAssignedToUser(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
-        return taskRepository.findByAssignedToId(user.getId()).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertRowsToResponses(taskRepository.findRowsByAssigneeId(user.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TaskResponse> searchTasks(TaskSearchRequest request) {
+        TaskSearchRequest.SortField sortField = request.getSort() != null
+                ? request.getSort() : TaskSearchRequest.SortField.CREATED_AT;
+        Sort.Direction direction = request.getDirection() != null ? request.getDirection() : Sort.Direction.DESC;
+
+        if (sortField == TaskSearchRequest.SortField.CUSTOM_FIELD && request.getSortFieldId() == null) {
+            throw new IllegalArgumentException("sortFieldId is required when sorting by a custom field");
+        }
+
+        Specification<Task> spec = Specification.where(TaskSpecifications.inProjects(request.getProjectIds()))
+                .and(TaskSpecifications.hasStatusIn(request.getStatuses()))
+                .and(TaskSpecifications.assignedTo(request.getAssigneeId()))
+                .and(TaskSpecifications.dueBetween(request.getDueFrom(), request.getDueTo()))
+                .and(TaskSpecifications.createdBetween(request.getCreatedFrom(), request.getCreatedTo()))
+                .and(TaskSpecifications.nameStartsWith(request.getNamePrefix()))
+                .and(customFieldService.filterSpecification(request.getFields()))
+                .and(TaskSpecifications.hasAnyTag(TaskTagService.normalize(request.getTags())))
+                .and(TaskSpecifications.fetchAssignee());
+
+        // Keyset pagination needs a non-null sort key, so sorting by due date skips tasks without one
+        if (sortField == TaskSearchRequest.SortField.DUE_DATE) {
+            spec = spec.and(TaskSpecifications.hasDueDate());
+        }
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            spec = spec.and(cursorSpecification(request.getCursor(), sortField, direction, request.getSortFieldId()));
+        } else if (sortField == TaskSearchRequest.SortField.CUSTOM_FIELD) {
+            spec = spec.and(customFieldService.sortSpecification(request.getSortFieldId(), direction, null, null));
+        }
+
+        // A custom field order comes from its specification, which joins the value table
+        String sortAttribute = sortAttribute(sortField);
+        Sort sort = sortAttribute != null
+                ? Sort.by(direction, sortAttribute).and(Sort.by(direction, "id"))
+                : Sort.unsorted();
+        int size = request.getSize();
+        // Fetch one extra row to find out whether there is a next page without a count query
+        List<Task> rows = taskRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+
+        boolean hasMore = rows.size() > size;
+        List<Task> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Task last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(sortField, direction, last.getId(),
+                    sortValue(last, sortField, request.getSortFieldId()));
+        }
+
+        List<TaskResponse> items = convertRowsToResponses(page.stream().map(this::convertToRow).collect(Collectors.toList()));
+        List<Long> pageIds = page.stream().map(Task::getId).collect(Collectors.toList());
+        attachCustomFields(items, customFieldService.getValues(pageIds));
+        attachTags(items, taskTagService.getTags(pageIds));
+        return CursorPageResponse.<TaskResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional
@@ -97,10 +274,7 @@ public class TaskService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
 
         // Check if user has permission to update task (project owner or assigned user)
-        boolean canUpdate = task.getProject().getCreatedBy().getId().equals(currentUser.getId()) ||
-                (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(currentUser.getId()));
-
-        if (!canUpdate) {
+        if (!canUpdateTask(task, currentUser)) {
             throw new UnauthorizedOperationException("User not authorized to update this task");
         }
 
@@ -110,13 +284,89 @@ public class TaskService {
                     .orElseThrow(() -> new ResourceNotFoundException("User", "email", taskRequest.getAssignedTo()));
         }
 
+        TaskRow before = convertToRow(task);
         task.setName(taskRequest.getName());
         task.setDescription(taskRequest.getDescription());
+        task.setDescriptionHtml(markdownRenderer.render(taskRequest.getDescription()));
         task.setStatus(taskRequest.getStatus());
         task.setDueDate(taskRequest.getDueDate());
         task.setAssignedTo(assignedUser);
+        if (task.getStatus() != before.getStatus()) {
+            appendToColumn(task, new HashMap<>());
+        }
 
         Task updatedTask = taskRepository.save(task);
+        taskFlowService.recordTransition(updatedTask, before.getStatus(), updatedTask.getStatus(), currentUser);
+        rollUpSubtaskProgress(updatedTask, before.getStatus(), updatedTask.getStatus());
+        criticalPathEngine.taskSaved(updatedTask.getProject().getId(), updatedTask.getId(),
+                updatedTask.getDueDate(), updatedTask.getCreatedAt());
+        TaskRow after = convertToRow(updatedTask);
+        if (dueDateNoticeChanged(before, after)) {
+            dueDateScanner.dueDatesChanged(List.of(updatedTask));
+        }
+        taskFacetIndex.tasksChanged(after.getProjectId(), List.of(after.getId()));
+        projectEventPublisher.updated(updatedTask.getProject().getId(), ProjectChangeEvent.Entity.TASK,
+                updatedTask.getId(), changedFields(before, after));
+        tasksWritten(List.of(before, after));
+        return convertToResponse(updatedTask);
+    }
+
+    /**
+     * Applies a JSON merge patch (RFC 7386) to a task: only the members present in the patch are
+     * changed and an explicit null clears a nullable field. When {@code expectedVersion} is given
+     * it must match the current version of the task, otherwise the patch is rejected; a concurrent
+     * write that commits in between is detected by the version check of the update itself.
+     */
+    @Transactional
+    public TaskResponse patchTask(Long taskId, JsonNode patch, Long expectedVersion, String userEmail) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Task patch must be a JSON object");
+        }
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+
+        if (!canUpdateTask(task, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to update this task");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new PreconditionFailedException("Task " + taskId + " has been modified, current version is " + task.getVersion());
+        }
+
+        TaskRow before = convertToRow(task);
+        applyPatch(task, patch);
+        if (task.getStatus() != before.getStatus()) {
+            appendToColumn(task, new HashMap<>());
+        }
+
+        List<String> changedFields = changedFields(before, convertToRow(task));
+        if (changedFields.isEmpty()) {
+            return convertToResponse(task);
+        }
+
+        // Flush here so a lost race on the version surfaces as a failed precondition, not at commit
+        Task updatedTask;
+        try {
+            updatedTask = taskRepository.saveAndFlush(task);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Task " + taskId + " has been modified concurrently");
+        }
+        taskFlowService.recordTransition(updatedTask, before.getStatus(), updatedTask.getStatus(), currentUser);
+        rollUpSubtaskProgress(updatedTask, before.getStatus(), updatedTask.getStatus());
+        if (changedFields.contains("dueDate")) {
+            criticalPathEngine.taskSaved(updatedTask.getProject().getId(), updatedTask.getId(),
+                    updatedTask.getDueDate(), updatedTask.getCreatedAt());
+        }
+        TaskRow after = convertToRow(updatedTask);
+        if (dueDateNoticeChanged(before, after)) {
+            dueDateScanner.dueDatesChanged(List.of(updatedTask));
+        }
+        taskFacetIndex.tasksChanged(after.getProjectId(), List.of(after.getId()));
+        projectEventPublisher.updated(updatedTask.getProject().getId(), ProjectChangeEvent.Entity.TASK,
+                updatedTask.getId(), changedFields);
+        tasksWritten(List.of(before, after));
         return convertToResponse(updatedTask);
     }
 
@@ -129,28 +379,605 @@ public class TaskService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
 
         // Check if user has permission to delete task (project owner)
-        if (!task.getProject().getCreatedBy().getId().equals(currentUser.getId())) {
+        if (!canDeleteTask(task, currentUser)) {
             throw new UnauthorizedOperationException("User not authorized to delete this task");
         }
+        requireNoSubtasks(task);
 
+        taskDependencyRepository.deleteByTaskIdIn(List.of(taskId));
+        taskCommentRepository.deleteByTaskIdIn(List.of(taskId));
+        taskCustomFieldValueRepository.deleteByTaskIdIn(List.of(taskId));
+        taskTagRepository.deleteByTaskIdIn(List.of(taskId));
         taskRepository.delete(task);
+        taskFlowService.recordTransition(task, task.getStatus(), null, currentUser);
+        rollUpSubtaskProgress(task, task.getStatus(), null);
+        criticalPathEngine.tasksDeleted(task.getProject().getId(), List.of(taskId));
+        taskFacetIndex.tasksChanged(task.getProject().getId(), List.of(taskId));
+        projectEventPublisher.deleted(task.getProject().getId(), ProjectChangeEvent.Entity.TASK, taskId);
+        tasksWritten(List.of(convertToRow(task)));
     }
 
-    private TaskResponse convertToResponse(Task task) {
-        UserSummaryResponse assignedToSummary = null;
-        if (task.getAssignedTo() != null) {
-            assignedToSummary = userService.convertToUserSummaryResponse(task.getAssignedTo());
+    @Transactional
+    public TaskBulkResponse bulkUpdateTasks(TaskBulkRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        List<TaskBulkOperation> operations = request.getOperations();
+
+        // Resolve every referenced task, project and assignee up front with one query each
+        Set<Long> taskIds = operations.stream()
+                .map(TaskBulkOperation::getTaskId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Task> tasks = taskIds.isEmpty() ? Map.of() : taskRepository.findAllWithProjectByIdIn(taskIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        Set<Long> projectIds = operations.stream()
+                .filter(op -> op.getType() == TaskBulkOperation.Type.CREATE)
+                .map(TaskBulkOperation::getProjectId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Project> projects = projectRepository.findAllById(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+
+        Set<String> assigneeEmails = operations.stream()
+                .map(TaskBulkOperation::getAssignedTo)
+                .filter(email -> email != null && !email.isEmpty())
+                .collect(Collectors.toSet());
+        Map<String, User> assignees = assigneeEmails.isEmpty() ? Map.of() : userRepository.findByEmailIn(assigneeEmails).stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity()));
+
+        List<Task> created = new ArrayList<>();
+        Map<Long, Task> updated = new LinkedHashMap<>();
+        Map<Long, Task> deleted = new LinkedHashMap<>();
+        // State of each touched task before this request, so only the net change is recorded
+        Map<Long, TaskRow> originalRows = new HashMap<>();
+        // Last rank handed out per board column, so created and moved tasks are appended in request order
+        Map<String, String> lastRanks = new HashMap<>();
+
+        for (TaskBulkOperation operation : operations) {
+            if (operation.getType() == TaskBulkOperation.Type.CREATE) {
+                Task task = buildBulkTask(operation, projects, assignees);
+                appendToColumn(task, lastRanks);
+                created.add(task);
+                continue;
+            }
+
+            Long taskId = operation.getTaskId();
+            if (taskId == null) {
+                throw new IllegalArgumentException("Task ID is required for " + operation.getType() + " operations");
+            }
+            if (deleted.containsKey(taskId)) {
+                throw new IllegalArgumentException("Task " + taskId + " is deleted earlier in the same bulk request");
+            }
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                throw new ResourceNotFoundException("Task", "id", taskId);
+            }
+            originalRows.computeIfAbsent(taskId, id -> convertToRow(task));
+
+            if (operation.getType() == TaskBulkOperation.Type.DELETE) {
+                if (!canDeleteTask(task, currentUser)) {
+                    throw new UnauthorizedOperationException("User not authorized to delete task " + taskId);
+                }
+                requireNoSubtasks(task);
+                updated.remove(taskId);
+                deleted.put(taskId, task);
+                continue;
+            }
+
+            if (!canUpdateTask(task, currentUser)) {
+                throw new UnauthorizedOperationException("User not authorized to update task " + taskId);
+            }
+            TaskStatus statusBefore = task.getStatus();
+            switch (operation.getType()) {
+                case UPDATE -> {
+                    if (operation.getName() == null || operation.getName().isBlank()) {
+                        throw new IllegalArgumentException("Task name cannot be blank");
+                    }
+                    task.setName(operation.getName());
+                    task.setDescription(operation.getDescription());
+                    task.setDescriptionHtml(markdownRenderer.render(operation.getDescription()));
+                    task.setStatus(requireStatus(operation));
+                    task.setDueDate(operation.getDueDate());
+                    task.setAssignedTo(resolveAssignee(operation.getAssignedTo(), assignees));
+                }
+                case STATUS_CHANGE -> task.setStatus(requireStatus(operation));
+                case REASSIGN -> task.setAssignedTo(resolveAssignee(operation.getAssignedTo(), assignees));
+                default -> throw new IllegalArgumentException("Unsupported operation type " + operation.getType());
+            }
+            if (task.getStatus() != statusBefore) {
+                appendToColumn(task, lastRanks);
+            }
+            updated.put(taskId, task);
         }
 
-        return TaskResponse.builder()
+        // New tasks take ids from the pooled sequence, so the inserts are sent as JDBC batches on flush.
+        // Updated tasks are managed entities and are flushed as batched updates by dirty checking.
+        taskRepository.saveAll(created);
+        if (!deleted.isEmpty()) {
+            taskDependencyRepository.deleteByTaskIdIn(deleted.keySet());
+            taskCommentRepository.deleteByTaskIdIn(deleted.keySet());
+            taskCustomFieldValueRepository.deleteByTaskIdIn(deleted.keySet());
+            taskTagRepository.deleteByTaskIdIn(deleted.keySet());
+        }
+        taskRepository.deleteAll(deleted.values());
+
+        List<TaskFlowService.StatusChange> statusChanges = new ArrayList<>();
+        created.forEach(task -> statusChanges.add(new TaskFlowService.StatusChange(task, null, task.getStatus())));
+        updated.values().forEach(task -> statusChanges.add(
+                new TaskFlowService.StatusChange(task, originalRows.get(task.getId()).getStatus(), task.getStatus())));
+        deleted.values().forEach(task -> statusChanges.add(
+                new TaskFlowService.StatusChange(task, originalRows.get(task.getId()).getStatus(), null)));
+        taskFlowService.recordTransitions(statusChanges, currentUser);
+        rollUpSubtaskProgress(statusChanges);
+
+        List<TaskRow> createdRows = created.stream().map(this::convertToRow).collect(Collectors.toList());
+        List<TaskRow> updatedRows = updated.values().stream().map(this::convertToRow).collect(Collectors.toList());
+        for (TaskRow row : createdRows) {
+            criticalPathEngine.taskSaved(row.getProjectId(), row.getId(), row.getDueDate(), row.getCreatedAt());
+            projectEventPublisher.created(row.getProjectId(), ProjectChangeEvent.Entity.TASK, row.getId());
+        }
+        for (TaskRow row : updatedRows) {
+            criticalPathEngine.taskSaved(row.getProjectId(), row.getId(), row.getDueDate(), row.getCreatedAt());
+            projectEventPublisher.updated(row.getProjectId(), ProjectChangeEvent.Entity.TASK, row.getId(),
+                    changedFields(originalRows.get(row.getId()), row));
+        }
+        for (Task task : deleted.values()) {
+            projectEventPublisher.deleted(task.getProject().getId(), ProjectChangeEvent.Entity.TASK, task.getId());
+        }
+        Map<Long, List<Long>> deletedByProject = deleted.values().stream()
+                .collect(Collectors.groupingBy(task -> task.getProject().getId(),
+                        Collectors.mapping(Task::getId, Collectors.toList())));
+        deletedByProject.forEach(criticalPathEngine::tasksDeleted);
+        List<Task> dueDateChanges = new ArrayList<>(created);
+        updated.values().stream()
+                .filter(task -> dueDateNoticeChanged(originalRows.get(task.getId()), convertToRow(task)))
+                .forEach(dueDateChanges::add);
+        dueDateScanner.dueDatesChanged(dueDateChanges);
+        List<TaskRow> writtenRows = new ArrayList<>(originalRows.values());
+        writtenRows.addAll(createdRows);
+        writtenRows.addAll(updatedRows);
+        writtenRows.stream()
+                .collect(Collectors.groupingBy(TaskRow::getProjectId, Collectors.mapping(TaskRow::getId, Collectors.toSet())))
+                .forEach(taskFacetIndex::tasksChanged);
+        tasksWritten(writtenRows);
+
+        return TaskBulkResponse.builder()
+                .created(convertRowsToResponses(createdRows))
+                .updated(convertRowsToResponses(updatedRows))
+                .deletedIds(new ArrayList<>(deleted.keySet()))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public TaskBoardResponse getProjectBoard(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project", "id", projectId);
+        }
+
+        Map<TaskStatus, List<TaskResponse>> columns = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            columns.put(status, new ArrayList<>());
+        }
+        // Rows arrive ordered by status and rank, so each column keeps its board order
+        for (TaskResponse task : convertRowsToResponses(taskRepository.findBoardRowsByProjectId(projectId))) {
+            columns.get(task.getStatus()).add(task);
+        }
+
+        return TaskBoardResponse.builder()
+                .projectId(projectId)
+                .columns(columns)
+                .build();
+    }
+
+    @Transactional
+    public TaskResponse moveTask(Long taskId, TaskMoveRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        // Load the task and its new neighbours with one query
+        Set<Long> ids = new HashSet<>();
+        ids.add(taskId);
+        if (request.getPreviousTaskId() != null) {
+            ids.add(request.getPreviousTaskId());
+        }
+        if (request.getNextTaskId() != null) {
+            ids.add(request.getNextTaskId());
+        }
+        Map<Long, Task> tasks = taskRepository.findAllWithProjectByIdIn(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        Task task = tasks.get(taskId);
+        if (task == null) {
+            throw new ResourceNotFoundException("Task", "id", taskId);
+        }
+        if (!canUpdateTask(task, currentUser)) {
+            throw new UnauthorizedOperationException("User not authorized to move this task");
+        }
+
+        TaskStatus status = request.getStatus();
+        Long projectId = task.getProject().getId();
+        Task previous = findNeighbour(tasks, request.getPreviousTaskId(), task, status);
+        Task next = findNeighbour(tasks, request.getNextTaskId(), task, status);
+
+        String rank;
+        Task respaced = null;
+        if (previous != null && next != null) {
+            if (previous.getRank().compareTo(next.getRank()) >= 0) {
+                // Neighbours share a rank (e.g. two concurrent creates read the same maximum) or are out of
+                // order: next is placed right after previous first, so only rows around the move are written
+                String following = taskRepository.findRankAfter(projectId, status, previous.getRank());
+                next.setRank(LexoRank.between(previous.getRank(), following));
+                taskRankRebalancer.requestRebalanceIfNeeded(projectId, status, next.getRank());
+                respaced = next;
+            }
+            rank = LexoRank.between(previous.getRank(), next.getRank());
+        } else if (previous != null) {
+            rank = LexoRank.after(previous.getRank());
+        } else if (next != null) {
+            rank = LexoRank.before(next.getRank());
+        } else {
+            rank = LexoRank.after(taskRepository.findMaxRank(projectId, status));
+        }
+
+        // Only the moved row changes, neighbours keep their ranks unless they collided
+        TaskRow before = convertToRow(task);
+        task.setStatus(status);
+        task.setRank(rank);
+        taskRankRebalancer.requestRebalanceIfNeeded(projectId, status, rank);
+        taskFlowService.recordTransition(task, before.getStatus(), status, currentUser);
+        rollUpSubtaskProgress(task, before.getStatus(), status);
+        if (dueDateNoticeChanged(before, convertToRow(task))) {
+            dueDateScanner.dueDatesChanged(List.of(task));
+        }
+        taskFacetIndex.tasksChanged(projectId, List.of(taskId));
+        projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.TASK, taskId, changedFields(before, convertToRow(task)));
+        if (respaced != null) {
+            projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.TASK, respaced.getId(), List.of("rank"));
+        }
+        tasksWritten(List.of(before));
+
+        return convertToResponse(task);
+    }
+
+    // A task that is created or changes column goes to the end of it; ranks already handed out
+    // in the same request are remembered per column, as the new rows are not flushed yet
+    private void appendToColumn(Task task, Map<String, String> lastRanks) {
+        Long projectId = task.getProject().getId();
+        String column = projectId + ":" + task.getStatus();
+        String lastRank = lastRanks.containsKey(column)
+                ? lastRanks.get(column)
+                : taskRepository.findMaxRank(projectId, task.getStatus());
+        task.setRank(LexoRank.after(lastRank));
+        lastRanks.put(column, task.getRank());
+        taskRankRebalancer.requestRebalanceIfNeeded(projectId, task.getStatus(), task.getRank());
+    }
+
+    private Task findNeighbour(Map<Long, Task> tasks, Long neighbourId, Task task, TaskStatus status) {
+        if (neighbourId == null) {
+            return null;
+        }
+        Task neighbour = tasks.get(neighbourId);
+        if (neighbour == null) {
+            throw new ResourceNotFoundException("Task", "id", neighbourId);
+        }
+        if (neighbour.getId().equals(task.getId())
+                || !neighbour.getProject().getId().equals(task.getProject().getId())
+                || neighbour.getStatus() != status) {
+            throw new IllegalArgumentException("Task " + neighbourId + " is not a valid neighbour in the " + status + " column");
+        }
+        return neighbour;
+    }
+
+    private void applyPatch(Task task, JsonNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            JsonNode value = member.getValue();
+            switch (member.getKey()) {
+                case "name" -> {
+                    String name = patchText(member.getKey(), value);
+                    if (name == null || name.isBlank()) {
+                        throw new IllegalArgumentException("Task name cannot be blank");
+                    }
+                    if (name.length() > 100) {
+                        throw new IllegalArgumentException("Task name cannot exceed 100 characters");
+                    }
+                    task.setName(name);
+                }
+                case "description" -> {
+                    String description = patchText(member.getKey(), value);
+                    if (description != null && description.length() > 500) {
+                        throw new IllegalArgumentException("Task description cannot exceed 500 characters");
+                    }
+                    task.setDescription(description);
+                    task.setDescriptionHtml(markdownRenderer.render(description));
+                }
+                case "status" -> {
+                    String status = patchText(member.getKey(), value);
+                    if (status == null) {
+                        throw new IllegalArgumentException("Task status cannot be null");
+                    }
+                    task.setStatus(TaskStatus.valueOf(status));
+                }
+                case "dueDate" -> {
+                    String dueDate = patchText(member.getKey(), value);
+                    try {
+                        task.setDueDate(dueDate != null ? LocalDate.parse(dueDate) : null);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid due date: " + dueDate);
+                    }
+                }
+                case "assignedTo" -> {
+                    String email = patchText(member.getKey(), value);
+                    if (email == null || email.isEmpty()) {
+                        task.setAssignedTo(null);
+                    } else if (task.getAssignedTo() == null || !email.equals(task.getAssignedTo().getEmail())) {
+                        task.setAssignedTo(userRepository.findByEmail(email)
+                                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email)));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Task field cannot be patched: " + member.getKey());
+            }
+        }
+    }
+
+    private String patchText(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("Task field " + field + " must be a string or null");
+        }
+        return value.asText();
+    }
+
+    private void rollUpSubtaskProgress(Task task, TaskStatus from, TaskStatus to) {
+        rollUpSubtaskProgress(List.of(new TaskFlowService.StatusChange(task, from, to)));
+    }
+
+    /**
+     * Applies status changes to the done/total counters of every ancestor of the changed tasks.
+     * The ancestors come from the stored paths and the deltas are summed per ancestor first, so
+     * each distinct delta is a single atomic UPDATE in the same transaction.
+     */
+    private void rollUpSubtaskProgress(List<TaskFlowService.StatusChange> changes) {
+        Map<Long, List<Integer>> deltas = new HashMap<>();
+        for (TaskFlowService.StatusChange change : changes) {
+            int total = (change.to() != null ? 1 : 0) - (change.from() != null ? 1 : 0);
+            int done = (change.to() == TaskStatus.COMPLETED ? 1 : 0) - (change.from() == TaskStatus.COMPLETED ? 1 : 0);
+            if (total == 0 && done == 0) {
+                continue;
+            }
+            for (String ancestorId : change.task().getPath().split("/")) {
+                if (!ancestorId.isEmpty()) {
+                    deltas.merge(Long.valueOf(ancestorId), List.of(total, done),
+                            (a, b) -> List.of(a.get(0) + b.get(0), a.get(1) + b.get(1)));
+                }
+            }
+        }
+        deltas.entrySet().stream()
+                .filter(entry -> entry.getValue().get(0) != 0 || entry.getValue().get(1) != 0)
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((delta, taskIds) -> taskRepository.adjustSubtaskCounts(taskIds, delta.get(0), delta.get(1)));
+    }
+
+    private void requireNoSubtasks(Task task) {
+        if (task.getSubtaskCount() > 0) {
+            throw new IllegalArgumentException("Task " + task.getId() + " has subtasks and cannot be deleted");
+        }
+    }
+
+    // Invalidates the derived views of the written tasks; rows should cover both old and new assignees
+    private void tasksWritten(List<TaskRow> rows) {
+        workloadService.invalidate();
+        calendarFeedService.usersChanged(rows.stream().map(TaskRow::getAssigneeId).collect(Collectors.toSet()));
+    }
+
+    // Names of the client-visible task fields that differ between the two states
+    private List<String> changedFields(TaskRow before, TaskRow after) {
+        List<String> fields = new ArrayList<>();
+        if (!Objects.equals(before.getName(), after.getName())) {
+            fields.add("name");
+        }
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            fields.add("description");
+        }
+        if (before.getStatus() != after.getStatus()) {
+            fields.add("status");
+        }
+        if (!Objects.equals(before.getDueDate(), after.getDueDate())) {
+            fields.add("dueDate");
+        }
+        if (!Objects.equals(before.getRank(), after.getRank())) {
+            fields.add("rank");
+        }
+        if (!Objects.equals(before.getAssigneeId(), after.getAssigneeId())) {
+            fields.add("assignedTo");
+        }
+        return fields;
+    }
+
+    // The due-date scan does not look back, so a new due date, a new assignee or a reopened task
+    // may need a notification it has already passed
+    private boolean dueDateNoticeChanged(TaskRow before, TaskRow after) {
+        return !Objects.equals(before.getDueDate(), after.getDueDate())
+                || !Objects.equals(before.getAssigneeId(), after.getAssigneeId())
+                || (before.getStatus() == TaskStatus.COMPLETED && after.getStatus() != TaskStatus.COMPLETED);
+    }
+
+    private Task buildBulkTask(TaskBulkOperation operation, Map<Long, Project> projects, Map<String, User> assignees) {
+        if (operation.getName() == null || operation.getName().isBlank()) {
+            throw new IllegalArgumentException("Task name cannot be blank");
+        }
+        if (operation.getProjectId() == null) {
+            throw new IllegalArgumentException("Project ID is required for CREATE operations");
+        }
+        Project project = projects.get(operation.getProjectId());
+        if (project == null) {
+            throw new ResourceNotFoundException("Project", "id", operation.getProjectId());
+        }
+
+        return Task.builder()
+                .name(operation.getName())
+                .description(operation.getDescription())
+                .descriptionHtml(markdownRenderer.render(operation.getDescription()))
+                .status(requireStatus(operation))
+                .dueDate(operation.getDueDate())
+                .project(project)
+                .assignedTo(resolveAssignee(operation.getAssignedTo(), assignees))
+                .build();
+    }
+
+    private TaskStatus requireStatus(TaskBulkOperation operation) {
+        if (operation.getStatus() == null) {
+            throw new IllegalArgumentException("Task status is required for " + operation.getType() + " operations");
+        }
+        return operation.getStatus();
+    }
+
+    private User resolveAssignee(String email, Map<String, User> assignees) {
+        if (email == null || email.isEmpty()) {
+            return null;
+        }
+        User user = assignees.get(email);
+        if (user == null) {
+            throw new ResourceNotFoundException("User", "email", email);
+        }
+        return user;
+    }
+
+    private boolean canUpdateTask(Task task, User user) {
+        return task.getProject().getCreatedBy().getId().equals(user.getId()) ||
+                (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(user.getId()));
+    }
+
+    private boolean canDeleteTask(Task task, User user) {
+        return task.getProject().getCreatedBy().getId().equals(user.getId());
+    }
+
+    private Specification<Task> cursorSpecification(String cursor, TaskSearchRequest.SortField sortField,
+                                                    Sort.Direction direction, Long sortFieldId) {
+        String[] parts = KeysetCursor.decode(cursor, 4);
+        if (!sortField.name().equals(parts[0]) || !direction.name().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        try {
+            Long lastId = Long.valueOf(parts[2]);
+            String value = parts[3];
+            return switch (sortField) {
+                case CREATED_AT -> TaskSpecifications.after("createdAt", LocalDate.parse(value), lastId, direction);
+                case DUE_DATE -> TaskSpecifications.after("dueDate", LocalDate.parse(value), lastId, direction);
+                case NAME -> TaskSpecifications.after("name", value, lastId, direction);
+                case CUSTOM_FIELD -> {
+                    // The value is prefixed with the field id, so a cursor cannot be reused for another field
+                    String[] fieldValue = value.split(":", 2);
+                    if (fieldValue.length != 2 || !fieldValue[0].equals(String.valueOf(sortFieldId))) {
+                        throw new IllegalArgumentException("Cursor does not match the requested sort order");
+                    }
+                    yield customFieldService.sortSpecification(sortFieldId, direction, fieldValue[1], lastId);
+                }
+            };
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    private String sortAttribute(TaskSearchRequest.SortField sortField) {
+        return switch (sortField) {
+            case CREATED_AT -> "createdAt";
+            case DUE_DATE -> "dueDate";
+            case NAME -> "name";
+            case CUSTOM_FIELD -> null;
+        };
+    }
+
+    private Object sortValue(Task task, TaskSearchRequest.SortField sortField, Long sortFieldId) {
+        return switch (sortField) {
+            case CREATED_AT -> task.getCreatedAt();
+            case DUE_DATE -> task.getDueDate();
+            case NAME -> task.getName();
+            case CUSTOM_FIELD -> sortFieldId + ":" + customFieldService.valueAsText(task.getId(), sortFieldId);
+        };
+    }
+
+    private void attachTags(List<TaskResponse> tasks, Map<Long, List<String>> tags) {
+        for (TaskResponse task : tasks) {
+            task.setTags(tags.getOrDefault(task.getId(), List.of()));
+        }
+    }
+
+    private void attachCustomFields(List<TaskResponse> tasks, Map<Long, Map<String, Object>> values) {
+        for (TaskResponse task : tasks) {
+            task.setCustomFields(values.getOrDefault(task.getId(), Map.of()));
+        }
+    }
+
+    private List<TaskResponse> convertRowsToResponses(List<TaskRow> rows) {
+        // Resolve the avatar base URL once per list instead of once per assignee
+        String avatarBaseUrl = rows.stream().anyMatch(row -> row.getAssigneeAvatarFileName() != null)
+                ? userService.getAvatarBaseUrl() : null;
+        return rows.stream()
+                .map(row -> convertToResponse(row, avatarBaseUrl))
+                .collect(Collectors.toList());
+    }
+
+    private TaskRow convertToRow(Task task) {
+        User assignee = task.getAssignedTo();
+        return TaskRow.builder()
                 .id(task.getId())
                 .name(task.getName())
                 .description(task.getDescription())
+                .descriptionHtml(task.getDescriptionHtml())
                 .status(task.getStatus())
-                .projectId(task.getProject().getId())
-                .assignedTo(assignedToSummary)
                 .dueDate(task.getDueDate())
+                .rank(task.getRank())
+                .commentCount(task.getCommentCount())
+                .version(task.getVersion())
+                .parentId(task.getParent() != null ? task.getParent().getId() : null)
+                .depth(task.getDepth())
+                .subtaskCount(task.getSubtaskCount())
+                .subtaskDoneCount(task.getSubtaskDoneCount())
                 .createdAt(task.getCreatedAt())
+                .projectId(task.getProject().getId())
+                .assigneeId(assignee != null ? assignee.getId() : null)
+                .assigneeFirstName(assignee != null ? assignee.getFirstName() : null)
+                .assigneeLastName(assignee != null ? assignee.getLastName() : null)
+                .assigneeEmail(assignee != null ? assignee.getEmail() : null)
+                .assigneeAvatarFileName(assignee != null ? assignee.getAvatarFileName() : null)
+                .build();
+    }
+
+    private TaskResponse convertToResponse(TaskRow row, String avatarBaseUrl) {
+        UserSummaryResponse assignedToSummary = null;
+        if (row.getAssigneeId() != null) {
+            assignedToSummary = userService.convertToUserSummaryResponse(row.getAssigneeId(),
+                    row.getAssigneeFirstName(), row.getAssigneeLastName(), row.getAssigneeEmail(),
+                    row.getAssigneeAvatarFileName(), avatarBaseUrl);
+        }
+
+        return TaskResponse.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .descriptionHtml(row.getDescriptionHtml())
+                .status(row.getStatus())
+                .projectId(row.getProjectId())
+                .assignedTo(assignedToSummary)
+                .dueDate(row.getDueDate())
+                .rank(row.getRank())
+                .commentCount(row.getCommentCount())
+                .version(row.getVersion())
+                .parentId(row.getParentId())
+                .depth(row.getDepth())
+                .subtaskCount(row.getSubtaskCount())
+                .subtaskDoneCount(row.getSubtaskDoneCount())
+                .createdAt(row.getCreatedAt())
                 .build();
     }
+
+    private TaskResponse convertToResponse(Task task) {
+        return convertRowsToResponses(List.of(convertToRow(task))).get(0);
+    }
 }
@@ -0,0 +1,111 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.dto.TaskTagsRequest;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskTag;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskTagRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TaskTagService {
+
+    private final TaskTagRepository taskTagRepository;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final TaskFacetIndex taskFacetIndex;
+    private final ProjectEventPublisher projectEventPublisher;
+
+    /**
+     * Replaces the tags of a task. Only the difference to the stored tags is written.
+     */
+    @Transactional
+    public List<String> setTags(Long taskId, TaskTagsRequest request, String userEmail) {
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        boolean canUpdate = task.getProject().getCreatedBy().getId().equals(currentUser.getId())
+                || (task.getAssignedTo() != null && task.getAssignedTo().getId().equals(currentUser.getId()));
+        if (!canUpdate) {
+            throw new UnauthorizedOperationException("User not authorized to update this task");
+        }
+
+        Set<String> tags = new TreeSet<>(normalize(request.getTags()));
+        List<TaskTag> existing = taskTagRepository.findByTaskId(taskId);
+        Set<String> existingNames = existing.stream().map(TaskTag::getName).collect(Collectors.toSet());
+        if (existingNames.equals(tags)) {
+            return List.copyOf(tags);
+        }
+
+        taskTagRepository.deleteAll(existing.stream()
+                .filter(tag -> !tags.contains(tag.getName()))
+                .collect(Collectors.toList()));
+        taskTagRepository.saveAll(tags.stream()
+                .filter(name -> !existingNames.contains(name))
+                .map(name -> TaskTag.builder().task(task).name(name).build())
+                .collect(Collectors.toList()));
+
+        Long projectId = task.getProject().getId();
+        taskFacetIndex.tasksChanged(projectId, List.of(taskId));
+        projectEventPublisher.updated(projectId, ProjectChangeEvent.Entity.TASK, taskId, List.of("tags"));
+        return List.copyOf(tags);
+    }
+
+    // Tag names of each of the tasks, loaded with one query
+    @Transactional(readOnly = true)
+    public Map<Long, List<String>> getTags(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (Object[] row : taskTagRepository.findTagRowsByTaskIdIn(taskIds)) {
+            tags.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return tags;
+    }
+
+    @Transactional(readOnly = true)
+    public TaskFacetResponse getFacets(Long projectId, Set<TaskStatus> statuses, Set<Long> assigneeIds,
+                                       Set<String> tags, String userEmail) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project", "id", projectId);
+        }
+        if (!projectRepository.hasMember(projectId, userEmail)) {
+            throw new UnauthorizedOperationException("User not authorized to view tasks of this project");
+        }
+        return taskFacetIndex.facets(projectId, statuses, assigneeIds, normalize(tags));
+    }
+
+    // Tags are stored trimmed and lower-cased, so lookups are case-insensitive
+    public static Set<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        return tags.stream()
+                .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+}
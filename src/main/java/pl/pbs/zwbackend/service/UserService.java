@@ -1,22 +1,21 @@
 package pl.pbs.zwbackend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 import pl.pbs.zwbackend.dto.UserSummaryResponse;
 import pl.pbs.zwbackend.dto.RegisterRequest;
 import pl.pbs.zwbackend.exception.ResourceNotFoundException;
 import pl.pbs.zwbackend.model.User;
 import pl.pbs.zwbackend.model.enums.Role;
 import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.RangeDownload;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,9 +26,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
-
-    @Value("${file.avatar-subdir}")
-    private String avatarSubDirectory;
+    private final BlobStorageService blobStorageService;
 
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
@@ -58,33 +55,28 @@ public class UserService {
             throw new IllegalArgumentException("Unsupported file type. Only images are allowed.");
         }
 
-        // Delete old avatar if exists
-        if (user.getAvatarFileName() != null) {
-            try {
-                fileStorageService.deleteFile(user.getAvatarFileName(), avatarSubDirectory);
-            } catch (Exception e) {
-                // Log but don't fail if old file deletion fails
-            }
-        }
-
-        String storedFileName = fileStorageService.storeFile(file, avatarSubDirectory);
+        String previousBlobHash = user.getAvatarBlobHash();
+        BlobStorageService.StoredBlob blob = blobStorageService.store(file);
         
-        user.setAvatarFileName(storedFileName);
+        user.setAvatarFileName(fileStorageService.newStoredFileName(file.getOriginalFilename()));
+        user.setAvatarBlobHash(blob.hash());
         user.setAvatarContentType(file.getContentType());
         userRepository.save(user);
 
+        // Released only after the new reference is taken, so re-uploading the same picture keeps its bytes
+        blobStorageService.release(previousBlobHash);
+
         return convertToUserSummaryResponse(user);
     }
 
-    public ResponseEntity<Resource> serveAvatar(String fileName) {
-        Resource resource = fileStorageService.loadFileAsResource(fileName, avatarSubDirectory);
+    @Transactional(readOnly = true)
+    public RangeDownload serveAvatar(String fileName) {
         User user = userRepository.findByAvatarFileName(fileName)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "avatarFileName", fileName));
+        Path path = blobStorageService.path(user.getAvatarBlobHash());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(user.getAvatarContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                .body(resource);
+        return new RangeDownload(path, user.getAvatarContentType(), fileName, true,
+                BlobStorageService.eTag(user.getAvatarBlobHash()));
     }
 
     @Transactional
@@ -93,8 +85,9 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
 
         if (user.getAvatarFileName() != null) {
-            fileStorageService.deleteFile(user.getAvatarFileName(), avatarSubDirectory);
+            blobStorageService.release(user.getAvatarBlobHash());
             user.setAvatarFileName(null);
+            user.setAvatarBlobHash(null);
             user.setAvatarContentType(null);
             userRepository.save(user);
         }
@@ -113,20 +106,28 @@ public class UserService {
     }
 
     public UserSummaryResponse convertToUserSummaryResponse(User user) {
-        String avatarUrl = null;
-        if (user.getAvatarFileName() != null) {
-            avatarUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/users/avatar/")
-                    .path(user.getAvatarFileName())
-                    .toUriString();
-        }
+        String avatarBaseUrl = user.getAvatarFileName() != null ? getAvatarBaseUrl() : null;
+        return convertToUserSummaryResponse(user.getId(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.getAvatarFileName(), avatarBaseUrl);
+    }
 
+    // Builds a summary from projected columns; avatarBaseUrl is resolved once per list by the caller
+    public UserSummaryResponse convertToUserSummaryResponse(Long id, String firstName, String lastName, String email,
+                                                            String avatarFileName, String avatarBaseUrl) {
         return UserSummaryResponse.builder()
-                .id(user.getId())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .email(user.getEmail())
-                .avatarUrl(avatarUrl)
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                // The stored name keeps the client's extension, so it is encoded as a path segment
+                .avatarUrl(avatarFileName != null
+                        ? avatarBaseUrl + UriUtils.encodePathSegment(avatarFileName, StandardCharsets.UTF_8) : null)
                 .build();
     }
+
+    public String getAvatarBaseUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/users/avatar/")
+                .toUriString();
+    }
 }
@@ -0,0 +1,121 @@
+package pl.pbs.zwbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pbs.zwbackend.dto.WorkloadResponse;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.AfterCommit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open, overdue and due-this-week task counts per assignee across the projects the caller manages
+ * (owns, or holds the OWNER or MANAGER role in). Results are computed with a single grouped query
+ * and cached per caller for a short time; any task write drops the whole cache once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkloadService {
+
+    private static final List<ProjectRole> MANAGING_ROLES = List.of(ProjectRole.OWNER, ProjectRole.MANAGER);
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    @Value("${app.workload.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    private final Map<Long, CachedWorkload> cache = new ConcurrentHashMap<>();
+    // Bumped on every task write, so a result computed while a write commits is never cached as current
+    private final AtomicLong generation = new AtomicLong();
+
+    @Transactional(readOnly = true)
+    public List<WorkloadResponse> getWorkload(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userEmail));
+
+        long currentGeneration = generation.get();
+        CachedWorkload cached = cache.get(user.getId());
+        if (cached != null && cached.generation() == currentGeneration && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.workload();
+        }
+
+        List<WorkloadResponse> workload = computeWorkload(user.getId());
+        cache.put(user.getId(), new CachedWorkload(currentGeneration, System.currentTimeMillis() + cacheTtlMs, workload));
+        return workload;
+    }
+
+    /**
+     * Called by every task mutation; the cache is dropped after the transaction commits so a
+     * concurrent read cannot repopulate it with the state from before the write.
+     */
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            cache.clear();
+        });
+    }
+
+    private List<WorkloadResponse> computeWorkload(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate weekEnd = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+
+        Map<Long, WorkloadResponse> byUser = new LinkedHashMap<>();
+        String avatarBaseUrl = null;
+        for (Object[] row : taskRepository.aggregateWorkload(userId, MANAGING_ROLES, today, weekEnd)) {
+            Long assigneeId = (Long) row[0];
+            String avatarFileName = (String) row[4];
+            if (avatarFileName != null && avatarBaseUrl == null) {
+                avatarBaseUrl = userService.getAvatarBaseUrl();
+            }
+            String baseUrl = avatarBaseUrl;
+            WorkloadResponse workload = byUser.computeIfAbsent(assigneeId, id -> WorkloadResponse.builder()
+                    .user(userService.convertToUserSummaryResponse(id, (String) row[1], (String) row[2],
+                            (String) row[3], avatarFileName, baseUrl))
+                    .counts(emptyCounts())
+                    .build());
+
+            TaskStatus status = (TaskStatus) row[5];
+            long count = ((Number) row[6]).longValue();
+            workload.getCounts().put(status, count);
+            if (status != TaskStatus.COMPLETED) {
+                workload.setOpenCount(workload.getOpenCount() + count);
+            }
+            workload.setOverdueCount(workload.getOverdueCount() + ((Number) row[7]).longValue());
+            workload.setDueThisWeekCount(workload.getDueThisWeekCount() + ((Number) row[8]).longValue());
+        }
+
+        List<WorkloadResponse> workload = new ArrayList<>(byUser.values());
+        workload.sort(Comparator.comparingLong(WorkloadResponse::getOpenCount).reversed());
+        return List.copyOf(workload);
+    }
+
+    private static Map<TaskStatus, Long> emptyCounts() {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+
+    private record CachedWorkload(long generation, long expiresAt, List<WorkloadResponse> workload) {
+    }
+}
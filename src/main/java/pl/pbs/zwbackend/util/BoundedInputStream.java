@@ -0,0 +1,64 @@
+package pl.pbs.zwbackend.util;
+
+import pl.pbs.zwbackend.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Passes a stream through until more than {@code maxBytes} have been read, then fails with
+ * {@link PayloadTooLargeException}. Used for request bodies whose length is not known up front,
+ * so an oversized upload is stopped as soon as it crosses the limit instead of after it has been
+ * stored.
+ */
+public final class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final String limitMessage;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long maxBytes, String limitMessage) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.limitMessage = limitMessage;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    // Marking would let the count run backwards
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long bytes) {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new PayloadTooLargeException(limitMessage);
+        }
+    }
+}
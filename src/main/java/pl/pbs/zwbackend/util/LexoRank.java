@@ -0,0 +1,132 @@
+package pl.pbs.zwbackend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexicographic ranks used to order tasks inside a board column. A rank is a base-36 fraction
+ * written with the digits 0-9a-z and never ends with '0', so comparing two ranks as strings
+ * compares their values. A new rank can always be generated between two existing ones, which
+ * makes moving a card a single-row update; ranks only get longer when cards are repeatedly
+ * inserted at the same spot, and {@link #spaced(int)} is used to rebalance such columns.
+ */
+public final class LexoRank {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    // Appends and prepends step through a fixed-width space so they do not grow the rank
+    private static final int WIDTH = 6;
+    private static final long SPACE = pow(BASE, WIDTH);
+    private static final long STEP = pow(BASE, 3);
+    private static final int MAX_LENGTH = 64;
+
+    public static final String INITIAL = encode(SPACE / 2);
+
+    private LexoRank() {
+    }
+
+    /**
+     * Returns a rank strictly between the two given ranks. A null lower bound means the start of
+     * the column and a null upper bound means its end.
+     */
+    public static String between(String lower, String upper) {
+        String low = lower == null ? "" : lower;
+        String high = upper;
+        if (high != null && low.compareTo(high) >= 0) {
+            throw new IllegalArgumentException("Lower rank must be smaller than upper rank");
+        }
+
+        StringBuilder rank = new StringBuilder();
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            int lowDigit = i < low.length() ? digit(low.charAt(i)) : 0;
+            int highDigit = high == null ? BASE : (i < high.length() ? digit(high.charAt(i)) : 0);
+            if (lowDigit == highDigit) {
+                rank.append(DIGITS.charAt(lowDigit));
+                continue;
+            }
+            int middle = (lowDigit + highDigit) / 2;
+            if (middle > lowDigit) {
+                return rank.append(DIGITS.charAt(middle)).toString();
+            }
+            // Adjacent digits: keep the lower one and look for a rank above the rest of the lower bound
+            rank.append(DIGITS.charAt(lowDigit));
+            high = null;
+        }
+        throw new IllegalStateException("Rank space exhausted, the column needs rebalancing");
+    }
+
+    /**
+     * Returns a rank after the given one, used to append a card at the end of a column.
+     */
+    public static String after(String lower) {
+        if (lower == null) {
+            return INITIAL;
+        }
+        long next = prefixValue(lower) + STEP;
+        return next < SPACE ? encode(next) : between(lower, null);
+    }
+
+    /**
+     * Returns a rank before the given one, used to put a card at the top of a column.
+     */
+    public static String before(String upper) {
+        if (upper == null) {
+            return INITIAL;
+        }
+        long previous = prefixValue(upper) - STEP;
+        return previous > 0 ? encode(previous) : between(null, upper);
+    }
+
+    /**
+     * Returns {@code count} ascending ranks spread evenly over the fixed-width space.
+     */
+    public static List<String> spaced(int count) {
+        List<String> ranks = new ArrayList<>(count);
+        long gap = SPACE / (count + 1L);
+        if (gap == 0) {
+            throw new IllegalArgumentException("Too many ranks requested: " + count);
+        }
+        for (int i = 1; i <= count; i++) {
+            ranks.add(encode(gap * i));
+        }
+        return ranks;
+    }
+
+    private static long prefixValue(String rank) {
+        long value = 0;
+        for (int i = 0; i < WIDTH; i++) {
+            value = value * BASE + (i < rank.length() ? digit(rank.charAt(i)) : 0);
+        }
+        return value;
+    }
+
+    private static String encode(long value) {
+        char[] digits = new char[WIDTH];
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = WIDTH;
+        while (length > 1 && digits[length - 1] == '0') {
+            length--;
+        }
+        return new String(digits, 0, length);
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid rank character: " + c);
+        }
+        return digit;
+    }
+
+    private static long pow(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+package pl.pbs.zwbackend.util;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stored file served with HTTP range support (RFC 9110 section 14). Conditional requests are
+ * answered with 304/412 against the ETag and modification time, a {@code Range} header with 206
+ * and one or more byte ranges (multipart/byteranges for several), honouring {@code If-Range}.
+ * <p>
+ * Single-part bodies are handed to the container's sendfile support when it is available, so the
+ * bytes go from the page cache to the socket without passing through the JVM; otherwise they are
+ * copied with {@link FileChannel#transferTo}.
+ */
+public final class RangeDownload {
+
+    // Tomcat request attributes for sendfile; the end offset is exclusive
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this size a plain copy is cheaper than setting up sendfile
+    static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final Path path;
+    private final String contentType;
+    private final String fileName;
+    private final boolean inline;
+    private final String eTag;
+
+    /**
+     * @param eTag strong entity tag, quoted; it must change whenever the file content does
+     */
+    public RangeDownload(Path path, String contentType, String fileName, boolean inline, String eTag) {
+        this.path = path;
+        this.contentType = contentType;
+        this.fileName = fileName;
+        this.inline = inline;
+        this.eTag = eTag;
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder(inline ? "inline" : "attachment")
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        List<HttpRange> ranges = requestedRanges(request, lastModified);
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            send(request, response, 0, length);
+            return;
+        }
+
+        List<long[]> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || end < start) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            regions.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        // Overlapping ranges that add up to more than the file are served as a whole instead
+        if (regions.size() > 1 && total > length) {
+            response.setContentType(contentType);
+            send(request, response, 0, length);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long[] region = regions.get(0);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, length));
+            send(request, response, region[0], region[1] - region[0] + 1);
+        } else {
+            sendMultipart(request, response, regions, length);
+        }
+    }
+
+    /**
+     * Returns the ranges to serve, or an empty list when the whole file has to be sent: no or a
+     * malformed {@code Range} header, or an {@code If-Range} validator that no longer matches.
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, long lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !"GET".equals(request.getMethod()) || !ifRangeMatches(request, lastModified)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    // Only a strong comparison counts, so weak tags never match; dates must equal Last-Modified to the second
+    private boolean ifRangeMatches(HttpServletRequest request, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, long position, long count) throws IOException {
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The container writes the body itself once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(channel, position, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void sendMultipart(HttpServletRequest request, HttpServletResponse response,
+                               List<long[]> regions, long length) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (long[] region : regions) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + region[1] - region[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        response.setContentLengthLong(contentLength + closing.length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < regions.size(); i++) {
+                long[] region = regions.get(i);
+                out.write(partHeaders.get(i));
+                transfer(channel, region[0], region[1] - region[0] + 1, target);
+            }
+        }
+        out.write(closing);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                // The file was truncated while it was being sent
+                throw new IOException("Unexpected end of file at position " + position);
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    private static String contentRange(long[] region, long length) {
+        return "bytes " + region[0] + "-" + region[1] + "/" + length;
+    }
+}
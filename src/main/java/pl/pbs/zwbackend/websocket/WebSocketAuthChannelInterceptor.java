@@ -7,19 +7,34 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import pl.pbs.zwbackend.repository.ProjectRepository;
 import pl.pbs.zwbackend.security.JwtTokenProvider;
 import pl.pbs.zwbackend.service.CustomUserDetailsService;
+import pl.pbs.zwbackend.service.NotificationService;
+import pl.pbs.zwbackend.service.ProjectEventPublisher;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
     
+    static final String PUBLIC_CHAT_TOPIC = "/topic/public";
+    static final String USER_NOTIFICATION_QUEUE = "/user" + NotificationService.USER_QUEUE;
+    private static final Pattern PROJECT_TOPIC = Pattern.compile(Pattern.quote(ProjectEventPublisher.PROJECT_TOPIC_PREFIX) + "(\\d{1,18})");
+    // Ant pattern and URI template characters the broker would expand
+    private static final Pattern WILDCARDS = Pattern.compile("[*?{}]");
+    
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final ProjectRepository projectRepository;
     
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -47,6 +62,44 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
             }
         }
         
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor);
+        }
+        
         return message;
     }
+    
+    /**
+     * The simple broker matches subscriptions as Ant patterns, so a wildcard subscription would
+     * receive every project's events. Only exact, known destinations are allowed: the public chat,
+     * the topic of a project the user is a member of and the user's own notification queue.
+     * Everything else, including direct subscriptions to /queue, is denied.
+     */
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || WILDCARDS.matcher(destination).find()) {
+            throw new AccessDeniedException("Invalid subscription destination " + destination);
+        }
+        if (PUBLIC_CHAT_TOPIC.equals(destination)) {
+            return;
+        }
+
+        Principal user = accessor.getUser();
+        if (user == null) {
+            throw new AccessDeniedException("Authentication required to subscribe to " + destination);
+        }
+        // Resolved by the user destination handler to a queue of this session only
+        if (USER_NOTIFICATION_QUEUE.equals(destination)) {
+            return;
+        }
+
+        Matcher projectTopic = PROJECT_TOPIC.matcher(destination);
+        if (!projectTopic.matches()) {
+            throw new AccessDeniedException("Subscription to " + destination + " is not allowed");
+        }
+        Long projectId = Long.valueOf(projectTopic.group(1));
+        if (!projectRepository.hasMember(projectId, user.getName())) {
+            throw new AccessDeniedException("User not authorized to subscribe to project " + projectId);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package pl.pbs.zwbackend.repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.service.BlobStorageService;
+import pl.pbs.zwbackend.service.FileStorageService;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+// Uses the PostgreSQL-mode test database for the native upsert and commits for real, so two
+// transactions can overlap
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BlobStorageService.class)
+@ActiveProfiles("test")
+class FileBlobRepositoryTest {
+    private static final String HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+    
+    @Autowired
+    private BlobStorageService blobStorageService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @MockBean
+    private FileStorageService fileStorageService;
+    
+    @AfterEach
+    void tearDown() {
+        fileBlobRepository.deleteAll();
+    }
+    
+    @Test
+    void store_ConcurrentUploadsOfSameNewContent_ShareOneRow() throws Exception {
+        CountDownLatch firstStored = new CountDownLatch(1);
+        
+        // The first upload keeps its transaction open after inserting, so the second has to wait for it
+        CompletableFuture<BlobStorageService.StoredBlob> first = CompletableFuture.supplyAsync(() ->
+            transactionTemplate.execute(tx -> {
+                BlobStorageService.StoredBlob blob = blobStorageService.store(staged("first.tmp"));
+                firstStored.countDown();
+                pause();
+                return blob;
+            }));
+        assertTrue(firstStored.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BlobStorageService.StoredBlob> second = CompletableFuture.supplyAsync(() ->
+            transactionTemplate.execute(tx -> blobStorageService.store(staged("second.tmp"))));
+        
+        assertEquals(HASH, first.get(10, TimeUnit.SECONDS).hash());
+        assertEquals(HASH, second.get(10, TimeUnit.SECONDS).hash());
+        assertEquals(1, fileBlobRepository.count());
+        assertEquals(2L, fileBlobRepository.findById(HASH).orElseThrow().getRefCount());
+    }
+    
+    @Test
+    void store_KnownContent_AddsReferenceToExistingRow() {
+        transactionTemplate.execute(tx -> blobStorageService.store(staged("first.tmp")));
+        transactionTemplate.execute(tx -> blobStorageService.store(staged("second.tmp")));
+        
+        assertEquals(2L, fileBlobRepository.findById(HASH).orElseThrow().getRefCount());
+        assertEquals(5L, fileBlobRepository.findById(HASH).orElseThrow().getSize());
+    }
+    
+    private BlobStorageService.StagedBlob staged(String fileName) {
+        return new BlobStorageService.StagedBlob(Path.of(fileName), HASH, 5L);
+    }
+    
+    private static void pause() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
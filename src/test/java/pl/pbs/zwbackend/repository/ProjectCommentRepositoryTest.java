@@ -0,0 +1,132 @@
+package pl.pbs.zwbackend.repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectComment;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.ProjectStatus;
+import pl.pbs.zwbackend.model.enums.Role;
+import pl.pbs.zwbackend.service.MarkdownRenderer;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest
+@ActiveProfiles("test")
+class ProjectCommentRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectCommentRepository projectCommentRepository;
+
+    private User testUser;
+    private Project testProject;
+
+    @BeforeEach
+    void setUp() {
+        testUser = entityManager.persistAndFlush(User.builder()
+            .firstName("John")
+            .lastName("Doe")
+            .email("john.doe@example.com")
+            .password("password123")
+            .role(Role.USER)
+            .build());
+
+        testProject = entityManager.persistAndFlush(Project.builder()
+            .name("Test Project")
+            .status(ProjectStatus.NOT_STARTED)
+            .createdBy(testUser)
+            .build());
+    }
+
+    private ProjectComment persistComment(String content, ProjectComment parent) {
+        return entityManager.persistAndFlush(ProjectComment.builder()
+            .project(testProject)
+            .user(testUser)
+            .content(content)
+            .parent(parent)
+            .path(parent != null ? parent.getPath() + parent.getId() + "/" : "/")
+            .depth(parent != null ? parent.getDepth() + 1 : 0)
+            .build());
+    }
+
+    @Test
+    void threadQueries_ReturnTopLevelPageFirstRepliesAndSubtree() {
+        ProjectComment first = persistComment("First", null);
+        ProjectComment second = persistComment("Second", null);
+        ProjectComment reply1 = persistComment("Reply 1", first);
+        ProjectComment reply2 = persistComment("Reply 2", first);
+        persistComment("Reply 3", first);
+        ProjectComment nested = persistComment("Nested", reply1);
+        ProjectComment otherReply = persistComment("Other reply", second);
+        projectCommentRepository.adjustReplyCounts(List.of(first.getId()), 4);
+        entityManager.clear();
+
+        List<ProjectComment> topLevel = projectCommentRepository.findFirstPageByProjectId(testProject.getId(), Limit.of(10));
+        List<Long> firstReplies = projectCommentRepository.findFirstReplyIds(List.of(first.getId(), second.getId()), 2);
+        List<ProjectComment> subtree = projectCommentRepository.findSubtree(testProject.getId(), "/" + first.getId() + "/%");
+
+        assertEquals(2, topLevel.size());
+        assertTrue(topLevel.stream().allMatch(comment -> comment.getDepth() == 0));
+        assertEquals(List.of(reply1.getId(), reply2.getId(), otherReply.getId()), firstReplies.stream().sorted().toList());
+        assertEquals(4, subtree.size());
+        assertEquals(nested.getId(), subtree.get(3).getId());
+        assertEquals(4, projectCommentRepository.findById(first.getId()).orElseThrow().getReplyCount());
+    }
+
+    @Test
+    void keysetPages_NewestFirstWithTiesBrokenById() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 12, 0);
+        ProjectComment oldest = persistComment("Oldest", null);
+        ProjectComment tiedLow = persistComment("Tied low", null);
+        ProjectComment tiedHigh = persistComment("Tied high", null);
+        ProjectComment newest = persistComment("Newest", null);
+        ProjectComment reply = persistComment("Reply", newest);
+        setCreatedAt(oldest, base);
+        setCreatedAt(tiedLow, base.plusMinutes(1));
+        setCreatedAt(tiedHigh, base.plusMinutes(1));
+        setCreatedAt(newest, base.plusMinutes(2));
+        setCreatedAt(reply, base.plusMinutes(3));
+        entityManager.clear();
+
+        List<ProjectComment> first = projectCommentRepository.findFirstPageByProjectId(testProject.getId(), Limit.of(2));
+        List<ProjectComment> second = projectCommentRepository.findPageByProjectIdBefore(testProject.getId(),
+            base.plusMinutes(1), tiedHigh.getId(), Limit.of(2));
+        List<ProjectComment> afterTie = projectCommentRepository.findPageByProjectIdBefore(testProject.getId(),
+            base.plusMinutes(1), tiedLow.getId(), Limit.of(2));
+        List<ProjectComment> end = projectCommentRepository.findPageByProjectIdBefore(testProject.getId(),
+            base, oldest.getId(), Limit.of(2));
+
+        assertEquals(List.of(newest.getId(), tiedHigh.getId()), first.stream().map(ProjectComment::getId).toList());
+        assertEquals(List.of(tiedLow.getId(), oldest.getId()), second.stream().map(ProjectComment::getId).toList());
+        assertEquals(List.of(oldest.getId()), afterTie.stream().map(ProjectComment::getId).toList());
+        assertTrue(end.isEmpty());
+    }
+
+    // created_at is set by Hibernate on insert, so equal timestamps are written directly
+    private void setCreatedAt(ProjectComment comment, LocalDateTime createdAt) {
+        entityManager.getEntityManager()
+            .createNativeQuery("UPDATE project_comments SET created_at = :createdAt WHERE id = :id")
+            .setParameter("createdAt", createdAt)
+            .setParameter("id", comment.getId())
+            .executeUpdate();
+    }
+
+    @Test
+    void save_DeeplyNestedMarkdown_StoresRenderedHtmlLongerThanSource() {
+        String content = ">".repeat(1000);
+        String html = new MarkdownRenderer().render(content);
+        ProjectComment comment = persistComment(content, null);
+        comment.setContentHtml(html);
+        entityManager.persistAndFlush(comment);
+        entityManager.clear();
+
+        assertTrue(html.length() > 10000);
+        assertEquals(html, projectCommentRepository.findById(comment.getId()).orElseThrow().getContentHtml());
+    }
+}
@@ -6,7 +6,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectUser;
 import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
 import pl.pbs.zwbackend.model.enums.ProjectStatus;
 import pl.pbs.zwbackend.model.enums.Role;
 import java.time.LocalDate;
@@ -120,4 +122,35 @@ class ProjectRepositoryTest {
         Optional<Project> found = projectRepository.findById(savedProject.getId());
         assertFalse(found.isPresent());
     }
+    
+    @Test
+    void hasMember_OwnerAndAssignedUser_ReturnsTrueOnlyForMembers() {
+        User member = User.builder()
+            .firstName("Jane")
+            .lastName("Smith")
+            .email("jane.smith@example.com")
+            .password("password123")
+            .role(Role.USER)
+            .build();
+        User outsider = User.builder()
+            .firstName("Bob")
+            .lastName("Brown")
+            .email("bob.brown@example.com")
+            .password("password123")
+            .role(Role.USER)
+            .build();
+        entityManager.persistAndFlush(testUser);
+        entityManager.persistAndFlush(member);
+        entityManager.persistAndFlush(outsider);
+        entityManager.persistAndFlush(testProject);
+        entityManager.persistAndFlush(ProjectUser.builder()
+            .project(testProject)
+            .user(member)
+            .role(ProjectRole.DEVELOPER)
+            .build());
+        
+        assertTrue(projectRepository.hasMember(testProject.getId(), testUser.getEmail()));
+        assertTrue(projectRepository.hasMember(testProject.getId(), member.getEmail()));
+        assertFalse(projectRepository.hasMember(testProject.getId(), outsider.getEmail()));
+    }
 }
@@ -0,0 +1,209 @@
+package pl.pbs.zwbackend.repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import pl.pbs.zwbackend.dto.TaskRow;
+import pl.pbs.zwbackend.model.CustomFieldDefinition;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.TaskCustomFieldValue;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.CustomFieldType;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.model.enums.ProjectStatus;
+import pl.pbs.zwbackend.model.enums.Role;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+@DataJpaTest
+@ActiveProfiles("test")
+class TaskRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private User testUser;
+    private Project testProject;
+
+    @BeforeEach
+    void setUp() {
+        testUser = entityManager.persistAndFlush(User.builder()
+            .firstName("John")
+            .lastName("Doe")
+            .email("john.doe@example.com")
+            .password("password123")
+            .role(Role.USER)
+            .build());
+
+        testProject = entityManager.persistAndFlush(Project.builder()
+            .name("Test Project")
+            .status(ProjectStatus.NOT_STARTED)
+            .createdBy(testUser)
+            .build());
+    }
+
+    private Task persistTask(String name, TaskStatus status, LocalDate dueDate) {
+        return entityManager.persistAndFlush(Task.builder()
+            .name(name)
+            .status(status)
+            .dueDate(dueDate)
+            .project(testProject)
+            .assignedTo(testUser)
+            .build());
+    }
+
+    @Test
+    void findBy_StatusAndNamePrefix_ReturnsMatchingTasks() {
+        persistTask("Backend API", TaskStatus.TODO, null);
+        persistTask("Backend tests", TaskStatus.COMPLETED, null);
+        persistTask("Frontend", TaskStatus.TODO, null);
+
+        Specification<Task> spec = Specification.where(TaskSpecifications.inProjects(List.of(testProject.getId())))
+            .and(TaskSpecifications.hasStatusIn(EnumSet.of(TaskStatus.TODO)))
+            .and(TaskSpecifications.nameStartsWith("Backend"));
+
+        List<Task> tasks = taskRepository.findAll(spec);
+
+        assertEquals(1, tasks.size());
+        assertEquals("Backend API", tasks.get(0).getName());
+    }
+
+    @Test
+    void findBy_KeysetAfterDueDate_ReturnsNextRowsInOrder() {
+        LocalDate today = LocalDate.now();
+        Task first = persistTask("A", TaskStatus.TODO, today);
+        Task second = persistTask("B", TaskStatus.TODO, today);
+        Task third = persistTask("C", TaskStatus.TODO, today.plusDays(1));
+
+        Specification<Task> spec = Specification.where(TaskSpecifications.hasDueDate())
+            .and(TaskSpecifications.after("dueDate", first.getDueDate(), first.getId(), Sort.Direction.ASC));
+        Sort sort = Sort.by(Sort.Direction.ASC, "dueDate").and(Sort.by(Sort.Direction.ASC, "id"));
+
+        List<Task> tasks = taskRepository.findBy(spec, query -> query.sortBy(sort).limit(10).all());
+
+        assertEquals(List.of(second.getId(), third.getId()), tasks.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void findRowsByProjectId_ReturnsAssigneeColumns() {
+        Task task = persistTask("Projected", TaskStatus.TODO, null);
+        entityManager.clear();
+
+        List<TaskRow> rows = taskRepository.findRowsByProjectId(testProject.getId());
+
+        assertEquals(1, rows.size());
+        assertEquals(task.getId(), rows.get(0).getId());
+        assertEquals(testProject.getId(), rows.get(0).getProjectId());
+        assertEquals(testUser.getEmail(), rows.get(0).getAssigneeEmail());
+    }
+
+    @Test
+    void incrementCommentCount_UpdatesCounterVisibleInRows() {
+        Task task = persistTask("Commented", TaskStatus.TODO, null);
+        
+        taskRepository.incrementCommentCount(task.getId(), 1);
+        taskRepository.incrementCommentCount(task.getId(), 1);
+        entityManager.clear();
+        
+        List<TaskRow> rows = taskRepository.findRowsByProjectId(testProject.getId());
+        
+        assertEquals(2, rows.get(0).getCommentCount());
+    }
+
+    @Test
+    void aggregateWorkload_CountsByAssigneeAndStatusInOwnedProjects() {
+        LocalDate today = LocalDate.now();
+        persistTask("Late", TaskStatus.TODO, today.minusDays(3));
+        persistTask("Soon", TaskStatus.IN_PROGRESS, today);
+        persistTask("Done late", TaskStatus.COMPLETED, today.minusDays(3));
+
+        List<Object[]> rows = taskRepository.aggregateWorkload(testUser.getId(),
+            List.of(ProjectRole.OWNER, ProjectRole.MANAGER), today, today.plusDays(6));
+
+        assertEquals(3, rows.size());
+        long overdue = rows.stream().mapToLong(row -> ((Number) row[7]).longValue()).sum();
+        long dueThisWeek = rows.stream().mapToLong(row -> ((Number) row[8]).longValue()).sum();
+        assertEquals(1, overdue);
+        assertEquals(1, dueThisWeek);
+        assertTrue(taskRepository.aggregateWorkload(-1L, List.of(ProjectRole.MANAGER), today, today).isEmpty());
+    }
+
+    @Test
+    void customFieldSpecifications_FilterAndOrderByTypedValue() {
+        CustomFieldDefinition estimate = entityManager.persistAndFlush(CustomFieldDefinition.builder()
+            .project(testProject)
+            .name("estimate")
+            .type(CustomFieldType.NUMBER)
+            .build());
+        Task small = persistTask("Small", TaskStatus.TODO, null);
+        Task large = persistTask("Large", TaskStatus.TODO, null);
+        Task medium = persistTask("Medium", TaskStatus.TODO, null);
+        persistTask("Unestimated", TaskStatus.TODO, null);
+        for (Object[] value : new Object[][]{{small, "1"}, {large, "8"}, {medium, "3"}}) {
+            entityManager.persist(TaskCustomFieldValue.builder()
+                .task((Task) value[0])
+                .field(estimate)
+                .numberValue(new BigDecimal((String) value[1]))
+                .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Task> atLeastThree = taskRepository.findAll(TaskSpecifications.customField(
+            estimate.getId(), "numberValue", TaskSpecifications.Comparison.GTE, new BigDecimal("3")), Sort.by("id"));
+        List<Task> ordered = taskRepository.findAll(TaskSpecifications.orderByCustomField(
+            estimate.getId(), "numberValue", Sort.Direction.DESC, null, null), Sort.unsorted());
+        List<Task> afterLarge = taskRepository.findAll(TaskSpecifications.orderByCustomField(
+            estimate.getId(), "numberValue", Sort.Direction.DESC, new BigDecimal("8"), large.getId()), Sort.unsorted());
+
+        assertEquals(List.of(large.getId(), medium.getId()), atLeastThree.stream().map(Task::getId).toList());
+        assertEquals(List.of(large.getId(), medium.getId(), small.getId()), ordered.stream().map(Task::getId).toList());
+        assertEquals(List.of(medium.getId(), small.getId()), afterLarge.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void findSubtreeRows_ReturnsDescendantsWithRolledUpCounts() {
+        Task root = persistTask("Root", TaskStatus.IN_PROGRESS, null);
+        Task child = entityManager.persistAndFlush(Task.builder()
+            .name("Child")
+            .status(TaskStatus.COMPLETED)
+            .project(testProject)
+            .parent(root)
+            .path("/" + root.getId() + "/")
+            .depth(1)
+            .build());
+        Task grandchild = entityManager.persistAndFlush(Task.builder()
+            .name("Grandchild")
+            .status(TaskStatus.TODO)
+            .project(testProject)
+            .parent(child)
+            .path("/" + root.getId() + "/" + child.getId() + "/")
+            .depth(2)
+            .build());
+        persistTask("Unrelated", TaskStatus.TODO, null);
+
+        taskRepository.adjustSubtaskCounts(List.of(root.getId()), 2, 1);
+        taskRepository.adjustSubtaskCounts(List.of(child.getId()), 1, 0);
+        entityManager.clear();
+
+        List<TaskRow> subtree = taskRepository.findSubtreeRows(testProject.getId(), "/" + root.getId() + "/%");
+        TaskRow rootRow = taskRepository.findRowsByProjectId(testProject.getId()).get(0);
+
+        assertEquals(List.of(child.getId(), grandchild.getId()), subtree.stream().map(TaskRow::getId).toList());
+        assertEquals(root.getId(), subtree.get(0).getParentId());
+        assertEquals(2, subtree.get(1).getDepth());
+        assertEquals(1, subtree.get(0).getSubtaskCount());
+        assertEquals(2, rootRow.getSubtaskCount());
+        assertEquals(1, rootRow.getSubtaskDoneCount());
+    }
+}
@@ -5,8 +5,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectUser;
 import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.model.enums.ProjectStatus;
 import pl.pbs.zwbackend.model.enums.Role;
+import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
@@ -76,4 +81,55 @@ class UserRepositoryTest {
         assertEquals(testUser.getLastName(), savedUser.getLastName());
         assertEquals(testUser.getRole(), savedUser.getRole());
     }
+    
+    @Test
+    void findByHandleIn_MatchesLowerCaseLocalPartOfEmail() {
+        entityManager.persistAndFlush(testUser);
+        User anna = entityManager.persistAndFlush(user("Anna.Nowak@Example.com"));
+        entityManager.clear();
+        
+        List<User> found = userRepository.findByHandleIn(List.of("anna.nowak", "nobody"));
+        
+        assertEquals(List.of(anna.getId()), found.stream().map(User::getId).toList());
+        assertEquals("anna.nowak", found.get(0).getHandle());
+    }
+    
+    @Test
+    void findByHandleIn_EmailChanged_HandleFollows() {
+        entityManager.persistAndFlush(testUser);
+        testUser.setEmail("jdoe@example.com");
+        entityManager.flush();
+        entityManager.clear();
+        
+        assertTrue(userRepository.findByHandleIn(List.of("john.doe")).isEmpty());
+        assertEquals(1, userRepository.findByHandleIn(List.of("jdoe")).size());
+    }
+    
+    @Test
+    void findProjectMembersByHandleIn_OnlyOwnerAndMembers() {
+        entityManager.persistAndFlush(testUser);
+        User member = entityManager.persistAndFlush(user("anna@example.com"));
+        entityManager.persistAndFlush(user("piotr@example.com"));
+        Project project = entityManager.persistAndFlush(Project.builder()
+            .name("Test Project")
+            .status(ProjectStatus.NOT_STARTED)
+            .createdBy(testUser)
+            .build());
+        entityManager.persistAndFlush(ProjectUser.builder().project(project).user(member).role(ProjectRole.DEVELOPER).build());
+        entityManager.clear();
+        
+        List<User> found = userRepository.findProjectMembersByHandleIn(project.getId(), List.of("john.doe", "anna", "piotr"));
+        
+        assertEquals(List.of(testUser.getId(), member.getId()), found.stream().map(User::getId).sorted().toList());
+    }
+    
+    private User user(String email) {
+        return User.builder()
+            .firstName("Test")
+            .lastName("User")
+            .email(email)
+            .password("password123")
+            .role(Role.USER)
+            .build();
+    }
 }
@@ -0,0 +1,172 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.exception.ChecksumMismatchException;
+import pl.pbs.zwbackend.model.FileBlob;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.FileBlobRepository;
+import pl.pbs.zwbackend.repository.ImageRepository;
+import pl.pbs.zwbackend.repository.ProjectFileRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class BlobStorageServiceTest {
+    // SHA-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    
+    @Mock
+    private FileBlobRepository fileBlobRepository;
+    
+    @Mock
+    private ProjectFileRepository projectFileRepository;
+    
+    @Mock
+    private ImageRepository imageRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private FileStorageService fileStorageService;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @InjectMocks
+    private BlobStorageService blobStorageService;
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path tempFile;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        tempFile = tempDir.resolve("upload.tmp");
+        lenient().when(fileStorageService.writeTempFile(any(), any())).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(0);
+            MessageDigest digest = invocation.getArgument(1);
+            byte[] bytes = in.readAllBytes();
+            digest.update(bytes);
+            Files.write(tempFile, bytes);
+            return tempFile;
+        });
+    }
+    
+    @Test
+    void store_InsertsRowIfAbsentThenAddsReference() {
+        BlobStorageService.StoredBlob blob = blobStorageService.store(hello());
+        
+        InOrder inOrder = inOrder(fileBlobRepository);
+        inOrder.verify(fileBlobRepository).insertIfAbsent(HELLO_HASH, 5L);
+        inOrder.verify(fileBlobRepository).incrementRefCount(HELLO_HASH);
+        verify(fileBlobRepository, never()).save(any());
+        assertEquals(HELLO_HASH, blob.hash());
+        assertEquals(5L, blob.size());
+        verify(fileStorageService).moveToBlob(tempFile, HELLO_HASH);
+    }
+    
+    @Test
+    void storeFile_HashMismatch_RejectsWithoutStoring() throws Exception {
+        Files.writeString(tempFile, "hello");
+        
+        assertThrows(ChecksumMismatchException.class, () -> blobStorageService.storeFile(tempFile, "00".repeat(32)));
+        
+        assertTrue(Files.exists(tempFile));
+        verifyNoInteractions(fileBlobRepository);
+        verify(fileStorageService, never()).moveToBlob(any(), anyString());
+    }
+    
+    @Test
+    void storeFile_MatchingHash_StoresContent() throws Exception {
+        Files.writeString(tempFile, "hello");
+        
+        BlobStorageService.StoredBlob blob = blobStorageService.storeFile(tempFile, HELLO_HASH);
+        
+        assertEquals(5L, blob.size());
+        verify(fileStorageService).moveToBlob(tempFile, HELLO_HASH);
+    }
+    
+    @Test
+    void release_LastReference_DeletesContent() {
+        FileBlob blob = FileBlob.builder().hash(HELLO_HASH).size(5L).refCount(0L).build();
+        when(fileBlobRepository.decrementRefCount(HELLO_HASH)).thenReturn(1);
+        when(fileBlobRepository.findForUpdate(HELLO_HASH)).thenReturn(Optional.of(blob));
+        runTransactionsInline();
+        
+        blobStorageService.release(HELLO_HASH);
+        
+        verify(fileStorageService).deleteBlob(HELLO_HASH);
+        verify(fileBlobRepository).delete(blob);
+    }
+    
+    @Test
+    void release_StillReferenced_KeepsContent() {
+        FileBlob blob = FileBlob.builder().hash(HELLO_HASH).size(5L).refCount(2L).build();
+        when(fileBlobRepository.decrementRefCount(HELLO_HASH)).thenReturn(1);
+        when(fileBlobRepository.findForUpdate(HELLO_HASH)).thenReturn(Optional.of(blob));
+        runTransactionsInline();
+        
+        blobStorageService.release(HELLO_HASH);
+        
+        verify(fileStorageService, never()).deleteBlob(anyString());
+        verify(fileBlobRepository, never()).delete(any());
+    }
+    
+    @Test
+    void retain_ReadableContent_AddsReferenceWithoutUpload() {
+        User user = User.builder().id(1L).build();
+        when(projectFileRepository.existsReadableByBlobHash(HELLO_HASH, 1L)).thenReturn(true);
+        when(fileBlobRepository.incrementRefCountIfSize(HELLO_HASH, 5L)).thenReturn(1);
+        
+        Optional<BlobStorageService.StoredBlob> blob = blobStorageService.retain(HELLO_HASH, 5L, user);
+        
+        assertEquals(Optional.of(new BlobStorageService.StoredBlob(HELLO_HASH, 5L)), blob);
+        verify(fileStorageService).loadBlobPath(HELLO_HASH);
+    }
+    
+    @Test
+    void retain_ContentNotReadableByUser_TakesNoReference() {
+        User user = User.builder().id(1L).build();
+        when(projectFileRepository.existsReadableByBlobHash(HELLO_HASH, 1L)).thenReturn(false);
+        when(imageRepository.existsReadableByBlobHash(HELLO_HASH, 1L)).thenReturn(false);
+        when(userRepository.existsByIdAndAvatarBlobHash(1L, HELLO_HASH)).thenReturn(false);
+        
+        Optional<BlobStorageService.StoredBlob> blob = blobStorageService.retain(HELLO_HASH, 5L, user);
+        
+        assertTrue(blob.isEmpty());
+        verify(fileBlobRepository, never()).incrementRefCountIfSize(anyString(), anyLong());
+    }
+    
+    private InputStream hello() {
+        return new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,221 @@
+package pl.pbs.zwbackend.service;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.dto.DueTaskRow;
+import pl.pbs.zwbackend.dto.NotificationResponse;
+import pl.pbs.zwbackend.model.JobWatermark;
+import pl.pbs.zwbackend.model.Notification;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.JobWatermarkRepository;
+import pl.pbs.zwbackend.repository.NotificationRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class DueDateScannerTest {
+    @Mock
+    private TaskRepository taskRepository;
+    
+    @Mock
+    private NotificationRepository notificationRepository;
+    
+    @Mock
+    private JobWatermarkRepository jobWatermarkRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private EntityManager entityManager;
+    
+    @InjectMocks
+    private DueDateScanner dueDateScanner;
+    
+    private final LocalDate today = LocalDate.now();
+    private User assignee;
+    private Project project;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dueDateScanner, "dueSoonDays", 2);
+        ReflectionTestUtils.setField(dueDateScanner, "overdueCatchUpDays", 7);
+        assignee = User.builder().id(1L).email("john.doe@example.com").build();
+        project = Project.builder().id(7L).name("Test Project").build();
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+    
+    @Test
+    void scanDueDates_NotifiesTasksInWindowAndAdvancesWatermarks() {
+        JobWatermark overdue = watermark(DueDateScanner.OVERDUE_WATERMARK, today.minusDays(2));
+        JobWatermark dueSoon = watermark(DueDateScanner.DUE_SOON_WATERMARK, today.plusDays(1));
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.OVERDUE_WATERMARK)).thenReturn(Optional.of(overdue));
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.DUE_SOON_WATERMARK)).thenReturn(Optional.of(dueSoon));
+        DueTaskRow row = new DueTaskRow(5L, "Report", today.minusDays(1), 7L, 1L, assignee.getEmail());
+        when(taskRepository.findDueRows(any(), eq(today.minusDays(2)), eq(today.minusDays(1)), eq(0L), any()))
+            .thenReturn(List.of(row));
+        when(taskRepository.findDueRows(any(), eq(today.plusDays(1)), eq(today.plusDays(2)), eq(0L), any()))
+            .thenReturn(List.of());
+        when(userRepository.getReferenceById(1L)).thenReturn(assignee);
+        NotificationResponse response = NotificationResponse.builder().id(9L).build();
+        when(notificationService.convertToResponse(any(), eq(5L), eq(7L))).thenReturn(response);
+        
+        dueDateScanner.scanDueDates();
+        
+        verify(notificationRepository).saveAll(argThat(notifications -> {
+            List<Notification> saved = (List<Notification>) notifications;
+            return saved.size() == 1 && saved.get(0).getMessage().contains("\"Report\" is overdue");
+        }));
+        verify(notificationService).sendToUser(assignee.getEmail(), response);
+        assertEquals(today.minusDays(1), overdue.getWatermark());
+        assertEquals(today.plusDays(2), dueSoon.getWatermark());
+    }
+    
+    @Test
+    void scanDueDates_AlreadyRanToday_ReadsNoTasks() {
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.OVERDUE_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.OVERDUE_WATERMARK, today.minusDays(1))));
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.DUE_SOON_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.DUE_SOON_WATERMARK, today.plusDays(2))));
+        
+        dueDateScanner.scanDueDates();
+        
+        verify(taskRepository, never()).findDueRows(any(), any(), any(), anyLong(), any());
+        verify(jobWatermarkRepository, never()).save(any());
+        verifyNoInteractions(notificationRepository);
+    }
+    
+    @Test
+    void scanDueDates_FirstRun_StartsFromInitialWatermarks() {
+        when(jobWatermarkRepository.findForUpdate(any())).thenReturn(Optional.empty());
+        when(jobWatermarkRepository.save(any(JobWatermark.class))).then(returnsFirstArg());
+        when(taskRepository.findDueRows(any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+        
+        dueDateScanner.scanDueDates();
+        
+        verify(taskRepository).findDueRows(any(), eq(today.minusDays(2)), eq(today.minusDays(1)), eq(0L), any());
+        verify(taskRepository).findDueRows(any(), eq(today.plusDays(1)), eq(today.plusDays(2)), eq(0L), any());
+    }
+    
+    @Test
+    void scanDueDates_AfterLongPause_OverdueCatchesUpOnlyRecentDays() {
+        JobWatermark overdue = watermark(DueDateScanner.OVERDUE_WATERMARK, today.minusDays(30));
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.OVERDUE_WATERMARK)).thenReturn(Optional.of(overdue));
+        when(jobWatermarkRepository.findForUpdate(DueDateScanner.DUE_SOON_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.DUE_SOON_WATERMARK, today.plusDays(2))));
+        when(taskRepository.findDueRows(any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+        
+        dueDateScanner.scanDueDates();
+        
+        verify(taskRepository).findDueRows(any(), eq(today.minusDays(8)), eq(today.minusDays(1)), eq(0L), any());
+        assertEquals(today.minusDays(1), overdue.getWatermark());
+    }
+    
+    @Test
+    void dueDatesChanged_DueSoonInScannedWindow_NotifiesNow() {
+        scannedToday();
+        Task task = task(today.plusDays(1), TaskStatus.IN_PROGRESS);
+        NotificationResponse response = NotificationResponse.builder().id(9L).build();
+        when(notificationService.convertToResponse(any(), eq(5L), eq(7L))).thenReturn(response);
+        
+        dueDateScanner.dueDatesChanged(List.of(task));
+        
+        verify(notificationRepository).saveAll(argThat(notifications -> {
+            List<Notification> saved = (List<Notification>) notifications;
+            return saved.size() == 1 && saved.get(0).getUser() == assignee
+                && saved.get(0).getMessage().contains("is due on " + today.plusDays(1));
+        }));
+        verify(notificationService).sendToUsersAsync(
+            List.of(new NotificationService.UserNotification(assignee.getEmail(), response)));
+    }
+    
+    @Test
+    void dueDatesChanged_PastDueDate_NotifiesOverdue() {
+        scannedToday();
+        
+        dueDateScanner.dueDatesChanged(List.of(task(today.minusDays(20), TaskStatus.TODO)));
+        
+        verify(notificationRepository).saveAll(argThat(notifications ->
+            ((List<Notification>) notifications).get(0).getMessage().contains("is overdue")));
+    }
+    
+    @Test
+    void dueDatesChanged_DueDateAheadOfWatermark_LeftToScan() {
+        when(jobWatermarkRepository.findForShare(DueDateScanner.OVERDUE_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.OVERDUE_WATERMARK, today.minusDays(2))));
+        when(jobWatermarkRepository.findForShare(DueDateScanner.DUE_SOON_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.DUE_SOON_WATERMARK, today.plusDays(1))));
+        
+        dueDateScanner.dueDatesChanged(List.of(task(today.plusDays(2), TaskStatus.TODO),
+            task(today.minusDays(1), TaskStatus.TODO)));
+        
+        verifyNoInteractions(notificationRepository, notificationService);
+    }
+    
+    @Test
+    void dueDatesChanged_BeforeFirstScan_UsesInitialWatermarks() {
+        when(jobWatermarkRepository.findForShare(any())).thenReturn(Optional.empty());
+        
+        dueDateScanner.dueDatesChanged(List.of(task(today.plusDays(1), TaskStatus.TODO)));
+        
+        verify(notificationRepository).saveAll(argThat(notifications -> ((List<Notification>) notifications).size() == 1));
+    }
+    
+    @Test
+    void dueDatesChanged_CompletedUnassignedOrFarAhead_ReadsNoWatermarks() {
+        Task unassigned = task(today, TaskStatus.TODO);
+        unassigned.setAssignedTo(null);
+        
+        dueDateScanner.dueDatesChanged(List.of(task(today, TaskStatus.COMPLETED), unassigned,
+            task(today.plusDays(10), TaskStatus.TODO), task(null, TaskStatus.TODO)));
+        
+        verifyNoInteractions(jobWatermarkRepository, notificationRepository, notificationService);
+    }
+    
+    private void scannedToday() {
+        when(jobWatermarkRepository.findForShare(DueDateScanner.OVERDUE_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.OVERDUE_WATERMARK, today.minusDays(1))));
+        when(jobWatermarkRepository.findForShare(DueDateScanner.DUE_SOON_WATERMARK))
+            .thenReturn(Optional.of(watermark(DueDateScanner.DUE_SOON_WATERMARK, today.plusDays(2))));
+    }
+    
+    private JobWatermark watermark(String name, LocalDate value) {
+        return JobWatermark.builder().name(name).watermark(value).build();
+    }
+    
+    private Task task(LocalDate dueDate, TaskStatus status) {
+        return Task.builder()
+            .id(5L)
+            .name("Report")
+            .status(status)
+            .dueDate(dueDate)
+            .project(project)
+            .assignedTo(assignee)
+            .build();
+    }
+}
@@ -0,0 +1,50 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pbs.zwbackend.config.FileStorageProperties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+class FileStorageLayoutTest {
+    
+    @Test
+    void moveToBlob_NewContent_StoresInFanOutDirectory(@TempDir Path baseDir) throws IOException {
+        FileStorageService storage = new FileStorageService(properties(baseDir));
+        String hash = "ab".repeat(32);
+        Path source = Files.writeString(baseDir.resolve("upload.tmp"), "content");
+        
+        storage.moveToBlob(source, hash);
+        
+        Path expected = baseDir.toAbsolutePath().resolve("blobs").resolve("ab").resolve("ab").resolve(hash);
+        assertTrue(Files.isRegularFile(expected));
+        assertEquals(expected, storage.loadBlobPath(hash));
+    }
+    
+    @Test
+    void loadBlobPath_FlatLayout_FallsBackUntilMigrated(@TempDir Path baseDir) throws IOException {
+        FileStorageService storage = new FileStorageService(properties(baseDir));
+        String hash = "cd".repeat(32);
+        Path flat = baseDir.toAbsolutePath().resolve("blobs").resolve(hash);
+        Files.createDirectories(flat.getParent());
+        Files.writeString(flat, "content");
+        
+        assertEquals(flat, storage.loadBlobPath(hash));
+        
+        List<Path> unmigrated = new ArrayList<>();
+        storage.forEachUnmigratedBlob(unmigrated::add);
+        assertEquals(List.of(flat), unmigrated);
+        assertTrue(storage.moveToFanOut(flat));
+        
+        assertFalse(Files.exists(flat));
+        assertEquals(flat.getParent().resolve("cd").resolve("cd").resolve(hash), storage.loadBlobPath(hash));
+    }
+    
+    private FileStorageProperties properties(Path baseDir) {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setBaseUploadDir(baseDir.toString());
+        return properties;
+    }
+}
@@ -1,118 +1,92 @@
 package pl.pbs.zwbackend.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.multipart.MultipartFile;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pbs.zwbackend.config.FileStorageProperties;
+import pl.pbs.zwbackend.exception.FileStorageException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.*;
-@ExtendWith(MockitoExtension.class)
 class FileStorageServiceTest {
-    @Mock
-    private MultipartFile multipartFile;
+    @TempDir
+    Path tempDir;
     
-    @InjectMocks
+    private Path baseDir;
     private FileStorageService fileStorageService;
     
-    private String testSubDirectory = "test-uploads";
-    
     @BeforeEach
     void setUp() {
+        baseDir = tempDir.toAbsolutePath().resolve("uploads");
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setBaseUploadDir(baseDir.toString());
+        fileStorageService = new FileStorageService(properties);
     }
     
     @Test
-    void storeFile_ValidFile_ReturnsFileName() throws IOException {
-        when(multipartFile.getOriginalFilename()).thenReturn("test-file.txt");
-        when(multipartFile.getContentType()).thenReturn("text/plain");
-        when(multipartFile.getSize()).thenReturn(1024L);
-        when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getBytes()).thenReturn("test content".getBytes());
-        
-        String fileName = fileStorageService.storeFile(multipartFile, testSubDirectory);
-        
-        assertNotNull(fileName);
-        assertTrue(fileName.contains("test-file"));
-        assertTrue(fileName.endsWith(".txt"));
-        verify(multipartFile).getOriginalFilename();
-        verify(multipartFile).getBytes();
+    void constructor_MissingBaseDirectory_CreatesIt() {
+        assertTrue(Files.isDirectory(baseDir));
     }
     
     @Test
-    void storeFile_EmptyFile_ThrowsException() {
-        when(multipartFile.isEmpty()).thenReturn(true);
+    void loadBlobPath_StoredBlob_ReturnsFanOutPath() throws IOException {
+        String hash = "12".repeat(32);
+        Path source = Files.writeString(tempDir.resolve("upload.tmp"), "content");
         
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.storeFile(multipartFile, testSubDirectory));
-    }
-    
-    @Test
-    void storeFile_NullFileName_ThrowsException() {
-        when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn(null);
+        fileStorageService.moveToBlob(source, hash);
         
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.storeFile(multipartFile, testSubDirectory));
+        Path blob = fileStorageService.loadBlobPath(hash);
+        assertEquals(baseDir.resolve("blobs").resolve("12").resolve("12").resolve(hash), blob);
+        assertEquals("content", Files.readString(blob));
     }
     
     @Test
-    void storeFile_InvalidFileName_ThrowsException() {
-        when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("../invalid-file.txt");
+    void loadBlobPath_OnlyFlatBlob_FallsBackToFlatLocation() throws IOException {
+        String hash = "34".repeat(32);
+        Path flat = baseDir.resolve("blobs").resolve(hash);
+        Files.createDirectories(flat.getParent());
+        Files.writeString(flat, "content");
         
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.storeFile(multipartFile, testSubDirectory));
+        assertEquals(flat, fileStorageService.loadBlobPath(hash));
     }
     
     @Test
-    void storeFile_IOError_ThrowsException() throws IOException {
-        when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("test-file.txt");
-        when(multipartFile.getBytes()).thenThrow(new IOException("IO Error"));
-        
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.storeFile(multipartFile, testSubDirectory));
+    void loadBlobPath_MissingBlob_ThrowsException() {
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadBlobPath("56".repeat(32)));
     }
     
     @Test
-    void deleteFile_ValidFile_Success() {
-        String fileName = "test-file.txt";
+    void deleteBlob_StoredBlob_RemovesFanOutAndFlatCopies() throws IOException {
+        String hash = "78".repeat(32);
+        fileStorageService.moveToBlob(Files.writeString(tempDir.resolve("upload.tmp"), "content"), hash);
+        Path blob = fileStorageService.loadBlobPath(hash);
+        Path flat = baseDir.resolve("blobs").resolve(hash);
+        Files.writeString(flat, "content");
         
-        assertDoesNotThrow(() -> fileStorageService.deleteFile(fileName, testSubDirectory));
-    }
-    
-    @Test
-    void deleteFile_InvalidPath_ThrowsException() {
-        String fileName = "../invalid-path.txt";
+        fileStorageService.deleteBlob(hash);
         
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.deleteFile(fileName, testSubDirectory));
+        assertFalse(Files.exists(blob));
+        assertFalse(Files.exists(flat));
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadBlobPath(hash));
     }
     
     @Test
-    void loadFileAsResource_ValidFile_ReturnsResource() {
-        String fileName = "test-file.txt";
-        
-        
-        assertDoesNotThrow(() -> fileStorageService.loadFileAsResource(fileName, testSubDirectory));
+    void deleteBlob_MissingBlob_DoesNothing() {
+        assertDoesNotThrow(() -> fileStorageService.deleteBlob("9a".repeat(32)));
     }
     
     @Test
-    void loadFileAsResource_NonExistentFile_ThrowsException() {
-        String fileName = "non-existent-file.txt";
-        
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.loadFileAsResource(fileName, testSubDirectory));
+    void loadBlobPath_InvalidHash_ThrowsException() {
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadBlobPath("../../etc/passwd"));
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadBlobPath("AB".repeat(32)));
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadBlobPath("ab"));
     }
     
     @Test
-    void loadFileAsResource_InvalidPath_ThrowsException() {
-        String fileName = "../invalid-path.txt";
+    void deleteBlob_InvalidHash_ThrowsException() throws IOException {
+        Path outside = Files.writeString(baseDir.resolve("keep.txt"), "content");
         
-        assertThrows(RuntimeException.class, 
-            () -> fileStorageService.loadFileAsResource(fileName, testSubDirectory));
+        assertThrows(FileStorageException.class, () -> fileStorageService.deleteBlob("../keep.txt"));
+        assertTrue(Files.exists(outside));
     }
 }
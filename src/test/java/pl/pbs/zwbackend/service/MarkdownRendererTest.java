@@ -0,0 +1,43 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+class MarkdownRendererTest {
+    
+    private MarkdownRenderer markdownRenderer;
+    
+    @BeforeEach
+    void setUp() {
+        markdownRenderer = new MarkdownRenderer();
+        ReflectionTestUtils.setField(markdownRenderer, "cacheSize", 2);
+    }
+    
+    @Test
+    void render_Markdown_ReturnsHtml() {
+        assertEquals("<p><strong>Done</strong> in <code>v2</code></p>\n", markdownRenderer.render("**Done** in `v2`"));
+    }
+    
+    @Test
+    void render_RawHtmlAndScriptLinks_AreNeutralised() {
+        String html = markdownRenderer.render("<script>alert(1)</script>\n\n[click](javascript:alert(1))\n\n"
+            + "[x](data:text/html;base64,PHNjcmlwdD4=) ![y](data:image/svg+xml;base64,PHN2Zz4=) [mail](mailto:anna@example.com)");
+        
+        assertFalse(html.contains("<script>"));
+        assertTrue(html.contains("&lt;script&gt;"));
+        assertFalse(html.contains("javascript:"));
+        assertFalse(html.contains("data:"));
+        assertTrue(html.contains("href=\"mailto:anna@example.com\""));
+    }
+    
+    @Test
+    void render_SameContent_IsServedFromCacheUntilEvicted() {
+        String first = markdownRenderer.render("_cached_");
+        
+        assertSame(first, markdownRenderer.render("_cached_"));
+        markdownRenderer.render("a");
+        markdownRenderer.render("b");
+        assertNotSame(first, markdownRenderer.render("_cached_"));
+        assertNull(markdownRenderer.render(null));
+    }
+}
@@ -0,0 +1,98 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.pbs.zwbackend.model.Notification;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.NotificationRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class MentionServiceTest {
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private NotificationRepository notificationRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @InjectMocks
+    private MentionService mentionService;
+    
+    private final User author = User.builder().id(1L).email("john.doe@example.com").build();
+    private final User anna = User.builder().id(2L).email("anna@example.com").build();
+    
+    @Test
+    void parseHandles_ReturnsDistinctLowerCaseHandlesInOrder() {
+        Set<String> handles = MentionService.parseHandles("@Anna please check with @jan.kowalski and @anna.");
+        
+        assertEquals(List.of("anna", "jan.kowalski"), List.copyOf(handles));
+    }
+    
+    @Test
+    void parseHandles_IgnoresEmailAddressesAndBareAt() {
+        Set<String> handles = MentionService.parseHandles("Mail anna@example.com or @ me, (@piotr)");
+        
+        assertEquals(List.of("piotr"), List.copyOf(handles));
+    }
+    
+    @Test
+    void parseHandles_NullContent_ReturnsEmpty() {
+        assertTrue(MentionService.parseHandles(null).isEmpty());
+    }
+    
+    @Test
+    void notifyMentions_ResolvesHandlesWithOneQueryAndSkipsAuthor() {
+        when(userRepository.findByHandleIn(Set.of("anna", "john.doe"))).thenReturn(List.of(anna, author));
+        
+        mentionService.notifyMentions("@Anna and @john.doe, see above", author, "John mentioned you in chat");
+        
+        verify(userRepository, times(1)).findByHandleIn(any());
+        verify(notificationRepository).saveAll(argThat(notifications -> {
+            List<Notification> saved = (List<Notification>) notifications;
+            return saved.size() == 1 && saved.get(0).getUser() == anna
+                && saved.get(0).getMessage().equals("John mentioned you in chat");
+        }));
+        verify(notificationService).convertToResponse(any(), isNull(), isNull());
+        verify(notificationService).sendToUsersAsync(argThat(pushes ->
+            pushes.size() == 1 && pushes.get(0).userEmail().equals("anna@example.com")));
+    }
+    
+    @Test
+    void notifyMentions_NoHandles_QueriesNothing() {
+        mentionService.notifyMentions("Nothing to see, mail anna@example.com", author, "message");
+        
+        verifyNoInteractions(userRepository, notificationRepository, notificationService);
+    }
+    
+    @Test
+    void notifyMentions_OnlyAuthorMentioned_WritesNothing() {
+        when(userRepository.findByHandleIn(Set.of("john.doe"))).thenReturn(List.of(author));
+        
+        mentionService.notifyMentions("note to self @john.doe", author, "message");
+        
+        verifyNoInteractions(notificationRepository, notificationService);
+    }
+    
+    @Test
+    void notifyProjectMentions_ResolvesAgainstProjectMembersAndTruncatesMessage() {
+        when(userRepository.findProjectMembersByHandleIn(7L, Set.of("anna"))).thenReturn(List.of(anna));
+        
+        mentionService.notifyProjectMentions(7L, "@anna", author, "x".repeat(600));
+        
+        verify(userRepository, never()).findByHandleIn(any());
+        verify(notificationRepository).saveAll(argThat(notifications ->
+            ((List<Notification>) notifications).get(0).getMessage().length() == 500));
+        verify(notificationService).convertToResponse(any(), isNull(), eq(7L));
+    }
+}
@@ -0,0 +1,226 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import pl.pbs.zwbackend.dto.CursorPageResponse;
+import pl.pbs.zwbackend.dto.ProjectCommentResponse;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectComment;
+import pl.pbs.zwbackend.model.ProjectUser;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.ProjectRole;
+import pl.pbs.zwbackend.repository.ProjectCommentRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import pl.pbs.zwbackend.util.KeysetCursor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class ProjectCommentServiceTest {
+    @Mock
+    private ProjectCommentRepository projectCommentRepository;
+    
+    @Mock
+    private ProjectRepository projectRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private ProjectUserRepository projectUserRepository;
+    
+    @Mock
+    private UserService userService;
+    
+    @Mock
+    private ProjectEventPublisher projectEventPublisher;
+    
+    @Mock
+    private MentionService mentionService;
+    
+    @Mock
+    private MarkdownRenderer markdownRenderer;
+    
+    @InjectMocks
+    private ProjectCommentService projectCommentService;
+    
+    private User owner;
+    private User member;
+    private Project project;
+    private final LocalDateTime base = LocalDateTime.of(2025, 3, 1, 12, 0);
+    
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().id(1L).email("john.doe@example.com").build();
+        member = User.builder().id(2L).email("jane.doe@example.com").build();
+        project = Project.builder().id(7L).name("Test Project").createdBy(owner).build();
+        when(projectRepository.findById(7L)).thenReturn(Optional.of(project));
+    }
+    
+    @Test
+    void getProjectComments_MoreRowsThanPage_ReturnsCursorOfLastItem() {
+        viewAs(owner);
+        List<ProjectComment> rows = List.of(comment(13L, owner, base.plusMinutes(2)),
+            comment(12L, owner, base.plusMinutes(1)), comment(11L, owner, base));
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(3))).thenReturn(rows);
+        
+        CursorPageResponse<ProjectCommentResponse> page = projectCommentService.getProjectComments(7L, null, 2, owner.getEmail());
+        
+        assertEquals(List.of(13L, 12L), page.getItems().stream().map(ProjectCommentResponse::getId).toList());
+        assertTrue(page.isHasMore());
+        assertEquals(KeysetCursor.encode(base.plusMinutes(1), 12L), page.getNextCursor());
+    }
+    
+    @Test
+    void getProjectComments_WithCursor_ContinuesAfterLastItem() {
+        viewAs(owner);
+        when(projectCommentRepository.findPageByProjectIdBefore(7L, base.plusMinutes(1), 12L, Limit.of(3)))
+            .thenReturn(List.of(comment(11L, owner, base)));
+        
+        CursorPageResponse<ProjectCommentResponse> page = projectCommentService.getProjectComments(7L,
+            KeysetCursor.encode(base.plusMinutes(1), 12L), 2, owner.getEmail());
+        
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void getProjectComments_ExactlyOnePage_HasNoCursor() {
+        viewAs(owner);
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(3)))
+            .thenReturn(List.of(comment(12L, owner, base.plusMinutes(1)), comment(11L, owner, base)));
+        
+        CursorPageResponse<ProjectCommentResponse> page = projectCommentService.getProjectComments(7L, "", 2, owner.getEmail());
+        
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void getProjectComments_SizeOutOfRange_IsClamped() {
+        viewAs(owner);
+        when(projectCommentRepository.findFirstPageByProjectId(anyLong(), any())).thenReturn(List.of());
+        
+        projectCommentService.getProjectComments(7L, null, 1000, owner.getEmail());
+        projectCommentService.getProjectComments(7L, null, 0, owner.getEmail());
+        
+        verify(projectCommentRepository).findFirstPageByProjectId(7L, Limit.of(ProjectCommentService.MAX_PAGE_SIZE + 1));
+        verify(projectCommentRepository).findFirstPageByProjectId(7L, Limit.of(2));
+    }
+    
+    @Test
+    void getProjectComments_MalformedCursor_ThrowsException() {
+        viewAs(owner);
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> projectCommentService.getProjectComments(7L, KeysetCursor.encode("yesterday", 12L), 2, owner.getEmail()));
+        assertThrows(IllegalArgumentException.class,
+            () -> projectCommentService.getProjectComments(7L, "not a cursor", 2, owner.getEmail()));
+        verify(projectCommentRepository, never()).findPageByProjectIdBefore(anyLong(), any(), anyLong(), any());
+    }
+    
+    @Test
+    void getProjectComments_Developer_CanEditAndDeleteOnlyOwnComments() {
+        viewAs(member);
+        when(projectUserRepository.findByProjectIdAndUserId(7L, 2L)).thenReturn(Optional.of(membership(ProjectRole.DEVELOPER)));
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(51)))
+            .thenReturn(List.of(comment(12L, member, base.plusMinutes(1)), comment(11L, owner, base)));
+        
+        List<ProjectCommentResponse> items = projectCommentService.getProjectComments(7L, null, null, member.getEmail()).getItems();
+        
+        assertTrue(items.get(0).isCanEdit());
+        assertTrue(items.get(0).isCanDelete());
+        assertFalse(items.get(1).isCanEdit());
+        assertFalse(items.get(1).isCanDelete());
+        verify(projectUserRepository, times(1)).findByProjectIdAndUserId(anyLong(), anyLong());
+    }
+    
+    @Test
+    void getProjectComments_Manager_CanDeleteButNotEditOthersComments() {
+        viewAs(member);
+        when(projectUserRepository.findByProjectIdAndUserId(7L, 2L)).thenReturn(Optional.of(membership(ProjectRole.MANAGER)));
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(51)))
+            .thenReturn(List.of(comment(11L, owner, base)));
+        
+        ProjectCommentResponse item = projectCommentService.getProjectComments(7L, null, null, member.getEmail()).getItems().get(0);
+        
+        assertFalse(item.isCanEdit());
+        assertTrue(item.isCanDelete());
+    }
+    
+    @Test
+    void getProjectComments_Owner_CanDeleteMembersCommentsWithoutRoleLookup() {
+        viewAs(owner);
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(51)))
+            .thenReturn(List.of(comment(11L, member, base)));
+        
+        ProjectCommentResponse item = projectCommentService.getProjectComments(7L, null, null, owner.getEmail()).getItems().get(0);
+        
+        assertFalse(item.isCanEdit());
+        assertTrue(item.isCanDelete());
+        verifyNoInteractions(projectUserRepository);
+    }
+    
+    @Test
+    void getProjectComments_NotMember_ThrowsException() {
+        viewAs(member);
+        when(projectUserRepository.findByProjectIdAndUserId(7L, 2L)).thenReturn(Optional.empty());
+        
+        assertThrows(UnauthorizedOperationException.class,
+            () -> projectCommentService.getProjectComments(7L, null, null, member.getEmail()));
+        verifyNoInteractions(projectCommentRepository);
+    }
+    
+    @Test
+    void getProjectComments_ThreadWithReplies_InlinesFirstReplies() {
+        viewAs(owner);
+        ProjectComment thread = comment(11L, owner, base);
+        thread.setReplyCount(2);
+        ProjectComment reply = comment(12L, member, base.plusMinutes(1));
+        reply.setParent(thread);
+        reply.setDepth(1);
+        when(projectCommentRepository.findFirstPageByProjectId(7L, Limit.of(51)))
+            .thenReturn(List.of(comment(13L, owner, base.plusMinutes(2)), thread));
+        when(projectCommentRepository.findFirstReplyIds(List.of(11L), ProjectCommentService.INLINE_REPLIES)).thenReturn(List.of(12L));
+        when(projectCommentRepository.findAllWithUserByIdIn(List.of(12L))).thenReturn(List.of(reply));
+        
+        List<ProjectCommentResponse> items = projectCommentService.getProjectComments(7L, null, null, owner.getEmail()).getItems();
+        
+        assertEquals(2, items.size());
+        assertTrue(items.get(0).getReplies().isEmpty());
+        assertEquals(List.of(12L), items.get(1).getReplies().stream().map(ProjectCommentResponse::getId).toList());
+        assertFalse(items.get(1).getReplies().get(0).isCanEdit());
+        assertTrue(items.get(1).getReplies().get(0).isCanDelete());
+    }
+    
+    private void viewAs(User user) {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+    }
+    
+    private ProjectUser membership(ProjectRole role) {
+        return ProjectUser.builder().project(project).user(member).role(role).build();
+    }
+    
+    private ProjectComment comment(Long id, User author, LocalDateTime createdAt) {
+        return ProjectComment.builder()
+            .id(id)
+            .project(project)
+            .user(author)
+            .content("Comment " + id)
+            .createdAt(createdAt)
+            .build();
+    }
+}
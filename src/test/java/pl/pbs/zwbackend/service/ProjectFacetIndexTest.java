@@ -0,0 +1,78 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.Test;
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+class ProjectFacetIndexTest {
+    
+    private ProjectFacetIndex sampleIndex() {
+        ProjectFacetIndex index = new ProjectFacetIndex();
+        index.putTask(10L, TaskStatus.TODO, 1L);
+        index.putTask(20L, TaskStatus.IN_PROGRESS, 1L);
+        index.putTask(30L, TaskStatus.TODO, 2L);
+        index.putTask(40L, TaskStatus.COMPLETED, null);
+        index.setTags(10L, Set.of("backend", "urgent"));
+        index.setTags(20L, Set.of("backend"));
+        index.setTags(30L, Set.of("frontend"));
+        return index;
+    }
+    
+    @Test
+    void facets_NoFilters_CountsEveryTask() {
+        TaskFacetResponse facets = sampleIndex().facets(null, null, null);
+        
+        assertEquals(4, facets.getTotal());
+        assertEquals(List.of(10L, 20L, 30L, 40L), facets.getTaskIds());
+        assertEquals(2L, facets.getStatuses().get(TaskStatus.TODO));
+        assertEquals(Map.of(1L, 2L, 2L, 1L), facets.getAssignees());
+        assertEquals(Map.of("backend", 2L, "urgent", 1L, "frontend", 1L), facets.getTags());
+    }
+    
+    @Test
+    void facets_StatusFilter_KeepsAlternativeStatusCounts() {
+        TaskFacetResponse facets = sampleIndex().facets(Set.of(TaskStatus.TODO), null, Set.of("backend"));
+        
+        assertEquals(List.of(10L), facets.getTaskIds());
+        // Status counts ignore the status filter but apply the tag filter
+        assertEquals(1L, facets.getStatuses().get(TaskStatus.TODO));
+        assertEquals(1L, facets.getStatuses().get(TaskStatus.IN_PROGRESS));
+        assertNull(facets.getStatuses().get(TaskStatus.COMPLETED));
+        // Tag counts ignore the tag filter but apply the status filter
+        assertEquals(Map.of("backend", 1L, "urgent", 1L, "frontend", 1L), facets.getTags());
+    }
+    
+    @Test
+    void putTaskAndSetTags_Changes_MoveTaskBetweenBitmaps() {
+        ProjectFacetIndex index = sampleIndex();
+        
+        index.putTask(10L, TaskStatus.COMPLETED, 2L);
+        index.setTags(10L, Set.of("frontend"));
+        TaskFacetResponse facets = index.facets(null, Set.of(2L), null);
+        
+        assertEquals(List.of(10L, 30L), facets.getTaskIds());
+        assertEquals(Map.of("frontend", 2L), facets.getTags());
+        assertEquals(Map.of(1L, 1L, 2L, 2L), facets.getAssignees());
+    }
+    
+    @Test
+    void removeTask_ManyDeletes_CompactsAndKeepsResults() {
+        ProjectFacetIndex index = new ProjectFacetIndex();
+        for (long id = 1; id <= 2000; id++) {
+            index.putTask(id, id % 2 == 0 ? TaskStatus.TODO : TaskStatus.COMPLETED, id % 3);
+            index.setTags(id, Set.of("tag" + (id % 5)));
+        }
+        for (long id = 1; id <= 1990; id++) {
+            index.removeTask(id);
+        }
+        index.removeTask(1L);
+        TaskFacetResponse facets = index.facets(Set.of(TaskStatus.TODO), null, null);
+        
+        assertEquals(List.of(1992L, 1994L, 1996L, 1998L, 2000L), facets.getTaskIds());
+        assertEquals(5L, facets.getStatuses().get(TaskStatus.TODO));
+        assertEquals(5L, facets.getStatuses().get(TaskStatus.COMPLETED));
+        assertEquals(Map.of("tag0", 1L, "tag1", 1L, "tag2", 1L, "tag3", 1L, "tag4", 1L), facets.getTags());
+    }
+}
@@ -0,0 +1,88 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.exception.PayloadTooLargeException;
+import pl.pbs.zwbackend.repository.ProjectFileRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class ProjectFileServiceTest {
+    private static final long LIMIT = 50L * 1024 * 1024;
+    
+    @Mock
+    private ProjectFileRepository projectFileRepository;
+    
+    @Mock
+    private ProjectRepository projectRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private ProjectUserRepository projectUserRepository;
+    
+    @Mock
+    private FileStorageService fileStorageService;
+    
+    @Mock
+    private BlobStorageService blobStorageService;
+    
+    @Mock
+    private UserService userService;
+    
+    @Mock
+    private ProjectEventPublisher projectEventPublisher;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @InjectMocks
+    private ProjectFileService projectFileService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(projectFileService, "maxFileSizeMB", 50L);
+        ReflectionTestUtils.setField(projectFileService, "maxFileNameLength", 255);
+    }
+    
+    @Test
+    void uploadFile_DeclaredLengthOneByteOverLimit_RejectedBeforeReadingBody() {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[]{1});
+        
+        assertThrows(PayloadTooLargeException.class, () -> projectFileService.uploadFile(body, LIMIT + 1,
+            "report.pdf", "application/pdf", 7L, "john.doe@example.com", null));
+        
+        assertEquals(1, body.available());
+        verify(blobStorageService, never()).stage(any());
+    }
+    
+    @Test
+    void uploadFile_DeclaredLengthAtLimit_IsStaged() {
+        when(blobStorageService.stage(any())).thenReturn(new BlobStorageService.StagedBlob(Path.of("upload.tmp"), "ab".repeat(32), LIMIT));
+        
+        projectFileService.uploadFile(new ByteArrayInputStream(new byte[]{1}), LIMIT,
+            "report.pdf", "application/pdf", 7L, "john.doe@example.com", null);
+        
+        verify(blobStorageService).stage(any());
+        verify(blobStorageService, never()).discard(any());
+    }
+    
+    @Test
+    void validateFile_SizeComparedToTheByte() {
+        assertDoesNotThrow(() -> projectFileService.validateFile("report.pdf", LIMIT));
+        assertThrows(PayloadTooLargeException.class, () -> projectFileService.validateFile("report.pdf", LIMIT + 1));
+        assertThrows(PayloadTooLargeException.class, () -> projectFileService.validateFile("report.pdf", LIMIT + 1024 * 1024 - 1));
+    }
+}
@@ -0,0 +1,226 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightRequest;
+import pl.pbs.zwbackend.dto.ProjectFilePreflightResponse;
+import pl.pbs.zwbackend.dto.ProjectFileResponse;
+import pl.pbs.zwbackend.dto.UploadSessionResponse;
+import pl.pbs.zwbackend.exception.ChecksumMismatchException;
+import pl.pbs.zwbackend.exception.ConflictException;
+import pl.pbs.zwbackend.exception.ResourceNotFoundException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.UploadSession;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.UploadSessionRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class ProjectFileUploadServiceTest {
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+    
+    @Mock
+    private ProjectRepository projectRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private FileStorageService fileStorageService;
+    
+    @Mock
+    private BlobStorageService blobStorageService;
+    
+    @Mock
+    private ProjectFileService projectFileService;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private FileStorageService.PartialUpload partialUpload;
+    
+    @InjectMocks
+    private ProjectFileUploadService projectFileUploadService;
+    
+    private UploadSession session;
+    private final byte[] chunk = "hello".getBytes(StandardCharsets.UTF_8);
+    
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().id(1L).email("john.doe@example.com").build();
+        session = UploadSession.builder()
+            .id("upload-1")
+            .project(Project.builder().id(7L).build())
+            .uploadedBy(user)
+            .originalFileName("report.pdf")
+            .contentType("application/pdf")
+            .fileSize(10L)
+            .receivedBytes(5L)
+            .expiresAt(LocalDateTime.now().plusHours(1))
+            .build();
+        
+        lenient().when(uploadSessionRepository.findForUpdate("upload-1")).thenReturn(Optional.of(session));
+        lenient().when(uploadSessionRepository.findById("upload-1")).thenReturn(Optional.of(session));
+        lenient().when(uploadSessionRepository.findReceivedBytes("upload-1")).thenReturn(Optional.of(5L));
+        lenient().when(fileStorageService.openPartialUpload("upload-1")).thenReturn(partialUpload);
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+    }
+    
+    @Test
+    void appendChunk_WrongOffset_ThrowsConflict() {
+        assertThrows(ConflictException.class,
+            () -> projectFileUploadService.appendChunk(7L, "upload-1", 0L, null, new ByteArrayInputStream(chunk), "john.doe@example.com"));
+        
+        verify(fileStorageService, never()).writeChunk(any(), anyLong(), any(), anyLong(), any());
+        verify(partialUpload).close();
+    }
+    
+    @Test
+    void appendChunk_MatchingChecksum_AdvancesOffset() throws Exception {
+        String checksum = "sha256 " + Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(chunk));
+        when(fileStorageService.writeChunk(eq(partialUpload), eq(5L), any(), eq(5L), any())).thenAnswer(invocation -> {
+            byte[] bytes = invocation.getArgument(2, InputStream.class).readAllBytes();
+            invocation.getArgument(4, MessageDigest.class).update(bytes);
+            return (long) bytes.length;
+        });
+        when(uploadSessionRepository.advanceOffset(eq("upload-1"), eq(5L), eq(10L), any())).thenReturn(1);
+        
+        UploadSessionResponse response = projectFileUploadService.appendChunk(
+            7L, "upload-1", 5L, checksum, new ByteArrayInputStream(chunk), "john.doe@example.com");
+        
+        assertEquals(10L, response.getOffset());
+        assertEquals(10L, session.getReceivedBytes());
+        verify(uploadSessionRepository, never()).findForUpdate(anyString());
+        verify(partialUpload).close();
+    }
+    
+    @Test
+    void appendChunk_SessionRemovedWhileStreaming_ThrowsConflict() {
+        when(fileStorageService.writeChunk(eq(partialUpload), eq(5L), any(), eq(5L), any())).thenReturn(5L);
+        when(uploadSessionRepository.advanceOffset(eq("upload-1"), eq(5L), eq(10L), any())).thenReturn(0);
+        
+        assertThrows(ConflictException.class,
+            () -> projectFileUploadService.appendChunk(7L, "upload-1", 5L, null, new ByteArrayInputStream(chunk), "john.doe@example.com"));
+        
+        assertEquals(5L, session.getReceivedBytes());
+        verify(partialUpload).close();
+    }
+    
+    @Test
+    void appendChunk_ChecksumMismatch_KeepsOffset() {
+        String checksum = "sha256 " + Base64.getEncoder().encodeToString(new byte[32]);
+        when(fileStorageService.writeChunk(eq(partialUpload), eq(5L), any(), eq(5L), any())).thenReturn(5L);
+        
+        assertThrows(ChecksumMismatchException.class,
+            () -> projectFileUploadService.appendChunk(7L, "upload-1", 5L, checksum, new ByteArrayInputStream(chunk), "john.doe@example.com"));
+        
+        assertEquals(5L, session.getReceivedBytes());
+        verify(uploadSessionRepository, never()).advanceOffset(anyString(), anyLong(), anyLong(), any());
+    }
+    
+    @Test
+    void appendChunk_SessionOfOtherProject_ThrowsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+            () -> projectFileUploadService.appendChunk(8L, "upload-1", 5L, null, new ByteArrayInputStream(chunk), "john.doe@example.com"));
+        
+        verify(fileStorageService, never()).openPartialUpload(anyString());
+    }
+    
+    @Test
+    void getSession_SessionOfOtherProject_ThrowsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+            () -> projectFileUploadService.getSession(8L, "upload-1", "john.doe@example.com"));
+    }
+    
+    @Test
+    void completeSession_Incomplete_ThrowsConflict() {
+        assertThrows(ConflictException.class,
+            () -> projectFileUploadService.completeSession(7L, "upload-1", "john.doe@example.com"));
+        
+        verify(blobStorageService, never()).storeFile(any(), any());
+        verify(projectFileService, never()).saveFile(any(), any(), any(), any(), any(), any());
+    }
+    
+    @Test
+    void completeSession_HashMismatch_DropsSessionAndThrows() {
+        session.setReceivedBytes(10L);
+        Path partialPath = Path.of("partial", "upload-1");
+        when(fileStorageService.partialUploadSize("upload-1")).thenReturn(10L);
+        when(fileStorageService.partialUploadPath("upload-1")).thenReturn(partialPath);
+        when(projectFileService.hasProjectAccess(any(), any())).thenReturn(true);
+        when(blobStorageService.storeFile(partialPath, session.getExpectedHash()))
+            .thenThrow(new ChecksumMismatchException("Uploaded content does not match its declared SHA-256"));
+        
+        assertThrows(ChecksumMismatchException.class,
+            () -> projectFileUploadService.completeSession(7L, "upload-1", "john.doe@example.com"));
+        
+        verify(uploadSessionRepository).delete(session);
+        verify(fileStorageService).deletePartialUpload("upload-1");
+        verify(projectFileService, never()).saveFile(any(), any(), any(), any(), any(), any());
+    }
+    
+    @Test
+    void preflight_KnownContent_CreatesFileWithoutSession() {
+        String hash = "ab".repeat(32);
+        BlobStorageService.StoredBlob blob = new BlobStorageService.StoredBlob(hash, 10L);
+        ProjectFileResponse file = ProjectFileResponse.builder().id(3L).build();
+        when(projectRepository.findById(7L)).thenReturn(Optional.of(session.getProject()));
+        when(projectFileService.hasProjectAccess(any(), any())).thenReturn(true);
+        when(blobStorageService.retain(eq(hash), eq(10L), any())).thenReturn(Optional.of(blob));
+        when(projectFileService.saveFile(any(), any(), eq("logo.png"), eq(blob), eq("image/png"), any())).thenReturn(file);
+        
+        ProjectFilePreflightResponse response = projectFileUploadService.preflight(7L, preflightRequest(hash.toUpperCase()), "john.doe@example.com");
+        
+        assertSame(file, response.getFile());
+        assertNull(response.getUpload());
+        verify(uploadSessionRepository, never()).save(any());
+    }
+    
+    @Test
+    void preflight_UnknownContent_OpensSessionExpectingHash() {
+        String hash = "ab".repeat(32);
+        when(projectRepository.findById(7L)).thenReturn(Optional.of(session.getProject()));
+        when(projectFileService.hasProjectAccess(any(), any())).thenReturn(true);
+        when(blobStorageService.retain(eq(hash), eq(10L), any())).thenReturn(Optional.empty());
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        ProjectFilePreflightResponse response = projectFileUploadService.preflight(7L, preflightRequest(hash), "john.doe@example.com");
+        
+        assertNull(response.getFile());
+        assertEquals(0L, response.getUpload().getOffset());
+        verify(uploadSessionRepository).save(argThat(saved -> hash.equals(saved.getExpectedHash())));
+        verify(projectFileService, never()).saveFile(any(), any(), any(), any(), any(), any());
+    }
+    
+    private ProjectFilePreflightRequest preflightRequest(String sha256) {
+        return ProjectFilePreflightRequest.builder()
+            .fileName("logo.png")
+            .contentType("image/png")
+            .fileSize(10L)
+            .sha256(sha256)
+            .build();
+    }
+}
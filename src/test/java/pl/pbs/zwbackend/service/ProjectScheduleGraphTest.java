@@ -0,0 +1,100 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.Test;
+import pl.pbs.zwbackend.dto.ProjectScheduleResponse;
+import pl.pbs.zwbackend.dto.TaskScheduleResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+class ProjectScheduleGraphTest {
+    
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    
+    private Map<Long, TaskScheduleResponse> byTask(ProjectScheduleResponse schedule) {
+        return schedule.getTasks().stream()
+            .collect(Collectors.toMap(TaskScheduleResponse::getTaskId, Function.identity()));
+    }
+    
+    @Test
+    void addDependency_LatePredecessor_PushesSuccessorAndFormsCriticalPath() {
+        ProjectScheduleGraph graph = new ProjectScheduleGraph();
+        graph.putTask(1L, START.plusDays(5));
+        graph.putTask(2L, START.plusDays(1));
+        graph.putTask(3L, START.plusDays(2));
+        
+        graph.addDependency(1L, 2L);
+        ProjectScheduleResponse schedule = graph.toResponse(1L);
+        Map<Long, TaskScheduleResponse> tasks = byTask(schedule);
+        
+        assertEquals(START.plusDays(6), schedule.getProjectFinish());
+        assertEquals(START.plusDays(6), tasks.get(2L).getEarliestFinish());
+        assertEquals(List.of(1L, 2L), schedule.getCriticalPath());
+        assertEquals(0, tasks.get(1L).getSlackDays());
+        assertEquals(4, tasks.get(3L).getSlackDays());
+    }
+    
+    @Test
+    void putTask_EarlierDueDate_RecomputesDownstreamOnly() {
+        ProjectScheduleGraph graph = ProjectScheduleGraph.build(
+            Map.of(1L, START.plusDays(5), 2L, START.plusDays(1), 3L, START.plusDays(3)),
+            List.<Long[]>of(new Long[]{1L, 2L}));
+        
+        graph.putTask(1L, START);
+        ProjectScheduleResponse schedule = graph.toResponse(1L);
+        Map<Long, TaskScheduleResponse> tasks = byTask(schedule);
+        
+        assertEquals(START.plusDays(1), tasks.get(2L).getEarliestFinish());
+        assertEquals(START.plusDays(3), schedule.getProjectFinish());
+        assertEquals(List.of(3L), schedule.getCriticalPath());
+        assertEquals(START.plusDays(2), tasks.get(1L).getLatestFinish());
+    }
+    
+    @Test
+    void wouldCreateCycle_PathBack_ReturnsTrue() {
+        ProjectScheduleGraph graph = new ProjectScheduleGraph();
+        graph.putTask(1L, START);
+        graph.putTask(2L, START);
+        graph.putTask(3L, START);
+        graph.addDependency(1L, 2L);
+        graph.addDependency(2L, 3L);
+        
+        assertTrue(graph.wouldCreateCycle(3L, 1L));
+        assertTrue(graph.wouldCreateCycle(1L, 1L));
+        assertFalse(graph.wouldCreateCycle(1L, 3L));
+    }
+    
+    @Test
+    void removeTask_DropsEdgesAndRestoresPlannedDates() {
+        ProjectScheduleGraph graph = new ProjectScheduleGraph();
+        graph.putTask(1L, START.plusDays(5));
+        graph.putTask(2L, START);
+        graph.addDependency(1L, 2L);
+        
+        graph.removeTask(1L);
+        ProjectScheduleResponse schedule = graph.toResponse(1L);
+        
+        assertEquals(1, schedule.getTasks().size());
+        assertEquals(START, schedule.getProjectFinish());
+        assertEquals(List.of(2L), schedule.getCriticalPath());
+    }
+    
+    @Test
+    void addDependency_ClosingCycle_ThrowsInsteadOfLooping() {
+        ProjectScheduleGraph graph = new ProjectScheduleGraph();
+        graph.putTask(1L, START);
+        graph.putTask(2L, START);
+        graph.addDependency(1L, 2L);
+        
+        assertThrows(IllegalStateException.class, () -> graph.addDependency(2L, 1L));
+        assertEquals(List.of(1L, 2L), graph.toResponse(1L).getCriticalPath());
+    }
+    
+    @Test
+    void build_CyclicEdges_Throws() {
+        assertThrows(IllegalStateException.class, () -> ProjectScheduleGraph.build(
+            Map.of(1L, START, 2L, START),
+            List.<Long[]>of(new Long[]{1L, 2L}, new Long[]{2L, 1L})));
+    }
+}
@@ -43,6 +43,9 @@ class ProjectServiceTest {
     @Mock
     private ProjectCommentRepository projectCommentRepository;
     
+    @Mock
+    private CalendarFeedService calendarFeedService;
+    
     @InjectMocks
     private ProjectService projectService;
     
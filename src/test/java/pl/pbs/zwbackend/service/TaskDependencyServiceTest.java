@@ -0,0 +1,79 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.pbs.zwbackend.dto.TaskDependencyRequest;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.TaskDependencyRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class TaskDependencyServiceTest {
+    @Mock
+    private TaskDependencyRepository taskDependencyRepository;
+    
+    @Mock
+    private TaskRepository taskRepository;
+    
+    @Mock
+    private ProjectRepository projectRepository;
+    
+    @Mock
+    private ProjectUserRepository projectUserRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private CriticalPathEngine criticalPathEngine;
+    
+    @InjectMocks
+    private TaskDependencyService taskDependencyService;
+    
+    @BeforeEach
+    void setUp() {
+        User owner = User.builder().id(1L).email("owner@example.com").build();
+        Project project = Project.builder().id(9L).createdBy(owner).build();
+        when(userRepository.findByEmail("owner@example.com")).thenReturn(Optional.of(owner));
+        for (long id = 1; id <= 3; id++) {
+            Task task = Task.builder().id(id).project(project).build();
+            lenient().when(taskRepository.findById(id)).thenReturn(Optional.of(task));
+        }
+    }
+    
+    @Test
+    void addDependency_PathBackInDatabase_RejectsCycleUnderProjectLock() {
+        // Committed edges 1 -> 2 -> 3; adding 3 -> 1 closes a cycle
+        when(taskDependencyRepository.findSuccessorIds(List.of(1L))).thenReturn(List.of(2L));
+        when(taskDependencyRepository.findSuccessorIds(List.of(2L))).thenReturn(List.of(3L));
+        
+        assertThrows(IllegalArgumentException.class, () -> taskDependencyService.addDependency(
+            1L, TaskDependencyRequest.builder().predecessorId(3L).build(), "owner@example.com"));
+        
+        verify(projectRepository).findForUpdate(9L);
+        verify(taskDependencyRepository, never()).save(any());
+        verify(criticalPathEngine, never()).dependencyAdded(any(), any(), any());
+    }
+    
+    @Test
+    void addDependency_NoPathBack_SavesEdge() {
+        when(taskDependencyRepository.findSuccessorIds(List.of(1L))).thenReturn(List.of());
+        
+        taskDependencyService.addDependency(1L, TaskDependencyRequest.builder().predecessorId(2L).build(), "owner@example.com");
+        
+        verify(taskDependencyRepository).save(any());
+        verify(criticalPathEngine).dependencyAdded(9L, 2L, 1L);
+    }
+}
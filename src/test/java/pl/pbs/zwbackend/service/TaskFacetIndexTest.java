@@ -0,0 +1,92 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.pbs.zwbackend.dto.TaskFacetResponse;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskTagRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class TaskFacetIndexTest {
+    @Mock
+    private TaskRepository taskRepository;
+    
+    @Mock
+    private TaskTagRepository taskTagRepository;
+    
+    @InjectMocks
+    private TaskFacetIndex taskFacetIndex;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taskFacetIndex, "indexTtlMs", 600000L);
+        lenient().when(taskTagRepository.findTagRowsByProjectId(7L)).thenReturn(List.of());
+        lenient().when(taskTagRepository.findTagRowsByTaskIdIn(anyCollection())).thenReturn(List.of());
+    }
+    
+    @Test
+    void tasksChanged_LoadedIndex_RereadsCommittedState() {
+        when(taskRepository.findFacetRowsByProjectId(7L)).thenReturn(rows(new Object[]{1L, TaskStatus.TODO, null}));
+        taskFacetIndex.facets(7L, null, null, null);
+        when(taskRepository.findFacetRowsByIdIn(anyCollection())).thenReturn(rows(new Object[]{1L, TaskStatus.COMPLETED, 3L}));
+        when(taskTagRepository.findTagRowsByTaskIdIn(anyCollection())).thenReturn(rows(new Object[]{1L, "backend"}));
+        
+        taskFacetIndex.tasksChanged(7L, List.of(1L));
+        TaskFacetResponse facets = taskFacetIndex.facets(7L, null, null, null);
+        
+        assertEquals(Map.of(TaskStatus.COMPLETED, 1L), facets.getStatuses());
+        assertEquals(Map.of(3L, 1L), facets.getAssignees());
+        assertEquals(Map.of("backend", 1L), facets.getTags());
+        verify(taskRepository, times(1)).findFacetRowsByProjectId(7L);
+    }
+    
+    @Test
+    void tasksChanged_TaskNoLongerExists_RemovesIt() {
+        when(taskRepository.findFacetRowsByProjectId(7L)).thenReturn(rows(
+            new Object[]{1L, TaskStatus.TODO, null}, new Object[]{2L, TaskStatus.TODO, null}));
+        taskFacetIndex.facets(7L, null, null, null);
+        when(taskRepository.findFacetRowsByIdIn(anyCollection())).thenReturn(List.of());
+        
+        taskFacetIndex.tasksChanged(7L, List.of(2L));
+        
+        assertEquals(List.of(1L), taskFacetIndex.facets(7L, null, null, null).getTaskIds());
+    }
+    
+    @Test
+    void tasksChanged_CommittedWhileLoading_IndexIsNotCached() {
+        when(taskRepository.findFacetRowsByProjectId(7L))
+            .thenAnswer(invocation -> {
+                // A write commits after the load has read its rows
+                taskFacetIndex.tasksChanged(7L, List.of(1L));
+                return rows(new Object[]{1L, TaskStatus.TODO, null});
+            })
+            .thenReturn(rows(new Object[]{1L, TaskStatus.COMPLETED, null}));
+        
+        taskFacetIndex.facets(7L, null, null, null);
+        TaskFacetResponse facets = taskFacetIndex.facets(7L, null, null, null);
+        
+        assertEquals(Map.of(TaskStatus.COMPLETED, 1L), facets.getStatuses());
+        verify(taskRepository, never()).findFacetRowsByIdIn(anyCollection());
+    }
+    
+    @Test
+    void tasksChanged_NoIndexLoaded_DoesNotQuery() {
+        taskFacetIndex.tasksChanged(7L, List.of(1L));
+        
+        verifyNoInteractions(taskRepository);
+    }
+    
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
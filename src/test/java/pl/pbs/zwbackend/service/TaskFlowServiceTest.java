@@ -0,0 +1,234 @@
+package pl.pbs.zwbackend.service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.pbs.zwbackend.dto.BurndownPointResponse;
+import pl.pbs.zwbackend.dto.CumulativeFlowDayResponse;
+import pl.pbs.zwbackend.dto.CycleTimeBucketResponse;
+import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
+import pl.pbs.zwbackend.model.Project;
+import pl.pbs.zwbackend.model.ProjectCycleTimeBucket;
+import pl.pbs.zwbackend.model.ProjectFlowDaily;
+import pl.pbs.zwbackend.model.Task;
+import pl.pbs.zwbackend.model.User;
+import pl.pbs.zwbackend.model.enums.TaskStatus;
+import pl.pbs.zwbackend.repository.ProjectCycleTimeBucketRepository;
+import pl.pbs.zwbackend.repository.ProjectFlowDailyRepository;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.ProjectUserRepository;
+import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskStatusTransitionRepository;
+import pl.pbs.zwbackend.repository.UserRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class TaskFlowServiceTest {
+    @Mock
+    private TaskStatusTransitionRepository transitionRepository;
+
+    @Mock
+    private ProjectFlowDailyRepository flowDailyRepository;
+
+    @Mock
+    private ProjectCycleTimeBucketRepository cycleTimeBucketRepository;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private ProjectUserRepository projectUserRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TaskFlowService taskFlowService;
+
+    private User owner;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().id(1L).email("john.doe@example.com").build();
+        project = Project.builder().id(7L).name("Test Project").createdBy(owner).build();
+    }
+
+    @Test
+    void recordTransitions_SameBucket_IncrementsEachBucketOnce() {
+        LocalDate today = LocalDate.now();
+
+        taskFlowService.recordTransitions(List.of(
+            new TaskFlowService.StatusChange(task(1L), TaskStatus.TODO, TaskStatus.IN_PROGRESS),
+            new TaskFlowService.StatusChange(task(2L), TaskStatus.TODO, TaskStatus.IN_PROGRESS),
+            new TaskFlowService.StatusChange(task(3L), null, TaskStatus.TODO)), owner);
+
+        InOrder inOrder = inOrder(flowDailyRepository);
+        inOrder.verify(flowDailyRepository).insertIfAbsent(7L, today, "TODO");
+        inOrder.verify(flowDailyRepository).increment(7L, today, TaskStatus.TODO, 1L, 2L);
+        inOrder.verify(flowDailyRepository).insertIfAbsent(7L, today, "IN_PROGRESS");
+        inOrder.verify(flowDailyRepository).increment(7L, today, TaskStatus.IN_PROGRESS, 2L, 0L);
+        verify(flowDailyRepository, never()).save(any());
+        verify(transitionRepository).saveAll(argThat(transitions -> ((List<?>) transitions).size() == 3));
+        verifyNoInteractions(cycleTimeBucketRepository);
+    }
+
+    @Test
+    void recordTransitions_UnchangedStatus_RecordsNothing() {
+        taskFlowService.recordTransitions(List.of(
+            new TaskFlowService.StatusChange(task(1L), TaskStatus.TODO, TaskStatus.TODO)), owner);
+
+        verifyNoInteractions(transitionRepository, flowDailyRepository, cycleTimeBucketRepository);
+    }
+
+    @Test
+    void recordTransitions_FirstCompletion_CountsCycleTime() {
+        when(transitionRepository.findCompletedTaskIdsIn(anyCollection())).thenReturn(List.of());
+        List<Object[]> startTimes = new ArrayList<>();
+        startTimes.add(new Object[]{1L, LocalDateTime.now().minusDays(4).minusMinutes(1)});
+        when(transitionRepository.findStartTimesByTaskIdIn(anyCollection())).thenReturn(startTimes);
+
+        taskFlowService.recordTransition(task(1L), TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED, owner);
+
+        verify(cycleTimeBucketRepository).insertIfAbsent(7L, 3);
+        verify(cycleTimeBucketRepository).increment(7L, 3, 1L);
+        verify(cycleTimeBucketRepository, never()).save(any());
+    }
+
+    @Test
+    void recordTransitions_CompletedAgainAfterReopening_NotCountedTwice() {
+        when(transitionRepository.findCompletedTaskIdsIn(anyCollection())).thenReturn(List.of(1L));
+
+        taskFlowService.recordTransition(task(1L), TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED, owner);
+
+        verify(flowDailyRepository).increment(eq(7L), any(), eq(TaskStatus.COMPLETED), eq(1L), eq(0L));
+        verify(cycleTimeBucketRepository, never()).insertIfAbsent(anyLong(), anyInt());
+        verify(cycleTimeBucketRepository, never()).increment(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void recordTransitions_CreatedCompleted_DoesNotLookUpEarlierCompletions() {
+        when(transitionRepository.findStartTimesByTaskIdIn(anyCollection())).thenReturn(List.of());
+
+        taskFlowService.recordTransition(task(1L), null, TaskStatus.COMPLETED, owner);
+
+        verify(transitionRepository, never()).findCompletedTaskIdsIn(anyCollection());
+        verify(cycleTimeBucketRepository).increment(7L, 0, 1L);
+    }
+
+    @Test
+    void getCumulativeFlow_RollsDailyDeltasForwardFromEarlierTotals() {
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        allowAccess();
+        List<Object[]> before = new ArrayList<>();
+        before.add(new Object[]{TaskStatus.TODO, 3L});
+        when(flowDailyRepository.sumNetBefore(7L, start)).thenReturn(before);
+        when(flowDailyRepository.findByProjectIdAndDayBetweenOrderByDayAsc(7L, start, start.plusDays(2))).thenReturn(List.of(
+            bucket(start.plusDays(1), TaskStatus.TODO, 0, 2),
+            bucket(start.plusDays(1), TaskStatus.IN_PROGRESS, 2, 0),
+            bucket(start.plusDays(2), TaskStatus.IN_PROGRESS, 0, 1),
+            bucket(start.plusDays(2), TaskStatus.COMPLETED, 1, 0)));
+
+        List<CumulativeFlowDayResponse> days = taskFlowService.getCumulativeFlow(7L, start, start.plusDays(2), owner.getEmail());
+
+        assertEquals(3, days.size());
+        assertEquals(3L, days.get(0).getCounts().get(TaskStatus.TODO));
+        assertEquals(0L, days.get(0).getCounts().get(TaskStatus.IN_PROGRESS));
+        assertEquals(1L, days.get(1).getCounts().get(TaskStatus.TODO));
+        assertEquals(2L, days.get(1).getCounts().get(TaskStatus.IN_PROGRESS));
+        assertEquals(1L, days.get(2).getCounts().get(TaskStatus.IN_PROGRESS));
+        assertEquals(1L, days.get(2).getCounts().get(TaskStatus.COMPLETED));
+    }
+
+    @Test
+    void getBurndown_SplitsRemainingAndCompleted() {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        allowAccess();
+        List<Object[]> before = new ArrayList<>();
+        before.add(new Object[]{TaskStatus.TODO, 2L});
+        before.add(new Object[]{TaskStatus.COMPLETED, 5L});
+        when(flowDailyRepository.sumNetBefore(7L, day)).thenReturn(before);
+        when(flowDailyRepository.findByProjectIdAndDayBetweenOrderByDayAsc(7L, day, day)).thenReturn(List.of());
+
+        List<BurndownPointResponse> points = taskFlowService.getBurndown(7L, day, day, owner.getEmail());
+
+        assertEquals(1, points.size());
+        assertEquals(2L, points.get(0).getRemaining());
+        assertEquals(5L, points.get(0).getCompleted());
+    }
+
+    @Test
+    void getCumulativeFlow_RangeTooLong_ThrowsException() {
+        allowAccess();
+        LocalDate start = LocalDate.of(2025, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> taskFlowService.getCumulativeFlow(7L, start, start.plusDays(400), owner.getEmail()));
+        verifyNoInteractions(flowDailyRepository);
+    }
+
+    @Test
+    void getCycleTimeHistogram_FillsEmptyBuckets() {
+        allowAccess();
+        when(cycleTimeBucketRepository.findByProjectIdOrderByMinDaysAsc(7L)).thenReturn(List.of(
+            ProjectCycleTimeBucket.builder().projectId(7L).minDays(3).count(4L).build()));
+
+        List<CycleTimeBucketResponse> histogram = taskFlowService.getCycleTimeHistogram(7L, owner.getEmail());
+
+        assertEquals(TaskFlowService.CYCLE_TIME_BUCKETS.length, histogram.size());
+        assertEquals(0L, histogram.get(0).getCount());
+        assertEquals(3, histogram.get(3).getMinDays());
+        assertEquals(4, histogram.get(3).getMaxDays());
+        assertEquals(4L, histogram.get(3).getCount());
+        assertNull(histogram.get(histogram.size() - 1).getMaxDays());
+    }
+
+    @Test
+    void getCycleTimeHistogram_NotMember_ThrowsException() {
+        User stranger = User.builder().id(2L).email("stranger@example.com").build();
+        when(projectRepository.findById(7L)).thenReturn(Optional.of(project));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(stranger));
+        when(projectUserRepository.existsByProjectIdAndUserId(7L, 2L)).thenReturn(false);
+
+        assertThrows(UnauthorizedOperationException.class,
+            () -> taskFlowService.getCycleTimeHistogram(7L, stranger.getEmail()));
+    }
+
+    @Test
+    void cycleTimeBucket_PicksLargestLowerBound() {
+        assertEquals(0, TaskFlowService.cycleTimeBucket(0));
+        assertEquals(3, TaskFlowService.cycleTimeBucket(4));
+        assertEquals(8, TaskFlowService.cycleTimeBucket(8));
+        assertEquals(55, TaskFlowService.cycleTimeBucket(400));
+    }
+
+    private void allowAccess() {
+        when(projectRepository.findById(7L)).thenReturn(Optional.of(project));
+        when(userRepository.findByEmail(owner.getEmail())).thenReturn(Optional.of(owner));
+    }
+
+    private Task task(Long id) {
+        return Task.builder().id(id).name("Task " + id).project(project).build();
+    }
+
+    private ProjectFlowDaily bucket(LocalDate day, TaskStatus status, long entered, long exited) {
+        return ProjectFlowDaily.builder().projectId(7L).day(day).status(status).entered(entered).exited(exited).build();
+    }
+}
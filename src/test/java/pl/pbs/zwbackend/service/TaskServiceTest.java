@@ -1,13 +1,22 @@
 package pl.pbs.zwbackend.service;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import pl.pbs.zwbackend.dto.ProjectChangeEvent;
+import pl.pbs.zwbackend.dto.TaskBulkOperation;
+import pl.pbs.zwbackend.dto.TaskBulkRequest;
+import pl.pbs.zwbackend.dto.TaskBulkResponse;
 import pl.pbs.zwbackend.dto.TaskCreateRequest;
+import pl.pbs.zwbackend.dto.TaskMoveRequest;
 import pl.pbs.zwbackend.dto.TaskResponse;
+import pl.pbs.zwbackend.dto.TaskRow;
 import pl.pbs.zwbackend.dto.TaskUpdateRequest;
+import pl.pbs.zwbackend.exception.PreconditionFailedException;
 import pl.pbs.zwbackend.exception.ResourceNotFoundException;
 import pl.pbs.zwbackend.exception.UnauthorizedOperationException;
 import pl.pbs.zwbackend.model.Project;
@@ -16,7 +25,11 @@ import pl.pbs.zwbackend.model.User;
 import pl.pbs.zwbackend.model.enums.TaskStatus;
 import pl.pbs.zwbackend.model.enums.Role;
 import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.repository.TaskCommentRepository;
+import pl.pbs.zwbackend.repository.TaskCustomFieldValueRepository;
+import pl.pbs.zwbackend.repository.TaskDependencyRepository;
 import pl.pbs.zwbackend.repository.TaskRepository;
+import pl.pbs.zwbackend.repository.TaskTagRepository;
 import pl.pbs.zwbackend.repository.UserRepository;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -41,6 +54,51 @@ class TaskServiceTest {
     @Mock
     private UserService userService;
     
+    @Mock
+    private TaskRankRebalancer taskRankRebalancer;
+    
+    @Mock
+    private TaskFlowService taskFlowService;
+    
+    @Mock
+    private TaskDependencyRepository taskDependencyRepository;
+    
+    @Mock
+    private CriticalPathEngine criticalPathEngine;
+    
+    @Mock
+    private ProjectEventPublisher projectEventPublisher;
+    
+    @Mock
+    private TaskCommentRepository taskCommentRepository;
+    
+    @Mock
+    private WorkloadService workloadService;
+    
+    @Mock
+    private CalendarFeedService calendarFeedService;
+    
+    @Mock
+    private CustomFieldService customFieldService;
+    
+    @Mock
+    private TaskCustomFieldValueRepository taskCustomFieldValueRepository;
+    
+    @Mock
+    private TaskFacetIndex taskFacetIndex;
+    
+    @Mock
+    private TaskTagRepository taskTagRepository;
+    
+    @Mock
+    private TaskTagService taskTagService;
+    
+    @Mock
+    private MarkdownRenderer markdownRenderer;
+    
+    @Mock
+    private DueDateScanner dueDateScanner;
+    
     @InjectMocks
     private TaskService taskService;
     
@@ -111,6 +169,7 @@ class TaskServiceTest {
         verify(userRepository, times(2)).findByEmail(testUser.getEmail());
         verify(projectRepository).findById(1L);
         verify(taskRepository).save(any(Task.class));
+        verify(taskFlowService).recordTransition(any(Task.class), isNull(), eq(TaskStatus.TODO), eq(testUser));
     }
     
     @Test
@@ -153,15 +212,17 @@ class TaskServiceTest {
     
     @Test
     void getTasksByProject_Success() {
-        List<Task> tasks = Arrays.asList(testTask);
-        when(taskRepository.findByProjectId(anyLong())).thenReturn(tasks);
+        List<TaskRow> rows = Arrays.asList(testTaskRow());
+        when(projectRepository.existsById(anyLong())).thenReturn(true);
+        when(taskRepository.findRowsByProjectId(anyLong())).thenReturn(rows);
         
         List<TaskResponse> responses = taskService.getTasksByProject(1L);
         
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(testTask.getName(), responses.get(0).getName());
-        verify(taskRepository).findByProjectId(1L);
+        verify(taskRepository).findRowsByProjectId(1L);
+        verify(taskRepository, never()).findById(anyLong());
     }
     
     @Test
@@ -193,6 +254,266 @@ class TaskServiceTest {
             () -> taskService.updateTask(1L, taskUpdateRequest, otherUser.getEmail()));
     }
     
+    @Test
+    void patchTask_OnlyChangesPresentFields() throws Exception {
+        testTask.setVersion(3L);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
+        JsonNode patch = new ObjectMapper().readTree("{\"description\": null}");
+        
+        TaskResponse response = taskService.patchTask(1L, patch, 3L, testUser.getEmail());
+        
+        assertNotNull(response);
+        assertNull(testTask.getDescription());
+        assertEquals("Test Task", testTask.getName());
+        assertEquals(TaskStatus.TODO, testTask.getStatus());
+        verify(projectEventPublisher).updated(1L, ProjectChangeEvent.Entity.TASK, 1L, List.of("description"));
+    }
+    
+    @Test
+    void patchTask_StaleVersion_ThrowsPreconditionFailed() throws Exception {
+        testTask.setVersion(4L);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        JsonNode patch = new ObjectMapper().readTree("{\"name\": \"Renamed\"}");
+        
+        assertThrows(PreconditionFailedException.class,
+            () -> taskService.patchTask(1L, patch, 3L, testUser.getEmail()));
+        assertEquals("Test Task", testTask.getName());
+        verify(taskRepository, never()).saveAndFlush(any(Task.class));
+    }
+    
+    @Test
+    void patchTask_SubtaskCompleted_RollsUpToEveryAncestor() throws Exception {
+        testTask.setVersion(1L);
+        testTask.setPath("/10/20/");
+        testTask.setDepth(2);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
+        JsonNode patch = new ObjectMapper().readTree("{\"status\": \"COMPLETED\"}");
+        
+        taskService.patchTask(1L, patch, 1L, testUser.getEmail());
+        
+        verify(taskRepository).adjustSubtaskCounts(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(10L, 20L))), eq(0), eq(1));
+    }
+    
+    @Test
+    void patchTask_DueDateChanged_HandsTaskToDueDateScanner() throws Exception {
+        testTask.setVersion(3L);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
+        JsonNode patch = new ObjectMapper().readTree("{\"dueDate\": \"" + LocalDate.now().plusDays(1) + "\"}");
+        
+        taskService.patchTask(1L, patch, 3L, testUser.getEmail());
+        
+        verify(dueDateScanner).dueDatesChanged(List.of(testTask));
+    }
+    
+    @Test
+    void patchTask_NameChanged_DoesNotCheckDueDate() throws Exception {
+        testTask.setVersion(3L);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
+        JsonNode patch = new ObjectMapper().readTree("{\"name\": \"Renamed\"}");
+        
+        taskService.patchTask(1L, patch, 3L, testUser.getEmail());
+        
+        verifyNoInteractions(dueDateScanner);
+    }
+    
+    @Test
+    void updateTask_StatusChanged_AppendsToEndOfNewColumn() {
+        testTask.setRank("i");
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        when(taskRepository.findMaxRank(1L, TaskStatus.IN_PROGRESS)).thenReturn("m");
+        when(taskRepository.save(any(Task.class))).thenReturn(testTask);
+        
+        taskService.updateTask(1L, taskUpdateRequest, testUser.getEmail());
+        
+        assertEquals(TaskStatus.IN_PROGRESS, testTask.getStatus());
+        assertTrue(testTask.getRank().compareTo("m") > 0);
+        verify(taskRankRebalancer).requestRebalanceIfNeeded(1L, TaskStatus.IN_PROGRESS, testTask.getRank());
+    }
+    
+    @Test
+    void moveTask_NeighboursShareRank_RanksOnlyNeighbourAndMovedTask() {
+        testTask.setRank("a");
+        Task previous = Task.builder().id(3L).name("Previous").status(TaskStatus.IN_PROGRESS).rank("i").project(testProject).build();
+        Task next = Task.builder().id(2L).name("Next").status(TaskStatus.IN_PROGRESS).rank("i").project(testProject).build();
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask, previous, next));
+        when(taskRepository.findRankAfter(1L, TaskStatus.IN_PROGRESS, "i")).thenReturn("t");
+        TaskMoveRequest request = new TaskMoveRequest(TaskStatus.IN_PROGRESS, 3L, 2L);
+        
+        taskService.moveTask(1L, request, testUser.getEmail());
+        
+        assertEquals("i", previous.getRank());
+        assertTrue(previous.getRank().compareTo(testTask.getRank()) < 0);
+        assertTrue(testTask.getRank().compareTo(next.getRank()) < 0);
+        assertTrue(next.getRank().compareTo("t") < 0);
+        verify(taskRankRebalancer, never()).rebalanceColumn(anyLong(), any());
+        verify(projectEventPublisher).updated(1L, ProjectChangeEvent.Entity.TASK, 2L, List.of("rank"));
+    }
+    
+    @Test
+    void moveTask_ToEmptyColumn_AppendsAfterMaxRank() {
+        testTask.setRank("i");
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        when(taskRepository.findMaxRank(1L, TaskStatus.COMPLETED)).thenReturn(null);
+        
+        taskService.moveTask(1L, new TaskMoveRequest(TaskStatus.COMPLETED, null, null), testUser.getEmail());
+        
+        assertEquals(TaskStatus.COMPLETED, testTask.getStatus());
+        assertNotNull(testTask.getRank());
+        verify(taskRankRebalancer, never()).rebalanceColumn(anyLong(), any());
+    }
+    
+    @Test
+    void bulkUpdateTasks_CreateAndStatusChange_AppliesBoth() {
+        testTask.setRank("i");
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        when(projectRepository.findAllById(any())).thenReturn(List.of(testProject));
+        when(taskRepository.findMaxRank(1L, TaskStatus.TODO)).thenReturn("i");
+        when(taskRepository.findMaxRank(1L, TaskStatus.COMPLETED)).thenReturn("m");
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.CREATE).name("New Task").status(TaskStatus.TODO).projectId(1L).build(),
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(1L).status(TaskStatus.COMPLETED).build()));
+        
+        TaskBulkResponse response = taskService.bulkUpdateTasks(request, testUser.getEmail());
+        
+        assertEquals(1, response.getCreated().size());
+        assertEquals("New Task", response.getCreated().get(0).getName());
+        assertTrue(response.getCreated().get(0).getRank().compareTo("i") > 0);
+        assertEquals(1, response.getUpdated().size());
+        assertEquals(TaskStatus.COMPLETED, testTask.getStatus());
+        assertTrue(testTask.getRank().compareTo("m") > 0);
+        verify(taskRepository).saveAll(argThat(tasks -> ((List<?>) tasks).size() == 1));
+        verify(taskFlowService).recordTransitions(argThat(changes -> changes.size() == 2
+            && changes.stream().anyMatch(change -> change.task() == testTask
+                && change.from() == TaskStatus.TODO && change.to() == TaskStatus.COMPLETED)), eq(testUser));
+        verify(projectEventPublisher).updated(1L, ProjectChangeEvent.Entity.TASK, 1L, List.of("status", "rank"));
+    }
+    
+    @Test
+    void bulkUpdateTasks_CreatesInOneColumn_RanksInRequestOrder() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(projectRepository.findAllById(any())).thenReturn(List.of(testProject));
+        when(taskRepository.findMaxRank(1L, TaskStatus.TODO)).thenReturn("i");
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.CREATE).name("First").status(TaskStatus.TODO).projectId(1L).build(),
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.CREATE).name("Second").status(TaskStatus.TODO).projectId(1L).build()));
+        
+        TaskBulkResponse response = taskService.bulkUpdateTasks(request, testUser.getEmail());
+        
+        String first = response.getCreated().get(0).getRank();
+        String second = response.getCreated().get(1).getRank();
+        assertTrue(first.compareTo("i") > 0);
+        assertTrue(second.compareTo(first) > 0);
+        verify(taskRepository, times(1)).findMaxRank(1L, TaskStatus.TODO);
+    }
+    
+    @Test
+    void bulkUpdateTasks_ReassignOnly_KeepsRank() {
+        testTask.setRank("i");
+        User assignee = User.builder().id(3L).email("jane.roe@example.com").build();
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        when(userRepository.findByEmailIn(any())).thenReturn(List.of(assignee));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.REASSIGN).taskId(1L).assignedTo(assignee.getEmail()).build()));
+        
+        taskService.bulkUpdateTasks(request, testUser.getEmail());
+        
+        assertSame(assignee, testTask.getAssignedTo());
+        assertEquals("i", testTask.getRank());
+        verify(taskRepository, never()).findMaxRank(anyLong(), any());
+    }
+    
+    @Test
+    void bulkUpdateTasks_UpdateWithoutPermission_WritesNothing() {
+        User otherUser = User.builder().id(2L).email("other@example.com").build();
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(otherUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(1L).status(TaskStatus.COMPLETED).build()));
+        
+        assertThrows(UnauthorizedOperationException.class,
+            () -> taskService.bulkUpdateTasks(request, otherUser.getEmail()));
+        verify(taskRepository, never()).saveAll(any());
+        verifyNoInteractions(taskFlowService, projectEventPublisher);
+    }
+    
+    @Test
+    void bulkUpdateTasks_AssigneeDeletes_ThrowsException() {
+        User assignee = User.builder().id(2L).email("assignee@example.com").build();
+        testTask.setAssignedTo(assignee);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(assignee));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(1L).status(TaskStatus.IN_PROGRESS).build(),
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.DELETE).taskId(1L).build()));
+        
+        assertThrows(UnauthorizedOperationException.class,
+            () -> taskService.bulkUpdateTasks(request, assignee.getEmail()));
+        verify(taskRepository, never()).deleteAll(any());
+    }
+    
+    @Test
+    void bulkUpdateTasks_LaterOperationFails_WritesNothing() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.REASSIGN).taskId(1L).build(),
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(99L).status(TaskStatus.COMPLETED).build()));
+        
+        assertThrows(ResourceNotFoundException.class,
+            () -> taskService.bulkUpdateTasks(request, testUser.getEmail()));
+        verify(taskRepository, never()).saveAll(any());
+        verifyNoInteractions(taskFlowService, projectEventPublisher, taskFacetIndex);
+    }
+    
+    @Test
+    void bulkUpdateTasks_UpdateAfterDelete_ThrowsException() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.DELETE).taskId(1L).build(),
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(1L).status(TaskStatus.COMPLETED).build()));
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> taskService.bulkUpdateTasks(request, testUser.getEmail()));
+        verify(taskRepository, never()).deleteAll(any());
+    }
+    
+    @Test
+    void bulkUpdateTasks_StatusChangeWithoutStatus_ThrowsException() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findAllWithProjectByIdIn(any())).thenReturn(List.of(testTask));
+        TaskBulkRequest request = new TaskBulkRequest(List.of(
+            TaskBulkOperation.builder().type(TaskBulkOperation.Type.STATUS_CHANGE).taskId(1L).build()));
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> taskService.bulkUpdateTasks(request, testUser.getEmail()));
+        assertEquals(TaskStatus.TODO, testTask.getStatus());
+    }
+    
+    @Test
+    void deleteTask_WithSubtasks_ThrowsException() {
+        testTask.setSubtaskCount(2);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(testTask));
+        
+        assertThrows(IllegalArgumentException.class, () -> taskService.deleteTask(1L, testUser.getEmail()));
+        verify(taskRepository, never()).delete(any(Task.class));
+    }
+    
     @Test
     void deleteTask_Success() {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
@@ -221,9 +542,9 @@ class TaskServiceTest {
     
     @Test
     void getTasksAssignedToUser_Success() {
-        List<Task> tasks = Arrays.asList(testTask);
+        List<TaskRow> rows = Arrays.asList(testTaskRow());
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
-        when(taskRepository.findByAssignedToId(anyLong())).thenReturn(tasks);
+        when(taskRepository.findRowsByAssigneeId(anyLong())).thenReturn(rows);
         
         List<TaskResponse> responses = taskService.getTasksAssignedToUser(testUser.getEmail());
         
@@ -231,6 +552,21 @@ class TaskServiceTest {
         assertEquals(1, responses.size());
         assertEquals(testTask.getName(), responses.get(0).getName());
         verify(userRepository).findByEmail(testUser.getEmail());
-        verify(taskRepository).findByAssignedToId(testUser.getId());
+        verify(taskRepository).findRowsByAssigneeId(testUser.getId());
+    }
+    
+    private TaskRow testTaskRow() {
+        return TaskRow.builder()
+            .id(testTask.getId())
+            .name(testTask.getName())
+            .description(testTask.getDescription())
+            .status(testTask.getStatus())
+            .dueDate(testTask.getDueDate())
+            .projectId(testProject.getId())
+            .assigneeId(testUser.getId())
+            .assigneeFirstName(testUser.getFirstName())
+            .assigneeLastName(testUser.getLastName())
+            .assigneeEmail(testUser.getEmail())
+            .build();
     }
 }
@@ -26,6 +26,9 @@ class UserServiceTest {
     @Mock
     private FileStorageService fileStorageService;
     
+    @Mock
+    private BlobStorageService blobStorageService;
+    
     @Mock
     private MultipartFile multipartFile;
     
@@ -50,7 +53,8 @@ class UserServiceTest {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
         when(multipartFile.getContentType()).thenReturn("image/jpeg");
         when(multipartFile.getOriginalFilename()).thenReturn("avatar.jpg");
-        when(fileStorageService.storeFile(any(MultipartFile.class), anyString())).thenReturn("avatar.jpg");
+        when(blobStorageService.store(any(MultipartFile.class))).thenReturn(new BlobStorageService.StoredBlob("abc", 10L));
+        when(fileStorageService.newStoredFileName("avatar.jpg")).thenReturn("stored.jpg");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         
         UserSummaryResponse response = userService.uploadAvatar(multipartFile, testUser.getEmail());
@@ -60,7 +64,9 @@ class UserServiceTest {
         assertEquals(testUser.getLastName(), response.getLastName());
         assertEquals(testUser.getEmail(), response.getEmail());
         verify(userRepository).findByEmail(testUser.getEmail());
-        verify(fileStorageService).storeFile(multipartFile, "avatars");
+        assertEquals("stored.jpg", testUser.getAvatarFileName());
+        assertEquals("abc", testUser.getAvatarBlobHash());
+        verify(blobStorageService).store(multipartFile);
         verify(userRepository).save(any(User.class));
     }
     
@@ -99,13 +105,15 @@ class UserServiceTest {
     @Test
     void deleteAvatar_Success() {
         testUser.setAvatarFileName("avatar.jpg");
+        testUser.setAvatarBlobHash("abc");
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         
         userService.deleteAvatar(testUser.getEmail());
         
         verify(userRepository).findByEmail(testUser.getEmail());
-        verify(fileStorageService).deleteFile("avatar.jpg", "avatars");
+        verify(blobStorageService).release("abc");
+        assertNull(testUser.getAvatarBlobHash());
         verify(userRepository).save(any(User.class));
     }
     
@@ -116,4 +124,12 @@ class UserServiceTest {
         assertThrows(ResourceNotFoundException.class, 
             () -> userService.deleteAvatar("nonexistent@example.com"));
     }
+    
+    @Test
+    void convertToUserSummaryResponse_EncodesAvatarFileNameAsPathSegment() {
+        UserSummaryResponse summary = userService.convertToUserSummaryResponse(1L, "John", "Doe",
+            "john.doe@example.com", "my photo#1.png", "http://localhost/api/users/avatar/");
+        
+        assertEquals("http://localhost/api/users/avatar/my%20photo%231.png", summary.getAvatarUrl());
+    }
 }
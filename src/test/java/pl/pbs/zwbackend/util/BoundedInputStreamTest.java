@@ -0,0 +1,34 @@
+package pl.pbs.zwbackend.util;
+import org.junit.jupiter.api.Test;
+import pl.pbs.zwbackend.exception.PayloadTooLargeException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+class BoundedInputStreamTest {
+    
+    @Test
+    void read_WithinLimit_PassesAllBytes() throws Exception {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[10]), 10, "too large");
+        
+        assertEquals(10, in.readAllBytes().length);
+    }
+    
+    @Test
+    void read_BeyondLimit_ThrowsPayloadTooLarge() {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[11]), 10, "too large");
+        
+        PayloadTooLargeException ex = assertThrows(PayloadTooLargeException.class,
+            () -> in.transferTo(OutputStream.nullOutputStream()));
+        assertEquals("too large", ex.getMessage());
+    }
+    
+    @Test
+    void read_SingleBytesBeyondLimit_ThrowsPayloadTooLarge() throws Exception {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[3]), 2, "too large");
+        
+        in.read();
+        in.read();
+        assertThrows(PayloadTooLargeException.class, in::read);
+    }
+}
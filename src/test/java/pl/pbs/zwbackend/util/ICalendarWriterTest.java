@@ -0,0 +1,40 @@
+package pl.pbs.zwbackend.util;
+import org.junit.jupiter.api.Test;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import static org.junit.jupiter.api.Assertions.*;
+class ICalendarWriterTest {
+    
+    @Test
+    void allDayEvent_WritesEscapedCrlfLines() throws Exception {
+        StringWriter out = new StringWriter();
+        ICalendarWriter calendar = new ICalendarWriter(out, Instant.parse("2025-01-02T03:04:05Z"));
+        
+        calendar.begin("Tasks");
+        calendar.allDayEvent("task-1@zw-backend", LocalDate.of(2025, 3, 31), "Fix a; b, c", "line1\nline2");
+        calendar.end();
+        
+        String ics = out.toString();
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.contains("DTSTAMP:20250102T030405Z\r\n"));
+        assertTrue(ics.contains("DTSTART;VALUE=DATE:20250331\r\nDTEND;VALUE=DATE:20250401\r\n"));
+        assertTrue(ics.contains("SUMMARY:Fix a\\; b\\, c\r\n"));
+        assertTrue(ics.contains("DESCRIPTION:line1\\nline2\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    }
+    
+    @Test
+    void allDayEvent_FoldsLongLinesAt75Octets() throws Exception {
+        StringWriter out = new StringWriter();
+        ICalendarWriter calendar = new ICalendarWriter(out, Instant.now());
+        
+        calendar.allDayEvent("task-2@zw-backend", LocalDate.of(2025, 1, 1), "ż".repeat(100), null);
+        
+        for (String line : out.toString().split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+        assertTrue(out.toString().contains("\r\n ż"));
+    }
+}
@@ -0,0 +1,61 @@
+package pl.pbs.zwbackend.util;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+class LexoRankTest {
+    
+    @Test
+    void between_ReturnsRankStrictlyBetweenBounds() {
+        String rank = LexoRank.between("a", "b");
+        
+        assertTrue("a".compareTo(rank) < 0);
+        assertTrue(rank.compareTo("b") < 0);
+    }
+    
+    @Test
+    void between_AdjacentRanksRepeatedly_StaysOrdered() {
+        String lower = "a";
+        String upper = "a1";
+        for (int i = 0; i < 20; i++) {
+            String rank = LexoRank.between(lower, upper);
+            assertTrue(lower.compareTo(rank) < 0);
+            assertTrue(rank.compareTo(upper) < 0);
+            assertNotEquals('0', rank.charAt(rank.length() - 1));
+            upper = rank;
+        }
+    }
+    
+    @Test
+    void between_OpenBounds_ReturnsRank() {
+        assertEquals(LexoRank.INITIAL, LexoRank.between(null, null));
+        assertTrue(LexoRank.between(null, "0001").compareTo("0001") < 0);
+        assertTrue(LexoRank.between("zz", null).compareTo("zz") > 0);
+    }
+    
+    @Test
+    void between_InvertedBounds_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> LexoRank.between("b", "a"));
+    }
+    
+    @Test
+    void afterAndBefore_DoNotGrowRank() {
+        String rank = LexoRank.INITIAL;
+        for (int i = 0; i < 1000; i++) {
+            String next = LexoRank.after(rank);
+            assertTrue(next.compareTo(rank) > 0);
+            rank = next;
+        }
+        assertTrue(rank.length() <= 6);
+        assertTrue(LexoRank.before(LexoRank.INITIAL).compareTo(LexoRank.INITIAL) < 0);
+    }
+    
+    @Test
+    void spaced_ReturnsAscendingDistinctRanks() {
+        List<String> ranks = LexoRank.spaced(500);
+        
+        assertEquals(500, ranks.size());
+        for (int i = 1; i < ranks.size(); i++) {
+            assertTrue(ranks.get(i - 1).compareTo(ranks.get(i)) < 0);
+        }
+    }
+}
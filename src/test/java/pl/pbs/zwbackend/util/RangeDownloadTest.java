@@ -0,0 +1,113 @@
+package pl.pbs.zwbackend.util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+class RangeDownloadTest {
+    
+    private static final String ETAG = "\"f1\"";
+    
+    @TempDir
+    Path tempDir;
+    
+    private RangeDownload download;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = tempDir.resolve("f1.txt");
+        Files.writeString(file, "0123456789");
+        download = new RangeDownload(file, "text/plain", "notes.txt", false, ETAG);
+        request = new MockHttpServletRequest("GET", "/download");
+        response = new MockHttpServletResponse();
+    }
+    
+    @Test
+    void write_NoRange_SendsWholeFileWithValidators() throws Exception {
+        download.write(request, response);
+        
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertTrue(response.getHeader("Content-Disposition").startsWith("attachment"));
+    }
+    
+    @Test
+    void write_SingleRange_SendsPartialContent() throws Exception {
+        request.addHeader("Range", "bytes=2-4");
+        
+        download.write(request, response);
+        
+        assertEquals(206, response.getStatus());
+        assertEquals("234", response.getContentAsString());
+        assertEquals("bytes 2-4/10", response.getHeader("Content-Range"));
+        assertEquals(3, response.getContentLengthLong());
+    }
+    
+    @Test
+    void write_MultipleRanges_SendsMultipartByteranges() throws Exception {
+        request.addHeader("Range", "bytes=0-1,-2");
+        
+        download.write(request, response);
+        
+        String body = response.getContentAsString();
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n"));
+        assertEquals(body.getBytes(StandardCharsets.US_ASCII).length, response.getContentLengthLong());
+    }
+    
+    @Test
+    void write_StaleIfRange_SendsWholeFile() throws Exception {
+        request.addHeader("Range", "bytes=2-4");
+        request.addHeader("If-Range", "\"other\"");
+        
+        download.write(request, response);
+        
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+    
+    @Test
+    void write_UnsatisfiableRange_Returns416() throws Exception {
+        request.addHeader("Range", "bytes=20-30");
+        
+        download.write(request, response);
+        
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+    
+    @Test
+    void write_MatchingIfNoneMatch_Returns304() throws Exception {
+        request.addHeader("If-None-Match", ETAG);
+        
+        download.write(request, response);
+        
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+    
+    @Test
+    void write_LargeFileWithSendfileSupport_HandsBodyToContainer() throws Exception {
+        Path large = tempDir.resolve("large.bin");
+        Files.write(large, new byte[(int) RangeDownload.SENDFILE_MIN_BYTES * 2]);
+        request.setAttribute(RangeDownload.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader("Range", "bytes=100-");
+        
+        new RangeDownload(large, "application/octet-stream", "large.bin", false, ETAG).write(request, response);
+        
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(100L, request.getAttribute(RangeDownload.SENDFILE_START));
+        assertEquals(RangeDownload.SENDFILE_MIN_BYTES * 2, request.getAttribute(RangeDownload.SENDFILE_END));
+    }
+}
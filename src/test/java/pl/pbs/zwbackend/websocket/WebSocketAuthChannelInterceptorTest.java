@@ -0,0 +1,90 @@
+package pl.pbs.zwbackend.websocket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import pl.pbs.zwbackend.repository.ProjectRepository;
+import pl.pbs.zwbackend.security.JwtTokenProvider;
+import pl.pbs.zwbackend.service.CustomUserDetailsService;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+@ExtendWith(MockitoExtension.class)
+class WebSocketAuthChannelInterceptorTest {
+    
+    private static final String EMAIL = "john.doe@example.com";
+    
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+    
+    @Mock
+    private ProjectRepository projectRepository;
+    
+    @Mock
+    private MessageChannel channel;
+    
+    @InjectMocks
+    private WebSocketAuthChannelInterceptor interceptor;
+    
+    @Test
+    void subscribe_ProjectTopicAsMember_IsAllowed() {
+        when(projectRepository.hasMember(5L, EMAIL)).thenReturn(true);
+        
+        assertDoesNotThrow(() -> interceptor.preSend(subscribe("/topic/projects/5", true), channel));
+    }
+    
+    @Test
+    void subscribe_ProjectTopicAsNonMember_IsDenied() {
+        when(projectRepository.hasMember(5L, EMAIL)).thenReturn(false);
+        
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/projects/5", true), channel));
+    }
+    
+    @Test
+    void subscribe_WildcardDestinations_AreDenied() {
+        for (String destination : new String[]{"/topic/**", "/topic/*/5", "/topic/projects/*", "/topic/projects/?", "/topic/projects/{id}"}) {
+            assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe(destination, true), channel), destination);
+        }
+        verify(projectRepository, never()).hasMember(any(), anyString());
+    }
+    
+    @Test
+    void subscribe_UnknownDestinations_AreDeniedByDefault() {
+        for (String destination : new String[]{"/topic/other", "/topic/projects/5/tasks", "/queue/notifications", "/queue/notifications-user123"}) {
+            assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe(destination, true), channel), destination);
+        }
+    }
+    
+    @Test
+    void subscribe_OwnNotificationQueue_RequiresAuthentication() {
+        assertDoesNotThrow(() -> interceptor.preSend(subscribe("/user/queue/notifications", true), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/user/queue/notifications", false), channel));
+    }
+    
+    @Test
+    void subscribe_PublicChat_IsAllowed() {
+        assertDoesNotThrow(() -> interceptor.preSend(subscribe("/topic/public", false), channel));
+    }
+    
+    private Message<byte[]> subscribe(String destination, boolean authenticated) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        if (authenticated) {
+            accessor.setUser(new UsernamePasswordAuthenticationToken(EMAIL, null));
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}